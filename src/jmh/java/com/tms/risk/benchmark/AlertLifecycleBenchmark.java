@@ -0,0 +1,80 @@
+package com.tms.risk.benchmark;
+
+import com.tms.risk.entity.RiskAlert;
+import com.tms.risk.entity.RiskLimit;
+import com.tms.risk.event.PositionUpdate;
+import com.tms.risk.service.FixedPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One breach and one recovery of a single position per operation, so every operation builds an
+ * alert (message formatting, BigDecimal conversion, outbox payload) and auto-resolves it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlertLifecycleBenchmark {
+
+    private static final int FLUSH_EVERY = 512;
+
+    private BenchmarkFixtures.Pipeline pipeline;
+    private PositionUpdate breach;
+    private PositionUpdate recovery;
+    private int operations;
+
+    @Setup
+    public void setUp() {
+        RiskLimit limit = RiskLimit.builder()
+            .limitId(1L)
+            .accountCode(BenchmarkFixtures.account(0))
+            .symbol(BenchmarkFixtures.symbol(0))
+            .limitType(RiskLimit.LimitType.MAX_POSITION_VALUE)
+            .limitValue(BigDecimal.valueOf(1_000_000L))
+            .warningThreshold(new BigDecimal("80.00"))
+            .isActive(true)
+            .build();
+        pipeline = BenchmarkFixtures.pipeline(List.of(limit), 1);
+        breach = update(1_250_000L);
+        recovery = update(100_000L);
+    }
+
+    @Benchmark
+    public List<RiskAlert> breachAndRecover() {
+        if ((operations++ & (FLUSH_EVERY - 1)) == 0) {
+            pipeline.writeBehind().flush();
+        }
+        List<RiskAlert> raised = pipeline.service().evaluatePosition(breach);
+        pipeline.service().evaluatePosition(recovery);
+        return raised;
+    }
+
+    @TearDown(Level.Iteration)
+    public void flush() {
+        pipeline.writeBehind().flush();
+    }
+
+    private static PositionUpdate update(long costBasis) {
+        return new PositionUpdate("evt", System.currentTimeMillis(), "corr",
+            BenchmarkFixtures.account(0) + ":" + BenchmarkFixtures.symbol(0),
+            BenchmarkFixtures.account(0), BenchmarkFixtures.symbol(0), "trd",
+            1_000 * FixedPoint.ONE, costBasis * FixedPoint.ONE / 1_000, costBasis * FixedPoint.ONE);
+    }
+}
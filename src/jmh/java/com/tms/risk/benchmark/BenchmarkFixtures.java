@@ -0,0 +1,241 @@
+package com.tms.risk.benchmark;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.tms.common.observability.metrics.TradeMetrics;
+import com.tms.risk.entity.RiskLimit;
+import com.tms.risk.entity.SecuritySector;
+import com.tms.risk.event.PositionUpdate;
+import com.tms.risk.repository.RiskAlertRepository;
+import com.tms.risk.repository.RiskLimitRepository;
+import com.tms.risk.repository.SecuritySectorRepository;
+import com.tms.risk.service.AccountExposureAggregator;
+import com.tms.risk.service.ConcentrationEngine;
+import com.tms.risk.service.ConsumerOffsetStore;
+import com.tms.risk.service.DailyTradeCounter;
+import com.tms.risk.service.FixedPoint;
+import com.tms.risk.service.OpenAlertRegistry;
+import com.tms.risk.service.RiskAlertIdAllocator;
+import com.tms.risk.service.RiskAlertOutboxWriter;
+import com.tms.risk.service.RiskAlertWriteBehind;
+import com.tms.risk.service.RiskEvaluationMetrics;
+import com.tms.risk.service.RiskEvaluationService;
+import com.tms.risk.service.RiskLimitIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds the evaluation pipeline over in-memory stand-ins for SQL Server, plus deterministic
+ * limit books and position streams. Account and symbol picks are skewed so a few hot accounts
+ * take most of the flow, as in production.
+ */
+final class BenchmarkFixtures {
+
+    static final String TOPIC = "positions.updated";
+    static final long SEED = 42L;
+
+    private static final String[] SECTORS = {"TECH", "FIN", "HEALTH", "ENERGY", "INDUSTRIAL", "CONSUMER"};
+    private static final long POSITION_VALUE_LIMIT = 1_000_000L;
+
+    private BenchmarkFixtures() {
+    }
+
+    static String account(int index) {
+        return "ACC" + index;
+    }
+
+    static String symbol(int index) {
+        return "SYM" + index;
+    }
+
+    /**
+     * Roughly 60% account+symbol, 25% account-wide, 15% symbol-wide limits and a few global ones.
+     */
+    static List<RiskLimit> limits(int limitCount, int accountCount, int symbolCount) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<RiskLimit> limits = new ArrayList<>(limitCount);
+        for (int i = 0; i < limitCount; i++) {
+            double scope = random.nextDouble();
+            RiskLimit.RiskLimitBuilder limit = RiskLimit.builder()
+                .limitId((long) i + 1)
+                .warningThreshold(new BigDecimal("80.00"))
+                .isActive(true);
+            if (i < 4) {
+                limit.limitType(RiskLimit.LimitType.MAX_SINGLE_TRADE_VALUE).limitValue(BigDecimal.valueOf(5_000_000L));
+            } else if (scope < 0.60) {
+                limit.accountCode(account(skewed(random, accountCount)))
+                    .symbol(symbol(skewed(random, symbolCount)))
+                    .limitType(RiskLimit.LimitType.MAX_POSITION_VALUE)
+                    .limitValue(BigDecimal.valueOf(POSITION_VALUE_LIMIT));
+            } else if (scope < 0.85) {
+                RiskLimit.LimitType type = switch (random.nextInt(3)) {
+                    case 0 -> RiskLimit.LimitType.MAX_ACCOUNT_EXPOSURE;
+                    case 1 -> RiskLimit.LimitType.MAX_CONCENTRATION;
+                    default -> RiskLimit.LimitType.MAX_DAILY_TRADES;
+                };
+                limit.accountCode(account(random.nextInt(accountCount)))
+                    .limitType(type)
+                    .limitValue(switch (type) {
+                        case MAX_ACCOUNT_EXPOSURE -> BigDecimal.valueOf(50_000_000L);
+                        case MAX_CONCENTRATION -> BigDecimal.valueOf(40L);
+                        default -> BigDecimal.valueOf(500L);
+                    });
+            } else {
+                limit.symbol(symbol(random.nextInt(symbolCount)))
+                    .limitType(RiskLimit.LimitType.MAX_POSITION_QUANTITY)
+                    .limitValue(BigDecimal.valueOf(100_000L));
+            }
+            limits.add(limit.build());
+        }
+        return limits;
+    }
+
+    /**
+     * Position events with one position per account and symbol; {@code breachRatio} of them
+     * carry a cost basis above the position value limits.
+     */
+    static PositionUpdate[] positionUpdates(int count, int accountCount, int symbolCount, double breachRatio) {
+        SplittableRandom random = new SplittableRandom(SEED + 1);
+        PositionUpdate[] updates = new PositionUpdate[count];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            int accountIndex = skewed(random, accountCount);
+            int symbolIndex = skewed(random, symbolCount);
+            long quantity = 10 + random.nextInt(5_000);
+            long costBasis = random.nextDouble() < breachRatio
+                ? POSITION_VALUE_LIMIT + random.nextInt(600_000)
+                : 10_000 + random.nextInt(600_000);
+            updates[i] = new PositionUpdate(
+                "evt-" + i,
+                now,
+                "corr-" + i,
+                account(accountIndex) + ":" + symbol(symbolIndex),
+                account(accountIndex),
+                symbol(symbolIndex),
+                "trd-" + i,
+                quantity * FixedPoint.ONE,
+                costBasis * FixedPoint.ONE / quantity,
+                costBasis * FixedPoint.ONE);
+        }
+        return updates;
+    }
+
+    static List<SecuritySector> sectors(int symbolCount) {
+        List<SecuritySector> sectors = new ArrayList<>(symbolCount);
+        for (int i = 0; i < symbolCount; i++) {
+            sectors.add(SecuritySector.builder().symbol(symbol(i)).sector(SECTORS[i % SECTORS.length]).build());
+        }
+        return sectors;
+    }
+
+    static RiskLimitIndex limitIndex(Collection<RiskLimit> limits) {
+        RiskLimitIndex index = new RiskLimitIndex(stub(RiskLimitRepository.class), stub(ObjectProvider.class));
+        index.replaceAll(limits);
+        return index;
+    }
+
+    /**
+     * The full evaluation pipeline; alert writes are buffered by a real write-behind stage whose
+     * JDBC calls go nowhere, so call {@link RiskAlertWriteBehind#flush()} to keep memory flat.
+     */
+    static Pipeline pipeline(Collection<RiskLimit> limits, int symbolCount) {
+        SecuritySectorRepository securitySectorRepository = stub(SecuritySectorRepository.class);
+        Mockito.when(securitySectorRepository.findAll()).thenReturn(sectors(symbolCount));
+        ConcentrationEngine concentrationEngine = new ConcentrationEngine(securitySectorRepository);
+        concentrationEngine.load();
+
+        JdbcTemplate jdbcTemplate = new InMemoryJdbcTemplate();
+        // Real meters, so the benchmarks include the cost of the hot-path instrumentation
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RiskAlertRepository riskAlertRepository = stub(RiskAlertRepository.class);
+        OpenAlertRegistry openAlertRegistry = new OpenAlertRegistry(riskAlertRepository, stub(ObjectProvider.class));
+        RiskAlertWriteBehind writeBehind = new RiskAlertWriteBehind(
+            jdbcTemplate,
+            new RiskAlertOutboxWriter(jdbcTemplate, JsonMapper.builder().findAndAddModules().build()),
+            stub(ConsumerOffsetStore.class),
+            openAlertRegistry,
+            event -> { },
+            new NoOpTransactionManager(),
+            meterRegistry,
+            500, Integer.MAX_VALUE, 0L);
+
+        RiskEvaluationService service = new RiskEvaluationService(
+            limitIndex(limits),
+            riskAlertRepository,
+            openAlertRegistry,
+            new AccountExposureAggregator(),
+            concentrationEngine,
+            new DailyTradeCounter("UTC", "00:00", false, 1_000_000),
+            new RiskAlertIdAllocator(jdbcTemplate),
+            writeBehind,
+            stub(TradeMetrics.class),
+            new RiskEvaluationMetrics(meterRegistry),
+            event -> { });
+        return new Pipeline(service, writeBehind);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<?> type) {
+        // Stub-only mocks keep no invocation history, so they do not grow during a run
+        return (T) Mockito.mock(type, Mockito.withSettings().stubOnly());
+    }
+
+    // Cubic skew: the lowest indexes are picked far more often than the highest
+    private static int skewed(SplittableRandom random, int bound) {
+        double u = random.nextDouble();
+        return (int) (bound * u * u * u);
+    }
+
+    record Pipeline(RiskEvaluationService service, RiskAlertWriteBehind writeBehind) {
+    }
+
+    /**
+     * Hands out sequence blocks and accepts batch writes without a database.
+     */
+    private static final class InMemoryJdbcTemplate extends JdbcTemplate {
+
+        private final AtomicLong sequence = new AtomicLong(1);
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T queryForObject(String sql, Class<T> requiredType) {
+            return (T) Long.valueOf(sequence.getAndAdd(50));
+        }
+
+        @Override
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                       ParameterizedPreparedStatementSetter<T> pss) {
+            return new int[0][];
+        }
+    }
+
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.tms.risk.benchmark;
+
+import com.tms.risk.entity.RiskLimit;
+import com.tms.risk.event.PositionUpdate;
+import com.tms.risk.service.RiskLimitIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applicable-limit lookup for an event: the allocation-free tier walk used by evaluation, and
+ * the list-building {@link RiskLimitIndex#findApplicableLimits} used by pre-trade checks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LimitLookupBenchmark {
+
+    private static final int EVENTS = 65_536;
+
+    @Param({"1000", "10000", "100000"})
+    private int limitCount;
+
+    @Param({"1000", "10000"})
+    private int accountCount;
+
+    @Param({"2000"})
+    private int symbolCount;
+
+    private RiskLimitIndex index;
+    private PositionUpdate[] updates;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<RiskLimit> limits = BenchmarkFixtures.limits(limitCount, accountCount, symbolCount);
+        index = BenchmarkFixtures.limitIndex(limits);
+        updates = BenchmarkFixtures.positionUpdates(EVENTS, accountCount, symbolCount, 0.0);
+    }
+
+    @Benchmark
+    public void walkTiers(Blackhole blackhole) {
+        PositionUpdate update = updates[next++ & (EVENTS - 1)];
+        RiskLimitIndex.Snapshot snapshot = index.snapshot();
+        for (int tier = 0; tier < RiskLimitIndex.TIER_COUNT; tier++) {
+            List<RiskLimitIndex.Entry> entries = snapshot.tier(tier, update.accountCode(), update.symbol());
+            for (int i = 0; i < entries.size(); i++) {
+                blackhole.consume(entries.get(i).limitValue());
+            }
+        }
+    }
+
+    @Benchmark
+    public List<RiskLimit> findApplicableLimits() {
+        PositionUpdate update = updates[next++ & (EVENTS - 1)];
+        return index.findApplicableLimits(update.accountCode(), update.symbol());
+    }
+}
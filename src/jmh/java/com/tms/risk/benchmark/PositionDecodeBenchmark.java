@@ -0,0 +1,50 @@
+package com.tms.risk.benchmark;
+
+import com.tms.risk.event.PositionUpdate;
+import com.tms.risk.messaging.PositionUpdatedDeserializer;
+import com.tms.risk.messaging.PositionUpdatedSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of {@code PositionUpdated} payloads as the listener containers see them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PositionDecodeBenchmark {
+
+    private static final int PAYLOADS = 1024;
+
+    private final PositionUpdatedDeserializer deserializer = new PositionUpdatedDeserializer();
+    private byte[][] payloads;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        PositionUpdatedSerializer serializer = new PositionUpdatedSerializer();
+        PositionUpdate[] updates = BenchmarkFixtures.positionUpdates(PAYLOADS, 1_000, 500, 0.01);
+        payloads = new byte[PAYLOADS][];
+        for (int i = 0; i < PAYLOADS; i++) {
+            payloads[i] = serializer.serialize(BenchmarkFixtures.TOPIC, updates[i]);
+        }
+    }
+
+    @Benchmark
+    public PositionUpdate decode() {
+        return deserializer.deserialize(BenchmarkFixtures.TOPIC, payloads[next++ & (PAYLOADS - 1)]);
+    }
+}
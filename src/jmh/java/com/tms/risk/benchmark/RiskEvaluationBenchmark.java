@@ -0,0 +1,74 @@
+package com.tms.risk.benchmark;
+
+import com.tms.risk.entity.RiskAlert;
+import com.tms.risk.event.PositionUpdate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code evaluatePosition} end to end: state updates, tier walk, limit arithmetic, de-duplication
+ * against open alerts, and alert construction for the share of events that breach.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RiskEvaluationBenchmark {
+
+    private static final int EVENTS = 65_536;
+    private static final int FLUSH_EVERY = 1024;
+
+    @Param({"1000", "10000", "100000"})
+    private int limitCount;
+
+    @Param({"1000", "10000"})
+    private int accountCount;
+
+    @Param({"2000"})
+    private int symbolCount;
+
+    @Param({"0.0", "0.01"})
+    private double breachRatio;
+
+    private BenchmarkFixtures.Pipeline pipeline;
+    private PositionUpdate[] updates;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        pipeline = BenchmarkFixtures.pipeline(
+            BenchmarkFixtures.limits(limitCount, accountCount, symbolCount), symbolCount);
+        updates = BenchmarkFixtures.positionUpdates(EVENTS, accountCount, symbolCount, breachRatio);
+    }
+
+    @Benchmark
+    public List<RiskAlert> evaluatePosition() {
+        int index = next++;
+        if ((index & (FLUSH_EVERY - 1)) == 0) {
+            // Stands in for the scheduled flusher so buffered alerts do not pile up
+            pipeline.writeBehind().flush();
+        }
+        return pipeline.service().evaluatePosition(updates[index & (EVENTS - 1)]);
+    }
+
+    @TearDown(Level.Iteration)
+    public void flush() {
+        pipeline.writeBehind().flush();
+    }
+}
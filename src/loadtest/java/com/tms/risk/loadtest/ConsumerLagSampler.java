@@ -0,0 +1,54 @@
+package com.tms.risk.loadtest;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Reads the service's committed offsets against the log end offsets of the position topic.
+ * Offsets are committed only once alert writes are durable, so this is the lag of fully
+ * processed events, not merely of polled ones.
+ */
+final class ConsumerLagSampler implements AutoCloseable {
+
+    private final Admin admin;
+    private final String groupId;
+    private final Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+
+    ConsumerLagSampler(String bootstrapServers, String groupId, String topic, int partitions) {
+        this.admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers));
+        this.groupId = groupId;
+        for (int partition = 0; partition < partitions; partition++) {
+            latest.put(new TopicPartition(topic, partition), OffsetSpec.latest());
+        }
+    }
+
+    Sample sample() throws ExecutionException, InterruptedException {
+        Map<TopicPartition, OffsetAndMetadata> committed =
+            admin.listConsumerGroupOffsets(groupId).partitionsToOffsetAndMetadata().get();
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> ends = admin.listOffsets(latest).all().get();
+        long endTotal = 0;
+        long committedTotal = 0;
+        for (TopicPartition partition : latest.keySet()) {
+            endTotal += ends.get(partition).offset();
+            OffsetAndMetadata offset = committed.get(partition);
+            committedTotal += offset != null ? offset.offset() : 0;
+        }
+        return new Sample(committedTotal, endTotal - committedTotal);
+    }
+
+    @Override
+    public void close() {
+        admin.close();
+    }
+
+    record Sample(long committed, long lag) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.tms.risk.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Exact latency percentiles over every recorded sample. Written by one thread; read once the
+ * writer has stopped.
+ */
+final class LatencyRecorder {
+
+    private long[] samples = new long[1 << 16];
+    private int size;
+
+    void record(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+    }
+
+    int count() {
+        return size;
+    }
+
+    /**
+     * Returns the given percentile in milliseconds, or NaN without samples.
+     */
+    double percentileMillis(double percentile) {
+        if (size == 0) {
+            return Double.NaN;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return sorted[Math.max(0, Math.min(rank, size - 1))] / 1_000_000.0;
+    }
+}
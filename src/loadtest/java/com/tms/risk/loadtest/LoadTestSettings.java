@@ -0,0 +1,57 @@
+package com.tms.risk.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Harness settings, read from {@code --loadtest.*=value} arguments. Every other argument is passed
+ * through to the service, so {@code --risk.consumer.batch-enabled=true} and the like apply as usual.
+ */
+record LoadTestSettings(
+    long events,
+    int rate,
+    int accounts,
+    int symbols,
+    double zipfExponent,
+    double breachRatio,
+    int partitions,
+    int limits,
+    Duration drainTimeout,
+    String datasourceUrl,
+    String datasourceUsername,
+    String datasourcePassword
+) {
+
+    private static final String PREFIX = "--loadtest.";
+
+    static LoadTestSettings from(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (arg.startsWith(PREFIX) && separator > 0) {
+                values.put(arg.substring(PREFIX.length(), separator), arg.substring(separator + 1));
+            }
+        }
+        return new LoadTestSettings(
+            Long.parseLong(values.getOrDefault("events", "500000")),
+            Integer.parseInt(values.getOrDefault("rate", "0")),
+            Integer.parseInt(values.getOrDefault("accounts", "10000")),
+            Integer.parseInt(values.getOrDefault("symbols", "2000")),
+            Double.parseDouble(values.getOrDefault("zipf-exponent", "1.1")),
+            Double.parseDouble(values.getOrDefault("breach-ratio", "0.01")),
+            Integer.parseInt(values.getOrDefault("partitions", "12")),
+            Integer.parseInt(values.getOrDefault("limits", "10000")),
+            Duration.ofSeconds(Long.parseLong(values.getOrDefault("drain-timeout-seconds", "300"))),
+            values.get("datasource.url"),
+            values.getOrDefault("datasource.username", "sa"),
+            values.get("datasource.password"));
+    }
+
+    @Override
+    public String toString() {
+        return "events=" + events + ", rate=" + (rate > 0 ? rate + "/s" : "unthrottled")
+            + ", accounts=" + accounts + ", symbols=" + symbols + ", zipfExponent=" + zipfExponent
+            + ", breachRatio=" + breachRatio + ", partitions=" + partitions + ", limits=" + limits;
+    }
+}
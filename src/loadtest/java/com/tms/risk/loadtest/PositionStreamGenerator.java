@@ -0,0 +1,99 @@
+package com.tms.risk.loadtest;
+
+import com.tms.risk.entity.RiskLimit;
+import com.tms.risk.event.PositionUpdate;
+import com.tms.risk.service.FixedPoint;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic position stream and the limit book it is evaluated against. A single global
+ * MAX_POSITION_VALUE limit decides which events breach, so the alert rate follows the breach
+ * ratio; the remaining limits are sized never to fire but still make the index realistic.
+ */
+final class PositionStreamGenerator {
+
+    static final String TRADE_PREFIX = "LT-";
+    static final long POSITION_VALUE_LIMIT = 1_000_000L;
+
+    private static final long SEED = 42L;
+    private static final BigDecimal UNREACHABLE = BigDecimal.valueOf(1_000_000_000_000L);
+    private static final String INSERT_LIMIT_SQL =
+        "INSERT INTO risk_limit (account_code, symbol, limit_type, limit_value, warning_threshold, is_active) " +
+        "VALUES (?, ?, ?, ?, ?, 1)";
+
+    private final LoadTestSettings settings;
+    private final ZipfDistribution accounts;
+    private final ZipfDistribution symbols;
+    private final SplittableRandom random = new SplittableRandom(SEED);
+
+    PositionStreamGenerator(LoadTestSettings settings) {
+        this.settings = settings;
+        this.accounts = new ZipfDistribution(settings.accounts(), settings.zipfExponent());
+        this.symbols = new ZipfDistribution(settings.symbols(), settings.zipfExponent());
+    }
+
+    static String account(int index) {
+        return "LTACC" + index;
+    }
+
+    static String symbol(int index) {
+        return "LTSYM" + index;
+    }
+
+    static long sequenceOf(String triggeringTradeId) {
+        if (triggeringTradeId == null || !triggeringTradeId.startsWith(TRADE_PREFIX)) {
+            return -1;
+        }
+        return Long.parseLong(triggeringTradeId, TRADE_PREFIX.length(), triggeringTradeId.length(), 10);
+    }
+
+    /**
+     * Writes the limit book; account and symbol picks follow the same skew as the stream, so the
+     * hot keys carry the most limits.
+     */
+    void seedLimits(JdbcTemplate jdbcTemplate) {
+        SplittableRandom limitRandom = new SplittableRandom(SEED + 1);
+        List<Object[]> rows = new ArrayList<>(settings.limits());
+        rows.add(new Object[] {null, null, RiskLimit.LimitType.MAX_POSITION_VALUE.name(),
+            BigDecimal.valueOf(POSITION_VALUE_LIMIT), new BigDecimal("80.00")});
+        for (int i = 1; i < settings.limits(); i++) {
+            String accountCode = account(accounts.sample(limitRandom));
+            if (limitRandom.nextDouble() < 0.7) {
+                rows.add(new Object[] {accountCode, symbol(symbols.sample(limitRandom)),
+                    RiskLimit.LimitType.MAX_POSITION_VALUE.name(), UNREACHABLE, new BigDecimal("80.00")});
+            } else {
+                rows.add(new Object[] {accountCode, null,
+                    RiskLimit.LimitType.MAX_ACCOUNT_EXPOSURE.name(), UNREACHABLE, new BigDecimal("80.00")});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_LIMIT_SQL, rows);
+    }
+
+    PositionUpdate next(long sequence) {
+        int accountIndex = accounts.sample(random);
+        int symbolIndex = symbols.sample(random);
+        long quantity = 10 + random.nextInt(5_000);
+        // Normal events stay under the 80% warning line; breaches land between 100% and 160%
+        long costBasis = random.nextDouble() < settings.breachRatio()
+            ? POSITION_VALUE_LIMIT + random.nextInt(600_000)
+            : 10_000 + random.nextInt(790_000);
+        String accountCode = account(accountIndex);
+        String symbol = symbol(symbolIndex);
+        return new PositionUpdate(
+            "lt-" + sequence,
+            System.currentTimeMillis(),
+            "lt-" + sequence,
+            accountCode + ":" + symbol,
+            accountCode,
+            symbol,
+            TRADE_PREFIX + sequence,
+            quantity * FixedPoint.ONE,
+            costBasis * FixedPoint.ONE / quantity,
+            costBasis * FixedPoint.ONE);
+    }
+}
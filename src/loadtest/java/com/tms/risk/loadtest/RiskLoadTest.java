@@ -0,0 +1,236 @@
+package com.tms.risk.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tms.common.config.kafka.KafkaTopics;
+import com.tms.risk.RiskServiceApplication;
+import com.tms.risk.event.PositionUpdate;
+import com.tms.risk.messaging.PositionUpdatedSerializer;
+import com.tms.risk.service.RiskLimitIndex;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.testcontainers.containers.MSSQLServerContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a synthetic position stream through the real service: an embedded Kafka broker, a
+ * throwaway SQL Server container (the migrations are T-SQL, so an in-memory database cannot stand
+ * in) and the full Spring context with its position consumer, write-behind and outbox relay.
+ * Reports sustained throughput, consumer lag and event-to-alert latency, where an alert counts
+ * as delivered when its RiskAlert event reaches the alerts topic.
+ *
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--loadtest.events=2000000 --loadtest.rate=20000"
+ * </pre>
+ */
+public final class RiskLoadTest {
+
+    private static final String MSSQL_IMAGE = "mcr.microsoft.com/mssql/server:2022-latest";
+    private static final String OBSERVER_GROUP = "risk-loadtest-observer";
+    private static final long SAMPLE_INTERVAL_MS = 1_000;
+    private static final long ALERT_QUIET_MS = 3_000;
+
+    private final LoadTestSettings settings;
+    private final AtomicLongArray sentNanos;
+    private final LatencyRecorder latencies = new LatencyRecorder();
+    private volatile boolean observing = true;
+    private volatile long alertsReceived;
+    private volatile long lastAlertNanos;
+    private volatile long maxLag;
+    private volatile long peakRate;
+
+    private RiskLoadTest(LoadTestSettings settings) {
+        this.settings = settings;
+        this.sentNanos = new AtomicLongArray(Math.toIntExact(settings.events()));
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.from(args);
+        System.out.println("Load test: " + settings);
+
+        EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, settings.partitions(),
+            KafkaTopics.POSITIONS_UPDATED, KafkaTopics.RISK_ALERTS);
+        MSSQLServerContainer<?> database = null;
+        ConfigurableApplicationContext context = null;
+        try {
+            broker.afterPropertiesSet();
+
+            String url = settings.datasourceUrl();
+            String username = settings.datasourceUsername();
+            String password = settings.datasourcePassword();
+            if (url == null) {
+                database = new MSSQLServerContainer<>(DockerImageName.parse(MSSQL_IMAGE)).acceptLicense();
+                database.start();
+                url = database.getJdbcUrl();
+                username = database.getUsername();
+                password = database.getPassword();
+            }
+
+            context = new SpringApplicationBuilder(RiskServiceApplication.class)
+                .properties(Map.of(
+                    "server.port", "0",
+                    "spring.kafka.bootstrap-servers", broker.getBrokersAsString(),
+                    "spring.datasource.url", url,
+                    "spring.datasource.username", username,
+                    "spring.datasource.password", password))
+                .run(args);
+
+            new RiskLoadTest(settings).run(context, broker.getBrokersAsString());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            if (database != null) {
+                database.stop();
+            }
+            broker.destroy();
+        }
+    }
+
+    private void run(ConfigurableApplicationContext context, String bootstrapServers) throws Exception {
+        PositionStreamGenerator generator = new PositionStreamGenerator(settings);
+        generator.seedLimits(context.getBean(JdbcTemplate.class));
+        context.getBean(RiskLimitIndex.class).reload();
+
+        String groupId = context.getEnvironment().getRequiredProperty("spring.kafka.consumer.group-id");
+        Thread observer = Thread.ofPlatform().name("loadtest-alert-observer").start(() -> observeAlerts(bootstrapServers));
+
+        try (ConsumerLagSampler lagSampler = new ConsumerLagSampler(
+                 bootstrapServers, groupId, KafkaTopics.POSITIONS_UPDATED, settings.partitions());
+             KafkaProducer<String, byte[]> producer = producer(bootstrapServers)) {
+
+            Thread sampler = Thread.ofPlatform().name("loadtest-lag-sampler").start(() -> sample(lagSampler));
+            PositionUpdatedSerializer serializer = new PositionUpdatedSerializer();
+            long started = System.nanoTime();
+            for (int sequence = 0; sequence < settings.events(); sequence++) {
+                if (settings.rate() > 0) {
+                    long due = started + sequence * 1_000_000_000L / settings.rate();
+                    long wait = due - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+                PositionUpdate update = generator.next(sequence);
+                sentNanos.set(sequence, System.nanoTime());
+                producer.send(new ProducerRecord<>(KafkaTopics.POSITIONS_UPDATED, update.accountCode(),
+                    serializer.serialize(KafkaTopics.POSITIONS_UPDATED, update)));
+            }
+            producer.flush();
+            long produced = System.nanoTime();
+
+            long deadline = produced + settings.drainTimeout().toNanos();
+            ConsumerLagSampler.Sample last = lagSampler.sample();
+            while (last.committed() < settings.events() && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(100);
+                last = lagSampler.sample();
+            }
+            long drained = System.nanoTime();
+            while (System.nanoTime() - Math.max(lastAlertNanos, drained) < TimeUnit.MILLISECONDS.toNanos(ALERT_QUIET_MS)
+                && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+
+            sampler.interrupt();
+            sampler.join();
+            observing = false;
+            observer.join();
+            report(started, produced, drained, last);
+        }
+    }
+
+    private void sample(ConsumerLagSampler lagSampler) {
+        long started = System.nanoTime();
+        long previous = 0;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                TimeUnit.MILLISECONDS.sleep(SAMPLE_INTERVAL_MS);
+                ConsumerLagSampler.Sample sample = lagSampler.sample();
+                maxLag = Math.max(maxLag, sample.lag());
+                peakRate = Math.max(peakRate, (sample.committed() - previous) * 1000 / SAMPLE_INTERVAL_MS);
+                System.out.printf("t=%ds committed=%d lag=%d alerts=%d%n",
+                    TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started),
+                    sample.committed(), sample.lag(), alertsReceived);
+                previous = sample.committed();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Lag sampling failed: " + e);
+        }
+    }
+
+    private void observeAlerts(String bootstrapServers) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        try (KafkaConsumer<String, String> consumer = new KafkaConsumer<>(Map.of(
+                 ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                 ConsumerConfig.GROUP_ID_CONFIG, OBSERVER_GROUP,
+                 ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+                 ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class,
+                 ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class))) {
+            consumer.subscribe(List.of(KafkaTopics.RISK_ALERTS));
+            while (observing) {
+                for (ConsumerRecord<String, String> record : consumer.poll(Duration.ofMillis(100))) {
+                    long received = System.nanoTime();
+                    JsonNode alert = objectMapper.readTree(record.value());
+                    long sequence = PositionStreamGenerator.sequenceOf(alert.path("triggeringTradeId").asText(null));
+                    if (sequence >= 0 && sequence < sentNanos.length()) {
+                        latencies.record(received - sentNanos.get(sequence));
+                    }
+                    alertsReceived++;
+                    lastAlertNanos = received;
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Alert observer failed: " + e);
+        }
+    }
+
+    private void report(long started, long produced, long drained, ConsumerLagSampler.Sample last) {
+        double produceSeconds = (produced - started) / 1e9;
+        double drainSeconds = (drained - started) / 1e9;
+        System.out.println();
+        System.out.println("==== Risk service load test ====");
+        System.out.println("Settings:            " + settings);
+        System.out.printf("Produced:            %d events in %.1fs (%.0f/s)%n",
+            settings.events(), produceSeconds, settings.events() / produceSeconds);
+        System.out.printf("Processed:           %d events in %.1fs (%.0f/s sustained, %d/s peak)%n",
+            last.committed(), drainSeconds, last.committed() / drainSeconds, peakRate);
+        System.out.printf("Consumer lag:        max %d, final %d%n", maxLag, last.lag());
+        System.out.printf("Alerts:              %d received, %d with latency%n", alertsReceived, latencies.count());
+        System.out.printf("Event-to-alert (ms): p50 %.1f, p99 %.1f, p999 %.1f, max %.1f%n",
+            latencies.percentileMillis(50), latencies.percentileMillis(99),
+            latencies.percentileMillis(99.9), latencies.percentileMillis(100));
+        if (last.committed() < settings.events()) {
+            System.out.println("WARNING: drain timeout reached before all events were committed");
+        }
+    }
+
+    private static KafkaProducer<String, byte[]> producer(String bootstrapServers) {
+        return new KafkaProducer<>(Map.of(
+            ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+            ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+            ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class,
+            ProducerConfig.LINGER_MS_CONFIG, 5,
+            ProducerConfig.BATCH_SIZE_CONFIG, 65536,
+            ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4"));
+    }
+}
@@ -0,0 +1,61 @@
+package com.tms.risk.config;
+
+import com.tms.risk.event.PositionUpdate;
+import com.tms.risk.messaging.PositionUpdatedSerializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.util.StringUtils;
+
+@Configuration
+public class KafkaProducerConfig {
+
+    /**
+     * RiskAlert publisher, configured from spring.kafka.producer. Declared here because defining
+     * any KafkaTemplate bean switches off Boot's default one.
+     */
+    @Bean
+    public KafkaTemplate<String, Object> kafkaTemplate(KafkaProperties kafkaProperties) {
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(kafkaProperties.buildProducerProperties(null)));
+    }
+
+    /**
+     * Publishes outbox rows, whose payloads are already serialized JSON, without re-encoding them.
+     * Transactional unless the prefix is blank; the prefix must differ between replicas.
+     */
+    @Bean
+    public KafkaTemplate<String, String> outboxKafkaTemplate(
+            KafkaProperties kafkaProperties,
+            @Value("${risk.outbox.transaction-id-prefix:}") String transactionIdPrefix) {
+        DefaultKafkaProducerFactory<String, String> producerFactory = new DefaultKafkaProducerFactory<>(
+            kafkaProperties.buildProducerProperties(null), new StringSerializer(), new StringSerializer());
+        if (StringUtils.hasText(transactionIdPrefix)) {
+            producerFactory.setTransactionIdPrefix(transactionIdPrefix);
+        }
+        return new KafkaTemplate<>(producerFactory);
+    }
+
+    /**
+     * Forwards decoded position events to the retry topics; also used by the retry topic
+     * infrastructure to move events between stages and into the DLT.
+     */
+    @Bean
+    public KafkaTemplate<String, PositionUpdate> positionUpdateKafkaTemplate(KafkaProperties kafkaProperties) {
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+            kafkaProperties.buildProducerProperties(null), new StringSerializer(), new PositionUpdatedSerializer()));
+    }
+
+    /**
+     * Sends payloads as-is: undecodable events to the DLT and DLT replays to the retry topic.
+     */
+    @Bean
+    public KafkaTemplate<String, byte[]> rawKafkaTemplate(KafkaProperties kafkaProperties) {
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+            kafkaProperties.buildProducerProperties(null), new StringSerializer(), new ByteArraySerializer()));
+    }
+}
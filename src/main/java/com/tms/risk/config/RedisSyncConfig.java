@@ -0,0 +1,24 @@
+package com.tms.risk.config;
+
+import com.tms.risk.messaging.RedisStateListener;
+import com.tms.risk.service.RedisStateStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+@ConditionalOnProperty(name = "risk.redis-sync.enabled", havingValue = "true")
+public class RedisSyncConfig {
+
+    @Bean
+    public RedisMessageListenerContainer riskStateListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                    RedisStateListener redisStateListener) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(redisStateListener, new ChannelTopic(RedisStateStore.CHANNEL));
+        return container;
+    }
+}
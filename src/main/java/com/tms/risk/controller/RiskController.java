@@ -1,23 +1,58 @@
 package com.tms.risk.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tms.risk.dto.AccountExposureResponse;
 import com.tms.risk.dto.AlertAcknowledgeRequest;
+import com.tms.risk.dto.AlertSummaryResponse;
+import com.tms.risk.dto.DeadLetterReplayResponse;
+import com.tms.risk.dto.LimitImportResponse;
+import com.tms.risk.dto.PreTradeBatchCheckRequest;
+import com.tms.risk.dto.PreTradeCheckRequest;
+import com.tms.risk.dto.PreTradeCheckResponse;
+import com.tms.risk.dto.RiskAlertPageResponse;
 import com.tms.risk.dto.RiskAlertResponse;
 import com.tms.risk.dto.RiskLimitRequest;
 import com.tms.risk.dto.RiskLimitResponse;
 import com.tms.risk.entity.RiskAlert;
 import com.tms.risk.entity.RiskLimit;
+import com.tms.risk.event.AlertStateChange;
+import com.tms.risk.event.LimitChange;
+import com.tms.risk.messaging.DeadLetterReplayer;
+import com.tms.risk.messaging.PositionRetryTopics;
 import com.tms.risk.repository.RiskAlertRepository;
+import com.tms.risk.repository.RiskAlertSearchRepository.Criteria;
 import com.tms.risk.repository.RiskLimitRepository;
+import com.tms.risk.service.AccountExposureAggregator;
+import com.tms.risk.service.AlertSummaryCounters;
+import com.tms.risk.service.AlertStreamBroadcaster;
+import com.tms.risk.service.FixedPoint;
+import com.tms.risk.service.PreTradeCheckService;
+import com.tms.risk.service.RiskAlertQueryService;
 import com.tms.risk.service.RiskEvaluationService;
+import com.tms.risk.service.RiskLimitImportService;
+import com.tms.risk.service.RiskLimitIndex;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -30,16 +65,92 @@ public class RiskController {
     private final RiskEvaluationService riskEvaluationService;
     private final RiskLimitRepository riskLimitRepository;
     private final RiskAlertRepository riskAlertRepository;
+    private final RiskAlertQueryService riskAlertQueryService;
+    private final AlertStreamBroadcaster alertStreamBroadcaster;
+    private final AlertSummaryCounters alertSummaryCounters;
+    private final RiskLimitIndex riskLimitIndex;
+    private final RiskLimitImportService riskLimitImportService;
+    private final AccountExposureAggregator accountExposureAggregator;
+    private final PreTradeCheckService preTradeCheckService;
+    private final DeadLetterReplayer deadLetterReplayer;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ============= Alerts =============
 
     @GetMapping("/alerts")
-    @Operation(summary = "Get all open alerts")
-    public ResponseEntity<List<RiskAlertResponse>> getOpenAlerts() {
-        List<RiskAlert> alerts = riskEvaluationService.getOpenAlerts();
-        return ResponseEntity.ok(alerts.stream()
-            .map(this::toAlertResponse)
-            .collect(Collectors.toList()));
+    @Operation(summary = "Get alerts, newest first, one keyset page at a time")
+    public ResponseEntity<RiskAlertPageResponse> getAlerts(
+            @RequestParam(defaultValue = "OPEN") RiskAlert.AlertStatus status,
+            @RequestParam(required = false) RiskAlert.Severity severity,
+            @RequestParam(required = false) String accountCode,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit) {
+        RiskAlertQueryService.Page page = riskAlertQueryService.search(
+            new Criteria(status, severity, accountCode, from, to), cursor, limit);
+        return ResponseEntity.ok(RiskAlertPageResponse.builder()
+            .alerts(page.alerts().stream()
+                .map(this::toAlertResponse)
+                .collect(Collectors.toList()))
+            .nextCursor(page.nextCursor())
+            .build());
+    }
+
+    @GetMapping(value = "/alerts/export", produces = "application/x-ndjson")
+    @Operation(summary = "Stream matching alerts as newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> exportAlerts(
+            @RequestParam(required = false) RiskAlert.AlertStatus status,
+            @RequestParam(required = false) RiskAlert.Severity severity,
+            @RequestParam(required = false) String accountCode,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        Criteria criteria = new Criteria(status, severity, accountCode, from, to);
+        StreamingResponseBody body = out -> {
+            long exported = riskAlertQueryService.export(criteria, chunk -> {
+                try {
+                    for (RiskAlert alert : chunk) {
+                        out.write(objectMapper.writeValueAsBytes(toAlertResponse(alert)));
+                        out.write('\n');
+                    }
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.info("Exported alerts: count={}, criteria={}", exported, criteria);
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .body(body);
+    }
+
+    @GetMapping(value = "/alerts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Push alert create, acknowledge and resolve events as Server-Sent Events")
+    public SseEmitter streamAlerts(
+            @RequestParam(required = false) Set<RiskAlert.Severity> severity,
+            @RequestParam(required = false) String accountCode,
+            @RequestParam(required = false) Set<AlertStateChange.Type> type,
+            @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(name = "lastEventId", required = false) Long resumeAfter) {
+        return alertStreamBroadcaster.subscribe(
+            new AlertStreamBroadcaster.Filter(severity, accountCode, type),
+            lastEventId != null ? lastEventId : resumeAfter);
+    }
+
+    @GetMapping("/alerts/summary")
+    @Operation(summary = "Get open alert counts by severity, account and limit type")
+    public ResponseEntity<AlertSummaryResponse> getAlertSummary() {
+        AlertSummaryCounters.Summary summary = alertSummaryCounters.summary();
+        return ResponseEntity.ok(AlertSummaryResponse.builder()
+            .openAlerts(summary.open())
+            .acknowledgedAlerts(summary.acknowledged())
+            .openBySeverity(summary.openBySeverity())
+            .openByAccount(summary.openByAccount())
+            .openByLimitType(summary.openByLimitType())
+            .reconciledAt(summary.reconciledAt())
+            .build());
     }
 
     @GetMapping("/alerts/critical")
@@ -84,8 +195,8 @@ public class RiskController {
     @GetMapping("/limits")
     @Operation(summary = "Get all active limits")
     public ResponseEntity<List<RiskLimitResponse>> getAllLimits() {
-        List<RiskLimit> limits = riskLimitRepository.findAll();
-        return ResponseEntity.ok(limits.stream()
+        // Served from the in-memory index, which holds exactly the active limits
+        return ResponseEntity.ok(riskLimitIndex.getAll().stream()
             .map(this::toLimitResponse)
             .collect(Collectors.toList()));
     }
@@ -93,8 +204,7 @@ public class RiskController {
     @GetMapping("/limits/account/{accountCode}")
     @Operation(summary = "Get limits for an account")
     public ResponseEntity<List<RiskLimitResponse>> getLimitsByAccount(@PathVariable String accountCode) {
-        List<RiskLimit> limits = riskLimitRepository.findByAccountCodeAndIsActiveTrue(accountCode);
-        return ResponseEntity.ok(limits.stream()
+        return ResponseEntity.ok(riskLimitIndex.findByAccount(accountCode).stream()
             .map(this::toLimitResponse)
             .collect(Collectors.toList()));
     }
@@ -116,6 +226,8 @@ public class RiskController {
             .build();
 
         limit = riskLimitRepository.save(limit);
+        riskLimitIndex.upsert(limit);
+        eventPublisher.publishEvent(LimitChange.upserted(limit));
         return ResponseEntity.ok(toLimitResponse(limit));
     }
 
@@ -130,7 +242,10 @@ public class RiskController {
                 limit.setLimitValue(request.getLimitValue());
                 limit.setWarningThreshold(request.getWarningThreshold());
                 limit.setIsActive(request.getIsActive());
-                return ResponseEntity.ok(toLimitResponse(riskLimitRepository.save(limit)));
+                RiskLimit saved = riskLimitRepository.save(limit);
+                riskLimitIndex.upsert(saved);
+                eventPublisher.publishEvent(LimitChange.upserted(saved));
+                return ResponseEntity.ok(toLimitResponse(saved));
             })
             .orElse(ResponseEntity.notFound().build());
     }
@@ -142,11 +257,95 @@ public class RiskController {
             .map(limit -> {
                 limit.setIsActive(false);
                 riskLimitRepository.save(limit);
+                riskLimitIndex.remove(limitId);
+                eventPublisher.publishEvent(LimitChange.removed(limitId));
                 return ResponseEntity.noContent().<Void>build();
             })
             .orElse(ResponseEntity.notFound().build());
     }
 
+    @PostMapping(value = "/limits/import", consumes = {"text/csv", "application/x-ndjson"})
+    @Operation(summary = "Create or update limits in bulk from CSV or newline-delimited JSON")
+    public ResponseEntity<LimitImportResponse> importLimits(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        RiskLimitImportService.Format format = contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"))
+            ? RiskLimitImportService.Format.CSV
+            : RiskLimitImportService.Format.NDJSON;
+        RiskLimitImportService.Result result = riskLimitImportService.importLimits(body, format);
+        LimitImportResponse response = LimitImportResponse.builder()
+            .received(result.received())
+            .inserted(result.inserted())
+            .updated(result.updated())
+            .errors(result.errors())
+            .build();
+        return result.accepted()
+            ? ResponseEntity.ok(response)
+            : ResponseEntity.badRequest().body(response);
+    }
+
+    @GetMapping("/limits/export")
+    @Operation(summary = "Stream active limits as CSV or newline-delimited JSON in import format")
+    public ResponseEntity<StreamingResponseBody> exportLimits(
+            @RequestParam(defaultValue = "NDJSON") RiskLimitImportService.Format format) {
+        StreamingResponseBody body = out -> {
+            int exported = riskLimitImportService.export(format, out);
+            log.info("Exported limits: count={}, format={}", exported, format);
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(
+                format == RiskLimitImportService.Format.CSV ? "text/csv" : "application/x-ndjson"))
+            .body(body);
+    }
+
+    // ============= Pre-Trade =============
+
+    @PostMapping("/pre-trade-check")
+    @Operation(summary = "Check a proposed trade against active limits")
+    public ResponseEntity<PreTradeCheckResponse> preTradeCheck(@Valid @RequestBody PreTradeCheckRequest request) {
+        return ResponseEntity.ok(preTradeCheckService.check(request));
+    }
+
+    @PostMapping("/pre-trade-check/batch")
+    @Operation(summary = "Check a batch of proposed trades against active limits")
+    public ResponseEntity<List<PreTradeCheckResponse>> preTradeCheckBatch(
+            @Valid @RequestBody PreTradeBatchCheckRequest request) {
+        return ResponseEntity.ok(preTradeCheckService.checkAll(request.getOrders()));
+    }
+
+    // ============= Exposure =============
+
+    @GetMapping("/exposure/accounts")
+    @Operation(summary = "Get gross exposure for all accounts")
+    public ResponseEntity<List<AccountExposureResponse>> getAccountExposures() {
+        return ResponseEntity.ok(accountExposureAggregator.accountExposures().entrySet().stream()
+            .map(e -> toExposureResponse(e.getKey(), e.getValue()))
+            .collect(Collectors.toList()));
+    }
+
+    @GetMapping("/exposure/accounts/{accountCode}")
+    @Operation(summary = "Get gross exposure for an account")
+    public ResponseEntity<AccountExposureResponse> getAccountExposure(@PathVariable String accountCode) {
+        return ResponseEntity.ok(toExposureResponse(accountCode,
+            accountExposureAggregator.accountExposure(accountCode)));
+    }
+
+    // ============= Dead Letters =============
+
+    @PostMapping("/dead-letters/replay")
+    @Operation(summary = "Replay dead-lettered position updates through the retry topic")
+    public ResponseEntity<DeadLetterReplayResponse> replayDeadLetters(
+            @RequestParam(defaultValue = "1000") @Min(1) @Max(100000) int maxRecords) {
+        log.info("Replaying dead-lettered position updates: maxRecords={}", maxRecords);
+        DeadLetterReplayer.Result result = deadLetterReplayer.replay(maxRecords);
+        return ResponseEntity.ok(DeadLetterReplayResponse.builder()
+            .fromTopic(PositionRetryTopics.DLT)
+            .toTopic(PositionRetryTopics.RETRY)
+            .replayed(result.replayed())
+            .skipped(result.skipped())
+            .build());
+    }
+
     @GetMapping("/health")
     @Operation(summary = "Health check")
     public ResponseEntity<String> health() {
@@ -176,6 +375,13 @@ public class RiskController {
             .build();
     }
 
+    private AccountExposureResponse toExposureResponse(String accountCode, long grossExposure) {
+        return AccountExposureResponse.builder()
+            .accountCode(accountCode)
+            .grossExposure(FixedPoint.toBigDecimal(grossExposure))
+            .build();
+    }
+
     private RiskLimitResponse toLimitResponse(RiskLimit limit) {
         return RiskLimitResponse.builder()
             .limitId(limit.getLimitId())
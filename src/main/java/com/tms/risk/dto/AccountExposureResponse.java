@@ -0,0 +1,17 @@
+package com.tms.risk.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountExposureResponse {
+    private String accountCode;
+    private BigDecimal grossExposure;
+}
@@ -0,0 +1,23 @@
+package com.tms.risk.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertSummaryResponse {
+    // Open alerts are those still awaiting acknowledgement
+    private long openAlerts;
+    private long acknowledgedAlerts;
+    private Map<String, Long> openBySeverity;
+    private Map<String, Long> openByAccount;
+    private Map<String, Long> openByLimitType;
+    private LocalDateTime reconciledAt;
+}
@@ -0,0 +1,18 @@
+package com.tms.risk.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterReplayResponse {
+    private String fromTopic;
+    private String toTopic;
+    private int replayed;
+    // Still undecodable; left in the DLT
+    private int skipped;
+}
@@ -0,0 +1,20 @@
+package com.tms.risk.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LimitImportResponse {
+    private int received;
+    private int inserted;
+    private int updated;
+    // Empty when the import was applied; otherwise nothing was written
+    private List<String> errors;
+}
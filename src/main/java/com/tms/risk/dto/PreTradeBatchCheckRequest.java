@@ -0,0 +1,20 @@
+package com.tms.risk.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PreTradeBatchCheckRequest {
+
+    @NotEmpty(message = "At least one order is required")
+    @Size(max = 10000, message = "At most 10000 orders per request")
+    private List<@Valid PreTradeCheckRequest> orders;
+}
@@ -0,0 +1,35 @@
+package com.tms.risk.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PreTradeCheckResponse {
+    private String clientOrderId;
+    private String accountCode;
+    private String symbol;
+    private boolean approved;
+    private BigDecimal tradeValue;
+    private List<LimitCheck> breaches;
+    private List<LimitCheck> warnings;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LimitCheck {
+        private Long limitId;
+        private String limitType;
+        private BigDecimal projectedValue;
+        private BigDecimal limitValue;
+        private BigDecimal utilizationPct;
+    }
+}
@@ -0,0 +1,18 @@
+package com.tms.risk.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RiskAlertPageResponse {
+    private List<RiskAlertResponse> alerts;
+    // Null on the last page
+    private String nextCursor;
+}
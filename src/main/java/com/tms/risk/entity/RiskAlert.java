@@ -13,8 +13,13 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class RiskAlert {
 
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Pooled-lo blocks of 50, shared with RiskAlertIdAllocator
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "risk_alert_seq")
+    @SequenceGenerator(name = "risk_alert_seq", sequenceName = "risk_alert_seq",
+        allocationSize = RiskAlert.ID_ALLOCATION_SIZE)
     @Column(name = "alert_id")
     private Long alertId;
 
@@ -50,7 +55,7 @@ public class RiskAlert {
     @Column(name = "limit_value", precision = 18, scale = 4)
     private BigDecimal limitValue;
 
-    @Column(name = "utilization_pct", precision = 5, scale = 2)
+    @Column(name = "utilization_pct", precision = 9, scale = 2)
     private BigDecimal utilizationPct;
 
     @Column(name = "message", length = 500)
@@ -74,7 +79,9 @@ public class RiskAlert {
 
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
     }
 
     public enum AlertType {
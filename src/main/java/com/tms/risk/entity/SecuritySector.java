@@ -0,0 +1,30 @@
+package com.tms.risk.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "security_sector")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SecuritySector {
+
+    @Id
+    @Column(name = "symbol", length = 20)
+    private String symbol;
+
+    @Column(name = "sector", nullable = false, length = 50)
+    private String sector;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,29 @@
+package com.tms.risk.event;
+
+import com.tms.risk.entity.RiskAlert;
+
+import java.time.LocalDateTime;
+
+/**
+ * In-process application event published when an alert is created, acknowledged or resolved.
+ */
+public record AlertStateChange(
+    Type type,
+    Long alertId,
+    Long limitId,
+    RiskAlert.AlertType alertType,
+    RiskAlert.Severity severity,
+    String accountCode,
+    String symbol,
+    LocalDateTime occurredAt
+) {
+
+    public enum Type {
+        CREATED, ACKNOWLEDGED, RESOLVED
+    }
+
+    public static AlertStateChange of(Type type, RiskAlert alert, LocalDateTime occurredAt) {
+        return new AlertStateChange(type, alert.getAlertId(), alert.getLimitId(), alert.getAlertType(),
+            alert.getSeverity(), alert.getAccountCode(), alert.getSymbol(), occurredAt);
+    }
+}
@@ -0,0 +1,11 @@
+package com.tms.risk.event;
+
+import com.tms.risk.entity.RiskLimit;
+
+import java.util.List;
+
+/**
+ * In-process application event published after a bulk import has replaced the active limit book.
+ */
+public record LimitBookReplaced(List<RiskLimit> limits) {
+}
@@ -0,0 +1,23 @@
+package com.tms.risk.event;
+
+import com.tms.risk.entity.RiskLimit;
+
+/**
+ * In-process application event published after a limit is created, updated or deactivated
+ * through the API. {@code limit} is null when the limit was removed from the active set; on the
+ * Redis channel, a change with neither id nor limit tells replicas to reload the whole book.
+ */
+public record LimitChange(Long limitId, RiskLimit limit) {
+
+    public static LimitChange upserted(RiskLimit limit) {
+        return new LimitChange(limit.getLimitId(), limit);
+    }
+
+    public static LimitChange removed(Long limitId) {
+        return new LimitChange(limitId, null);
+    }
+
+    public static LimitChange reloadAll() {
+        return new LimitChange(null, null);
+    }
+}
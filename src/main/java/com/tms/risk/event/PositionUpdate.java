@@ -0,0 +1,19 @@
+package com.tms.risk.event;
+
+/**
+ * Decoded {@code PositionUpdated} event. Quantities and amounts are
+ * {@link com.tms.risk.service.FixedPoint} values (scaled by 10^4).
+ */
+public record PositionUpdate(
+    String eventId,
+    long eventTime,
+    String correlationId,
+    String positionId,
+    String accountCode,
+    String symbol,
+    String triggeringTradeId,
+    long newQuantity,
+    long avgCost,
+    long costBasis
+) {
+}
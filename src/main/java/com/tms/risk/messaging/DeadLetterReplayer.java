@@ -0,0 +1,123 @@
+package com.tms.risk.messaging;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Republishes dead-lettered position events to the retry topic, byte for byte. Progress is
+ * tracked under a dedicated consumer group, so each dead letter is replayed once per trigger
+ * and a replay can be resumed after a partial run. Payloads that still cannot be decoded are
+ * left in the DLT and skipped; replaying them would only bounce them back.
+ */
+@Component
+@Slf4j
+public class DeadLetterReplayer {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final int MAX_EMPTY_POLLS = 2;
+
+    private final KafkaProperties kafkaProperties;
+    private final KafkaTemplate<String, byte[]> rawKafkaTemplate;
+    private final FailedPositionForwarder failedPositionForwarder;
+    private final String replayGroupId;
+    private final PositionUpdatedDeserializer decoder = new PositionUpdatedDeserializer();
+
+    public DeadLetterReplayer(KafkaProperties kafkaProperties,
+                              KafkaTemplate<String, byte[]> rawKafkaTemplate,
+                              FailedPositionForwarder failedPositionForwarder,
+                              @Value("${spring.kafka.consumer.group-id}") String groupId) {
+        this.kafkaProperties = kafkaProperties;
+        this.rawKafkaTemplate = rawKafkaTemplate;
+        this.failedPositionForwarder = failedPositionForwarder;
+        this.replayGroupId = groupId + "-dlt-replay";
+    }
+
+    /**
+     * Replays up to {@code maxRecords} dead letters.
+     */
+    public synchronized Result replay(int maxRecords) {
+        Map<String, Object> properties = kafkaProperties.buildConsumerProperties(null);
+        properties.put(ConsumerConfig.GROUP_ID_CONFIG, replayGroupId);
+        properties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        properties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        properties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Math.min(maxRecords, 500));
+
+        int replayed = 0;
+        int skipped = 0;
+        try (Consumer<String, byte[]> consumer = new KafkaConsumer<>(properties)) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (PartitionInfo partition : consumer.partitionsFor(PositionRetryTopics.DLT)) {
+                partitions.add(new TopicPartition(partition.topic(), partition.partition()));
+            }
+            // Assigned rather than subscribed so there is no group rebalance to wait for
+            consumer.assign(partitions);
+
+            int emptyPolls = 0;
+            while (replayed < maxRecords && emptyPolls < MAX_EMPTY_POLLS) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    emptyPolls++;
+                    continue;
+                }
+
+                List<CompletableFuture<?>> sends = new ArrayList<>(records.count());
+                Map<TopicPartition, OffsetAndMetadata> replayedOffsets = new HashMap<>();
+                for (ConsumerRecord<String, byte[]> record : records) {
+                    if (replayed == maxRecords) {
+                        break;
+                    }
+                    replayedOffsets.put(new TopicPartition(record.topic(), record.partition()),
+                        new OffsetAndMetadata(record.offset() + 1));
+                    if (!isDecodable(record)) {
+                        log.warn("Skipping undecodable dead letter, left in the DLT: partition={}, offset={}",
+                            record.partition(), record.offset());
+                        skipped++;
+                        continue;
+                    }
+                    sends.add(rawKafkaTemplate.send(PositionRetryTopics.RETRY, record.key(), record.value()));
+                    replayed++;
+                }
+                failedPositionForwarder.awaitAll(sends);
+                consumer.commitSync(replayedOffsets);
+            }
+        }
+
+        log.info("Replayed dead-lettered position updates: count={}, skipped={}, from={}, to={}",
+            replayed, skipped, PositionRetryTopics.DLT, PositionRetryTopics.RETRY);
+        return new Result(replayed, skipped);
+    }
+
+    private boolean isDecodable(ConsumerRecord<String, byte[]> record) {
+        try {
+            return decoder.deserialize(record.topic(), record.value()) != null;
+        } catch (SerializationException e) {
+            return false;
+        }
+    }
+
+    public record Result(int replayed, int skipped) {
+    }
+}
@@ -0,0 +1,75 @@
+package com.tms.risk.messaging;
+
+import com.tms.risk.event.PositionUpdate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Moves records off the main topic without blocking it: events that failed evaluation go to the
+ * retry topic, and payloads that could not be decoded go straight to the DLT as raw bytes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FailedPositionForwarder {
+
+    private static final LogAccessor LOG_ACCESSOR = new LogAccessor(FailedPositionForwarder.class);
+    private static final long SEND_TIMEOUT_SECONDS = 30;
+
+    private final KafkaTemplate<String, PositionUpdate> positionUpdateKafkaTemplate;
+    private final KafkaTemplate<String, byte[]> rawKafkaTemplate;
+
+    public CompletableFuture<?> toRetry(ConsumerRecord<String, PositionUpdate> record) {
+        log.warn("Forwarding position update to retry topic: positionId={}, partition={}, offset={}",
+            record.value().positionId(), record.partition(), record.offset());
+        return positionUpdateKafkaTemplate.send(PositionRetryTopics.RETRY, record.key(), record.value());
+    }
+
+    public CompletableFuture<?> toDeadLetter(ConsumerRecord<String, PositionUpdate> record) {
+        DeserializationException failure = SerializationUtils.getExceptionFromHeader(record,
+            SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG_ACCESSOR);
+        byte[] payload = failure != null ? failure.getData() : null;
+        String reason = failure != null ? failure.getMessage() : "Undecodable payload";
+
+        log.error("Dead-lettering undecodable position update: partition={}, offset={}, reason={}",
+            record.partition(), record.offset(), reason);
+        ProducerRecord<String, byte[]> deadLetter = new ProducerRecord<>(PositionRetryTopics.DLT, record.key(), payload);
+        deadLetter.headers()
+            .add(KafkaHeaders.DLT_ORIGINAL_TOPIC, record.topic().getBytes(StandardCharsets.UTF_8))
+            .add(KafkaHeaders.DLT_EXCEPTION_MESSAGE, String.valueOf(reason).getBytes(StandardCharsets.UTF_8));
+        return rawKafkaTemplate.send(deadLetter);
+    }
+
+    /**
+     * Waits for the broker to accept every forwarded record; the source offsets must not be
+     * committed before that.
+     */
+    public void awaitAll(List<CompletableFuture<?>> sends) {
+        if (sends.isEmpty()) {
+            return;
+        }
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while forwarding failed position updates", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Failed to forward position updates to retry/dead-letter topics", e);
+        }
+    }
+}
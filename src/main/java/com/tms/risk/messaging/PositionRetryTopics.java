@@ -0,0 +1,19 @@
+package com.tms.risk.messaging;
+
+import com.tms.common.config.kafka.KafkaTopics;
+
+/**
+ * Topics for position events that failed evaluation. Failed events enter {@link #RETRY}; the
+ * delayed stages derive from it ({@code positions.updated.retry-stage-N}) and exhausted events
+ * land in {@link #DLT}.
+ */
+public final class PositionRetryTopics {
+
+    public static final String RETRY = KafkaTopics.POSITIONS_UPDATED + ".retry";
+    public static final String STAGE_SUFFIX = "-stage";
+    public static final String DLT_SUFFIX = "-dlt";
+    public static final String DLT = RETRY + DLT_SUFFIX;
+
+    private PositionRetryTopics() {
+    }
+}
@@ -0,0 +1,121 @@
+package com.tms.risk.messaging;
+
+import com.tms.common.config.kafka.KafkaTopics;
+import com.tms.risk.event.PositionUpdate;
+import com.tms.risk.service.AccountLaneEvaluator;
+import com.tms.risk.service.EvaluationStateSnapshots;
+import com.tms.risk.service.PositionConflator;
+import com.tms.risk.service.RiskAlertWriteBehind;
+import com.tms.risk.service.RiskEvaluationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Evaluates a whole poll on per-account lanes and acknowledges once per batch, after the batch's
+ * alert writes are durable. Records that fail are forwarded to the retry topic (along with the
+ * rest of their account's records in the batch) instead of holding up the partition.
+ */
+@Component
+@ConditionalOnProperty(name = "risk.consumer.batch-enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class PositionUpdatedBatchConsumer implements ConsumerSeekAware {
+
+    private final AccountLaneEvaluator accountLaneEvaluator;
+    private final PositionConflator positionConflator;
+    private final ProcessedEventFilter processedEventFilter;
+    private final FailedPositionForwarder failedPositionForwarder;
+    private final RiskAlertWriteBehind riskAlertWriteBehind;
+    private final RiskEvaluationService riskEvaluationService;
+    private final EvaluationStateSnapshots evaluationStateSnapshots;
+
+    @KafkaListener(
+        topics = KafkaTopics.POSITIONS_UPDATED,
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "batchKafkaListenerContainerFactory"
+    )
+    public void handlePositionUpdatedBatch(List<ConsumerRecord<String, PositionUpdate>> records,
+                                           Acknowledgment acknowledgment) {
+        log.info("Received position update batch for risk evaluation: size={}", records.size());
+
+        Lock applying = evaluationStateSnapshots.applyLock();
+        applying.lock();
+        try {
+            if (evaluateBatch(records)) {
+                riskAlertWriteBehind.onDurable(acknowledgment::acknowledge);
+            }
+        } finally {
+            applying.unlock();
+        }
+    }
+
+    /**
+     * Returns false if, on any partition, the batch ends inside a replayed snapshot tail. The
+     * acknowledgment commits each partition's last offset + 1, which would then fall behind the
+     * position committed before the restart. A batch that ends past the tail is acknowledged,
+     * even if it began inside it.
+     */
+    private boolean evaluateBatch(List<ConsumerRecord<String, PositionUpdate>> records) {
+        // Kept index-aligned with records so results map back to offsets
+        List<PositionUpdate> positionUpdates = new ArrayList<>(records.size());
+        List<CompletableFuture<?>> forwarded = new ArrayList<>();
+        Map<TopicPartition, Boolean> endsInCatchUp = new HashMap<>();
+        int caughtUp = 0;
+        for (ConsumerRecord<String, PositionUpdate> record : records) {
+            boolean catchUp = evaluationStateSnapshots.isCatchUp(record);
+            endsInCatchUp.put(new TopicPartition(record.topic(), record.partition()), catchUp);
+            if (record.value() != null && catchUp) {
+                riskEvaluationService.applyState(record.value());
+                positionUpdates.add(null);
+                caughtUp++;
+            } else if (record.value() == null) {
+                // Payload could not be decoded; ErrorHandlingDeserializer leaves the value empty
+                forwarded.add(failedPositionForwarder.toDeadLetter(record));
+                positionUpdates.add(null);
+            } else if (processedEventFilter.isDuplicate(record)) {
+                log.debug("Skipping replayed position update: eventId={}, partition={}, offset={}",
+                    record.value().eventId(), record.partition(), record.offset());
+                positionUpdates.add(null);
+            } else {
+                positionUpdates.add(record.value());
+            }
+        }
+
+        boolean[] superseded = positionConflator.superseded(positionUpdates);
+        BitSet deferred = accountLaneEvaluator.evaluate(positionUpdates, superseded);
+        for (int i = deferred.nextSetBit(0); i >= 0; i = deferred.nextSetBit(i + 1)) {
+            forwarded.add(failedPositionForwarder.toRetry(records.get(i)));
+            positionUpdates.set(i, null);
+        }
+        failedPositionForwarder.awaitAll(forwarded);
+
+        for (int i = 0; i < records.size(); i++) {
+            processedEventFilter.markProcessed(records.get(i), positionUpdates.get(i) != null);
+            evaluationStateSnapshots.markApplied(records.get(i));
+        }
+        log.debug("Risk evaluation completed for batch: size={}, deferred={}, caughtUp={}",
+            records.size(), deferred.cardinality(), caughtUp);
+        return !endsInCatchUp.containsValue(true);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        processedEventFilter.onPartitionsAssigned(assignments.keySet());
+        evaluationStateSnapshots.onPartitionsAssigned(assignments, callback);
+    }
+}
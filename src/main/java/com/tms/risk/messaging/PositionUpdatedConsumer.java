@@ -2,64 +2,108 @@ package com.tms.risk.messaging;
 
 import com.tms.common.config.kafka.KafkaTopics;
 import com.tms.common.observability.logging.CorrelationIdFilter;
+import com.tms.risk.event.PositionUpdate;
+import com.tms.risk.service.EvaluationStateSnapshots;
+import com.tms.risk.service.RiskAlertWriteBehind;
 import com.tms.risk.service.RiskEvaluationService;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.retry.annotation.Retry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.Lock;
 
 @Component
+@ConditionalOnProperty(name = "risk.consumer.batch-enabled", havingValue = "false", matchIfMissing = true)
 @RequiredArgsConstructor
 @Slf4j
-public class PositionUpdatedConsumer {
+public class PositionUpdatedConsumer implements ConsumerSeekAware {
 
     private final RiskEvaluationService riskEvaluationService;
+    private final RiskAlertWriteBehind riskAlertWriteBehind;
+    private final ProcessedEventFilter processedEventFilter;
+    private final FailedPositionForwarder failedPositionForwarder;
+    private final EvaluationStateSnapshots evaluationStateSnapshots;
 
     @KafkaListener(
         topics = KafkaTopics.POSITIONS_UPDATED,
         groupId = "${spring.kafka.consumer.group-id}",
         containerFactory = "kafkaListenerContainerFactory"
     )
-    @CircuitBreaker(name = "kafka-consumer", fallbackMethod = "handlePositionUpdatedFallback")
-    @Retry(name = "kafka-consumer")
-    public void handlePositionUpdated(ConsumerRecord<String, Map<String, Object>> record,
+    public void handlePositionUpdated(ConsumerRecord<String, PositionUpdate> record,
                                        Acknowledgment acknowledgment) {
-        Map<String, Object> positionEvent = record.value();
-        String positionId = (String) positionEvent.get("positionId");
-        String correlationId = (String) positionEvent.get("correlationId");
+        Lock applying = evaluationStateSnapshots.applyLock();
+        applying.lock();
+        try {
+            handle(record, acknowledgment);
+            evaluationStateSnapshots.markApplied(record);
+        } finally {
+            applying.unlock();
+        }
+    }
+
+    private void handle(ConsumerRecord<String, PositionUpdate> record, Acknowledgment acknowledgment) {
+        PositionUpdate positionUpdate = record.value();
+        if (positionUpdate == null) {
+            failedPositionForwarder.awaitAll(List.of(failedPositionForwarder.toDeadLetter(record)));
+            processedEventFilter.markProcessed(record, false);
+            riskAlertWriteBehind.onDurable(acknowledgment::acknowledge);
+            return;
+        }
+        if (evaluationStateSnapshots.isCatchUp(record)) {
+            // Replaying a snapshot tail: alerts exist and the offset is already committed
+            riskEvaluationService.applyState(positionUpdate);
+            return;
+        }
+        String positionId = positionUpdate.positionId();
+        String correlationId = positionUpdate.correlationId();
 
         try {
             MDC.put(CorrelationIdFilter.CORRELATION_ID_MDC_KEY, correlationId);
             log.info("Received position update for risk evaluation: positionId={}, partition={}, offset={}",
                 positionId, record.partition(), record.offset());
 
-            riskEvaluationService.evaluatePosition(positionEvent);
+            boolean evaluated = false;
+            if (processedEventFilter.isDuplicate(record)) {
+                log.debug("Skipping replayed position update: eventId={}", positionUpdate.eventId());
+            } else {
+                evaluated = evaluate(record);
+            }
 
-            acknowledgment.acknowledge();
+            processedEventFilter.markProcessed(record, evaluated);
+            riskAlertWriteBehind.onDurable(acknowledgment::acknowledge);
             log.debug("Risk evaluation completed for position: positionId={}", positionId);
-
-        } catch (Exception e) {
-            log.error("Failed to evaluate risk for position: positionId={}", positionId, e);
-            throw e;
         } finally {
             MDC.remove(CorrelationIdFilter.CORRELATION_ID_MDC_KEY);
         }
     }
 
-    public void handlePositionUpdatedFallback(ConsumerRecord<String, Map<String, Object>> record,
-                                               Acknowledgment acknowledgment,
-                                               Exception e) {
-        Map<String, Object> positionEvent = record.value();
-        String positionId = (String) positionEvent.get("positionId");
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        processedEventFilter.onPartitionsAssigned(assignments.keySet());
+        evaluationStateSnapshots.onPartitionsAssigned(assignments, callback);
+    }
 
-        log.error("Circuit breaker open, skipping risk evaluation: positionId={}", positionId, e);
-        acknowledgment.acknowledge();
+    /**
+     * Evaluates the record, or hands it to the retry topic if evaluation fails so the partition
+     * keeps moving. Returns whether it was evaluated here.
+     */
+    private boolean evaluate(ConsumerRecord<String, PositionUpdate> record) {
+        try {
+            riskEvaluationService.evaluatePosition(record.value());
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to evaluate risk for position: positionId={}", record.value().positionId(), e);
+            failedPositionForwarder.awaitAll(List.of(failedPositionForwarder.toRetry(record)));
+            return false;
+        }
     }
 }
@@ -0,0 +1,120 @@
+package com.tms.risk.messaging;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.tms.risk.event.PositionUpdate;
+import com.tms.risk.service.FixedPoint;
+import com.tms.risk.service.RiskEvaluationMetrics;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams a {@code PositionUpdated} JSON payload into a {@link PositionUpdate} without building
+ * an intermediate tree or map. Decimal fields are parsed from the parser's character buffer
+ * directly into fixed-point longs; unknown fields are skipped.
+ */
+public class PositionUpdatedDeserializer implements Deserializer<PositionUpdate> {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    // Kafka instantiates deserializers itself, so this goes through the global registry Boot binds to
+    private final Timer decodeTimer = RiskEvaluationMetrics.stageTimer(Metrics.globalRegistry, "decode");
+
+    @Override
+    public PositionUpdate deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        long started = System.nanoTime();
+        try (JsonParser parser = JSON_FACTORY.createParser(data)) {
+            return read(parser);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Failed to decode PositionUpdated event from " + topic, e);
+        } finally {
+            decodeTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private PositionUpdate read(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new SerializationException("PositionUpdated payload is not a JSON object");
+        }
+
+        String eventId = null;
+        long eventTime = 0L;
+        String correlationId = null;
+        String positionId = null;
+        String accountCode = null;
+        String symbol = null;
+        String triggeringTradeId = null;
+        long newQuantity = 0L;
+        long avgCost = 0L;
+        long costBasis = 0L;
+        boolean hasQuantity = false;
+        boolean hasCostBasis = false;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "eventId" -> eventId = text(parser, token);
+                case "eventTime" -> eventTime = epochMillis(parser, token);
+                case "correlationId" -> correlationId = text(parser, token);
+                case "positionId" -> positionId = text(parser, token);
+                case "accountCode" -> accountCode = text(parser, token);
+                case "symbol" -> symbol = text(parser, token);
+                case "triggeringTradeId" -> triggeringTradeId = text(parser, token);
+                case "newQuantity" -> {
+                    newQuantity = decimal(parser, token, field);
+                    hasQuantity = true;
+                }
+                case "avgCost" -> avgCost = decimal(parser, token, field);
+                case "costBasis" -> {
+                    costBasis = decimal(parser, token, field);
+                    hasCostBasis = true;
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (positionId == null || !hasQuantity || !hasCostBasis) {
+            throw new SerializationException("PositionUpdated event is missing positionId, newQuantity or costBasis");
+        }
+        return new PositionUpdate(eventId, eventTime, correlationId, positionId, accountCode, symbol,
+            triggeringTradeId, newQuantity, avgCost, costBasis);
+    }
+
+    private static String text(JsonParser parser, JsonToken token) throws IOException {
+        return token == JsonToken.VALUE_NULL ? null : parser.getText();
+    }
+
+    private static long decimal(JsonParser parser, JsonToken token, String field) throws IOException {
+        if (token != JsonToken.VALUE_STRING && token != JsonToken.VALUE_NUMBER_INT
+                && token != JsonToken.VALUE_NUMBER_FLOAT) {
+            throw new SerializationException("Expected decimal value for " + field + " but found " + token);
+        }
+        return FixedPoint.parse(CharBuffer.wrap(parser.getTextCharacters(), parser.getTextOffset(),
+            parser.getTextLength()));
+    }
+
+    private static long epochMillis(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getLongValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            String text = parser.getText();
+            return text.chars().allMatch(Character::isDigit) && !text.isEmpty()
+                ? Long.parseLong(text)
+                : Instant.parse(text).toEpochMilli();
+        }
+        return 0L;
+    }
+}
@@ -0,0 +1,111 @@
+package com.tms.risk.messaging;
+
+import com.tms.common.observability.logging.CorrelationIdFilter;
+import com.tms.risk.event.PositionUpdate;
+import com.tms.risk.service.EvaluationStateSnapshots;
+import com.tms.risk.service.RiskAlertWriteBehind;
+import com.tms.risk.service.RiskEvaluationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.MDC;
+import org.springframework.kafka.annotation.DltHandler;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Re-evaluates position events that failed on the main topic. Each failed attempt moves the
+ * event to the next delayed stage topic instead of sleeping on a listener thread; events that
+ * exhaust every stage land in the DLT, from where they can be replayed over REST.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PositionUpdatedRetryConsumer implements ConsumerSeekAware {
+
+    private final RiskEvaluationService riskEvaluationService;
+    private final RiskAlertWriteBehind riskAlertWriteBehind;
+    private final ProcessedEventFilter processedEventFilter;
+    private final EvaluationStateSnapshots evaluationStateSnapshots;
+    private final FailedPositionForwarder failedPositionForwarder;
+
+    @RetryableTopic(
+        attempts = "${risk.retry.attempts:4}",
+        backoff = @Backoff(
+            delayExpression = "${risk.retry.initial-delay-ms:1000}",
+            multiplierExpression = "${risk.retry.multiplier:5}",
+            maxDelayExpression = "${risk.retry.max-delay-ms:60000}"),
+        kafkaTemplate = "positionUpdateKafkaTemplate",
+        retryTopicSuffix = PositionRetryTopics.STAGE_SUFFIX,
+        dltTopicSuffix = PositionRetryTopics.DLT_SUFFIX,
+        topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+        autoCreateTopics = "${risk.retry.auto-create-topics:true}"
+    )
+    @KafkaListener(
+        topics = PositionRetryTopics.RETRY,
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "kafkaListenerContainerFactory"
+    )
+    public void handlePositionUpdatedRetry(ConsumerRecord<String, PositionUpdate> record,
+                                           Acknowledgment acknowledgment) {
+        PositionUpdate positionUpdate = record.value();
+        if (positionUpdate == null) {
+            // Back to the DLT rather than acked away, so the payload is not lost
+            failedPositionForwarder.awaitAll(List.of(failedPositionForwarder.toDeadLetter(record)));
+            acknowledgment.acknowledge();
+            return;
+        }
+
+        Lock applying = evaluationStateSnapshots.applyLock();
+        applying.lock();
+        try {
+            MDC.put(CorrelationIdFilter.CORRELATION_ID_MDC_KEY, positionUpdate.correlationId());
+            if (evaluationStateSnapshots.isCatchUp(record)) {
+                // Replaying a snapshot tail: alerts exist and the offset is already committed
+                riskEvaluationService.applyState(positionUpdate);
+                evaluationStateSnapshots.markApplied(record);
+                return;
+            }
+            log.info("Retrying risk evaluation: positionId={}, topic={}, offset={}",
+                positionUpdate.positionId(), record.topic(), record.offset());
+
+            if (!processedEventFilter.isDuplicate(record)) {
+                riskEvaluationService.evaluatePosition(positionUpdate);
+                processedEventFilter.markProcessed(record, true);
+            }
+            evaluationStateSnapshots.markApplied(record);
+            riskAlertWriteBehind.onDurable(acknowledgment::acknowledge);
+        } finally {
+            MDC.remove(CorrelationIdFilter.CORRELATION_ID_MDC_KEY);
+            applying.unlock();
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        evaluationStateSnapshots.onPartitionsAssigned(assignments, callback);
+    }
+
+    @DltHandler
+    public void handlePositionUpdatedDlt(ConsumerRecord<String, PositionUpdate> record,
+                                         @Header(name = KafkaHeaders.DLT_EXCEPTION_MESSAGE, required = false)
+                                         String failure,
+                                         Acknowledgment acknowledgment) {
+        log.error("Position update dead-lettered, replay via /api/v1/risk/dead-letters/replay: " +
+                "positionId={}, offset={}, failure={}",
+            record.value() != null ? record.value().positionId() : null, record.offset(), failure);
+        acknowledgment.acknowledge();
+    }
+}
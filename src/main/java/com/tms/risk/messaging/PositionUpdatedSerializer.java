@@ -0,0 +1,48 @@
+package com.tms.risk.messaging;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.tms.risk.event.PositionUpdate;
+import com.tms.risk.service.FixedPoint;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Writes a {@link PositionUpdate} back to the {@code PositionUpdated} JSON shape read by
+ * {@link PositionUpdatedDeserializer}, with fixed-point fields as plain decimals. Used when a
+ * decoded event is forwarded to the retry topics.
+ */
+public class PositionUpdatedSerializer implements Serializer<PositionUpdate> {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Override
+    public byte[] serialize(String topic, PositionUpdate positionUpdate) {
+        if (positionUpdate == null) {
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeStringField("eventId", positionUpdate.eventId());
+            generator.writeStringField("eventType", "PositionUpdated");
+            generator.writeNumberField("eventTime", positionUpdate.eventTime());
+            generator.writeStringField("correlationId", positionUpdate.correlationId());
+            generator.writeStringField("positionId", positionUpdate.positionId());
+            generator.writeStringField("accountCode", positionUpdate.accountCode());
+            generator.writeStringField("symbol", positionUpdate.symbol());
+            generator.writeStringField("triggeringTradeId", positionUpdate.triggeringTradeId());
+            generator.writeNumberField("newQuantity", FixedPoint.toBigDecimal(positionUpdate.newQuantity()));
+            generator.writeNumberField("avgCost", FixedPoint.toBigDecimal(positionUpdate.avgCost()));
+            generator.writeNumberField("costBasis", FixedPoint.toBigDecimal(positionUpdate.costBasis()));
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new SerializationException("Failed to encode PositionUpdated event for " + topic, e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,130 @@
+package com.tms.risk.messaging;
+
+import com.tms.risk.event.PositionUpdate;
+import com.tms.risk.service.ConsumerOffsetStore;
+import com.tms.risk.service.RiskAlertWriteBehind;
+import com.tms.risk.service.RotatingBloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Drops replayed position events before any evaluation work. Events are keyed on eventId (or
+ * triggeringTradeId when there is none) in a {@link RotatingBloomFilter}, whose memory is fixed
+ * by {@code expected-insertions} and whose estimated false-positive rate is exported. Optionally,
+ * a per-partition high-water mark persisted with the alerts also drops anything at or below the
+ * last offset whose alerts were written, which covers replays after a restart or rebalance.
+ */
+@Component
+@Slf4j
+public class ProcessedEventFilter {
+
+    private final boolean enabled;
+    private final boolean highWaterMarkEnabled;
+    private final RotatingBloomFilter seenEvents;
+    private final ConsumerOffsetStore consumerOffsetStore;
+    private final RiskAlertWriteBehind riskAlertWriteBehind;
+    private final Map<ConsumerOffsetStore.Partition, Long> highWaterMarks = new ConcurrentHashMap<>();
+    private final Counter filterDuplicates;
+    private final Counter highWaterMarkDuplicates;
+
+    public ProcessedEventFilter(@Value("${risk.idempotency.enabled:true}") boolean enabled,
+                                @Value("${risk.idempotency.expected-insertions:1000000}") int expectedInsertions,
+                                @Value("${risk.idempotency.false-positive-rate:0.000001}") double falsePositiveRate,
+                                @Value("${risk.idempotency.high-water-mark.enabled:false}") boolean highWaterMarkEnabled,
+                                ConsumerOffsetStore consumerOffsetStore,
+                                RiskAlertWriteBehind riskAlertWriteBehind,
+                                MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.highWaterMarkEnabled = highWaterMarkEnabled;
+        this.seenEvents = new RotatingBloomFilter(expectedInsertions, falsePositiveRate);
+        this.consumerOffsetStore = consumerOffsetStore;
+        this.riskAlertWriteBehind = riskAlertWriteBehind;
+
+        this.filterDuplicates = Counter.builder("risk.idempotency.duplicates")
+            .description("Replayed position events dropped before evaluation")
+            .tag("source", "filter")
+            .register(meterRegistry);
+        this.highWaterMarkDuplicates = Counter.builder("risk.idempotency.duplicates")
+            .description("Replayed position events dropped before evaluation")
+            .tag("source", "high-water-mark")
+            .register(meterRegistry);
+        Gauge.builder("risk.idempotency.filter.false.positive.rate", seenEvents, RotatingBloomFilter::falsePositiveRate)
+            .description("Estimated false-positive rate of the processed-event filter at its current fill")
+            .register(meterRegistry);
+        Gauge.builder("risk.idempotency.filter.entries", seenEvents, RotatingBloomFilter::size)
+            .register(meterRegistry);
+        Gauge.builder("risk.idempotency.filter.bytes", seenEvents, RotatingBloomFilter::memoryBytes)
+            .baseUnit("bytes")
+            .register(meterRegistry);
+
+        log.info("Processed-event filter: enabled={}, expectedInsertions={}, falsePositiveRate={}, bytes={}",
+            enabled, expectedInsertions, falsePositiveRate, seenEvents.memoryBytes());
+    }
+
+    public boolean isDuplicate(ConsumerRecord<String, PositionUpdate> record) {
+        if (!enabled) {
+            return false;
+        }
+        if (highWaterMarkEnabled) {
+            Long highWaterMark = highWaterMarks.get(new ConsumerOffsetStore.Partition(record.topic(), record.partition()));
+            if (highWaterMark != null && record.offset() <= highWaterMark) {
+                highWaterMarkDuplicates.increment();
+                return true;
+            }
+        }
+        String key = keyOf(record.value());
+        if (key != null && seenEvents.mightContain(key)) {
+            filterDuplicates.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Marks a record as handled before it is acknowledged. Only records that were actually
+     * evaluated enter the filter; forwarded or skipped records still advance the high-water mark.
+     */
+    public void markProcessed(ConsumerRecord<String, PositionUpdate> record, boolean evaluated) {
+        if (!enabled) {
+            return;
+        }
+        String key = evaluated ? keyOf(record.value()) : null;
+        if (key != null) {
+            seenEvents.put(key);
+        }
+        if (highWaterMarkEnabled) {
+            riskAlertWriteBehind.markProcessed(record.topic(), record.partition(), record.offset());
+        }
+    }
+
+    /**
+     * Loads the persisted marks for newly assigned partitions, which may have been advanced by
+     * another instance since this one last owned them.
+     */
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+        if (!enabled || !highWaterMarkEnabled) {
+            return;
+        }
+        for (TopicPartition topicPartition : partitions) {
+            ConsumerOffsetStore.Partition partition =
+                new ConsumerOffsetStore.Partition(topicPartition.topic(), topicPartition.partition());
+            consumerOffsetStore.find(partition.topic(), partition.partition()).ifPresentOrElse(
+                offset -> highWaterMarks.put(partition, offset),
+                () -> highWaterMarks.remove(partition));
+        }
+    }
+
+    private static String keyOf(PositionUpdate positionUpdate) {
+        return positionUpdate.eventId() != null ? positionUpdate.eventId() : positionUpdate.triggeringTradeId();
+    }
+}
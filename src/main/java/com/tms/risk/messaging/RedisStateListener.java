@@ -0,0 +1,66 @@
+package com.tms.risk.messaging;
+
+import com.tms.risk.event.AlertStateChange;
+import com.tms.risk.event.LimitChange;
+import com.tms.risk.service.AlertSummaryCounters;
+import com.tms.risk.service.OpenAlertRegistry;
+import com.tms.risk.service.RedisStateStore;
+import com.tms.risk.service.RiskLimitIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies limit and alert state changes made on other replicas to this replica's limit index,
+ * open-alert registry and alert summary counts. Messages published by this instance are ignored.
+ */
+@Component
+@ConditionalOnProperty(name = "risk.redis-sync.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class RedisStateListener implements MessageListener {
+
+    private final RedisStateStore redisStateStore;
+    private final RiskLimitIndex riskLimitIndex;
+    private final OpenAlertRegistry openAlertRegistry;
+    private final AlertSummaryCounters alertSummaryCounters;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        RedisStateStore.SyncMessage syncMessage = redisStateStore.decode(message.getBody());
+        if (syncMessage == null || redisStateStore.instanceId().equals(syncMessage.origin())) {
+            return;
+        }
+        if (syncMessage.limit() != null) {
+            apply(syncMessage.limit());
+        }
+        if (syncMessage.alert() != null) {
+            apply(syncMessage.alert());
+        }
+    }
+
+    private void apply(LimitChange change) {
+        if (change.limitId() == null) {
+            riskLimitIndex.reload();
+            return;
+        }
+        if (change.limit() != null) {
+            riskLimitIndex.upsert(change.limit());
+        } else {
+            riskLimitIndex.remove(change.limitId());
+        }
+        log.debug("Applied limit change from another replica: limitId={}", change.limitId());
+    }
+
+    private void apply(AlertStateChange change) {
+        if (change.type() == AlertStateChange.Type.CREATED) {
+            openAlertRegistry.register(change);
+        } else {
+            openAlertRegistry.remove(change.limitId(), change.accountCode(), change.symbol(), change.alertId());
+        }
+        alertSummaryCounters.apply(change);
+    }
+}
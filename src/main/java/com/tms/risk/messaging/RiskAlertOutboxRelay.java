@@ -0,0 +1,136 @@
+package com.tms.risk.messaging;
+
+import com.tms.risk.entity.RiskAlertOutbox;
+import com.tms.risk.repository.RiskAlertOutboxRepository;
+import com.tms.risk.service.RiskEvaluationMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes committed outbox rows to Kafka in id order and deletes them once the broker has
+ * acknowledged the whole batch. When the outbox template is transactional, each batch is one
+ * Kafka transaction that commits only after its rows are deleted, so a failed or timed-out batch
+ * is aborted and never seen by read_committed consumers. The Kafka commit still precedes the
+ * database commit, and no transaction spans both: if the database commit then fails, the batch
+ * is published again. Delivery is therefore at-least-once, not exactly-once. Consumers must
+ * dedupe by eventId, which is fixed when the row is enqueued and sent both in the payload and as
+ * the {@value #EVENT_ID_HEADER} header.
+ */
+@Component
+@Slf4j
+public class RiskAlertOutboxRelay {
+
+    public static final String EVENT_ID_HEADER = "eventId";
+
+    // The type header the JSON serializer wrote when these events were sent as maps, kept for
+    // consumers that still resolve the payload type from it
+    private static final byte[] EVENT_TYPE_ID = HashMap.class.getName().getBytes(StandardCharsets.UTF_8);
+
+    private final RiskAlertOutboxRepository riskAlertOutboxRepository;
+    private final KafkaTemplate<String, String> outboxKafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+    private final Timer publishTimer;
+    private final Counter publishFailures;
+
+    public RiskAlertOutboxRelay(RiskAlertOutboxRepository riskAlertOutboxRepository,
+                                KafkaTemplate<String, String> outboxKafkaTemplate,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${risk.outbox.batch-size:500}") int batchSize,
+                                @Value("${risk.outbox.send-timeout-ms:30000}") long sendTimeoutMs) {
+        this.riskAlertOutboxRepository = riskAlertOutboxRepository;
+        this.outboxKafkaTemplate = outboxKafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.publishTimer = RiskEvaluationMetrics.stageTimer(meterRegistry, "publish");
+        this.publishFailures = Counter.builder("risk.alerts.publish.failures")
+            .description("RiskAlert outbox batches that failed to publish and were rolled back for retry")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${risk.outbox.poll-interval-ms:200}")
+    public void relay() {
+        try {
+            Integer published;
+            do {
+                published = transactionTemplate.execute(status -> publishBatch());
+            } while (published != null && published == batchSize);
+        } catch (RuntimeException e) {
+            publishFailures.increment();
+            log.error("Failed to relay RiskAlert outbox batch, will retry", e);
+        }
+    }
+
+    private int publishBatch() {
+        List<RiskAlertOutbox> batch = riskAlertOutboxRepository.findNextBatch(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        long started = System.nanoTime();
+        if (outboxKafkaTemplate.isTransactional()) {
+            outboxKafkaTemplate.executeInTransaction(operations -> {
+                sendAll(operations, batch);
+                publishTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                // Deleted before the Kafka commit, so a failed delete aborts the batch too
+                riskAlertOutboxRepository.deleteAllInBatch(batch);
+                return null;
+            });
+        } else {
+            sendAll(outboxKafkaTemplate, batch);
+            publishTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            riskAlertOutboxRepository.deleteAllInBatch(batch);
+        }
+        log.info("RiskAlert events published from outbox: count={}, lastAlertId={}",
+            batch.size(), batch.get(batch.size() - 1).getAlertId());
+        return batch.size();
+    }
+
+    private void sendAll(KafkaOperations<String, String> operations, List<RiskAlertOutbox> batch) {
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            RiskAlertOutbox row = batch.get(i);
+            ProducerRecord<String, String> record =
+                new ProducerRecord<>(row.getTopic(), row.getMessageKey(), row.getPayload());
+            record.headers().add(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, EVENT_TYPE_ID);
+            if (row.getEventId() != null) {
+                record.headers().add(EVENT_ID_HEADER, row.getEventId().getBytes(StandardCharsets.UTF_8));
+            }
+            sends[i] = operations.send(record);
+        }
+        awaitAll(sends);
+    }
+
+    private void awaitAll(CompletableFuture<?>[] sends) {
+        try {
+            CompletableFuture.allOf(sends).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing RiskAlert outbox batch", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Failed to publish RiskAlert outbox batch", e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.tms.risk.repository;
+
+import com.tms.risk.entity.RiskAlertOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RiskAlertOutboxRepository extends JpaRepository<RiskAlertOutbox, Long> {
+
+    // Locks the rows and skips rows locked by another relay instance (READPAST)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM RiskAlertOutbox o ORDER BY o.outboxId")
+    List<RiskAlertOutbox> findNextBatch(Pageable pageable);
+}
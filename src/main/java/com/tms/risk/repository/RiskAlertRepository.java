@@ -15,10 +15,17 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface RiskAlertRepository extends JpaRepository<RiskAlert, Long> {
+public interface RiskAlertRepository extends JpaRepository<RiskAlert, Long>, RiskAlertSearchRepository {
 
     List<RiskAlert> findByStatus(AlertStatus status);
 
+    // Literal status so SQL Server can use the filtered open-alert indexes
+    @Query("SELECT r FROM RiskAlert r WHERE r.status = 'OPEN'")
+    List<RiskAlert> findOpenAlerts();
+
+    @Query("SELECT r FROM RiskAlert r WHERE r.status IN ('OPEN', 'ACKNOWLEDGED')")
+    List<RiskAlert> findUnresolvedAlerts();
+
     List<RiskAlert> findByAccountCodeAndStatus(String accountCode, AlertStatus status);
 
     List<RiskAlert> findBySeverityAndStatus(Severity severity, AlertStatus status);
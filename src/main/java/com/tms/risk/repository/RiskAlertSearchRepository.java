@@ -0,0 +1,37 @@
+package com.tms.risk.repository;
+
+import com.tms.risk.entity.RiskAlert;
+import com.tms.risk.entity.RiskAlert.AlertStatus;
+import com.tms.risk.entity.RiskAlert.Severity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keyset-paginated alert search, newest first on (createdAt, alertId).
+ */
+public interface RiskAlertSearchRepository {
+
+    /**
+     * Returns up to {@code limit} alerts matching {@code criteria} that sort strictly after
+     * {@code after}, or from the newest alert when {@code after} is null.
+     */
+    List<RiskAlert> search(Criteria criteria, Cursor after, int limit);
+
+    /**
+     * Optional filters; null fields are not applied. {@code from} is inclusive, {@code to} exclusive.
+     */
+    record Criteria(AlertStatus status, Severity severity, String accountCode,
+                    LocalDateTime from, LocalDateTime to) {
+    }
+
+    /**
+     * Position of the last alert of a page.
+     */
+    record Cursor(LocalDateTime createdAt, long alertId) {
+
+        public static Cursor of(RiskAlert alert) {
+            return new Cursor(alert.getCreatedAt(), alert.getAlertId());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.tms.risk.repository;
+
+import com.tms.risk.entity.RiskAlert;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RiskAlertSearchRepositoryImpl implements RiskAlertSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RiskAlert> search(Criteria criteria, Cursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<RiskAlert> query = cb.createQuery(RiskAlert.class);
+        Root<RiskAlert> alert = query.from(RiskAlert.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (criteria.status() != null) {
+            predicates.add(cb.equal(alert.get("status"), criteria.status()));
+        }
+        if (criteria.severity() != null) {
+            predicates.add(cb.equal(alert.get("severity"), criteria.severity()));
+        }
+        if (criteria.accountCode() != null) {
+            predicates.add(cb.equal(alert.get("accountCode"), criteria.accountCode()));
+        }
+        if (criteria.from() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(alert.<LocalDateTime>get("createdAt"), criteria.from()));
+        }
+        if (criteria.to() != null) {
+            predicates.add(cb.lessThan(alert.<LocalDateTime>get("createdAt"), criteria.to()));
+        }
+        if (after != null) {
+            // (createdAt, alertId) < (cursor.createdAt, cursor.alertId)
+            predicates.add(cb.or(
+                cb.lessThan(alert.<LocalDateTime>get("createdAt"), after.createdAt()),
+                cb.and(
+                    cb.equal(alert.get("createdAt"), after.createdAt()),
+                    cb.lessThan(alert.<Long>get("alertId"), after.alertId()))));
+        }
+
+        query.select(alert)
+            .where(predicates.toArray(Predicate[]::new))
+            .orderBy(cb.desc(alert.get("createdAt")), cb.desc(alert.get("alertId")));
+
+        return entityManager.createQuery(query)
+            .setMaxResults(limit)
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .getResultList();
+    }
+}
@@ -31,4 +31,6 @@ public interface RiskLimitRepository extends JpaRepository<RiskLimit, Long> {
                                           @Param("symbol") String symbol);
 
     List<RiskLimit> findByLimitTypeAndIsActiveTrue(LimitType limitType);
+
+    List<RiskLimit> findByIsActiveTrue();
 }
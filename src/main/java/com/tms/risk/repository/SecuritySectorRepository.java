@@ -0,0 +1,9 @@
+package com.tms.risk.repository;
+
+import com.tms.risk.entity.SecuritySector;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SecuritySectorRepository extends JpaRepository<SecuritySector, String> {
+}
@@ -0,0 +1,198 @@
+package com.tms.risk.service;
+
+import com.tms.risk.event.PositionUpdate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gross exposure per account (sum of |costBasis| over its positions), maintained incrementally
+ * from position updates. Each update swaps the position's last known cost basis and applies the
+ * difference to the account total, so concurrent updates always telescope to the exact sum.
+ * Re-applying the same update is a no-op, and an update older than the position's stored state
+ * (a retried event arriving after newer ones) is ignored. Amounts are {@link FixedPoint} values.
+ * Positions are also indexed by positionId under their account and symbol, so an account may hold
+ * several positions in one symbol. Flat positions stay until {@link #evictFlat} drops them.
+ */
+@Component
+public class AccountExposureAggregator {
+
+    /** Returned by {@link #apply} for an update older than the stored state; compare by identity. */
+    public static final PositionExposure STALE = new PositionExposure("", null, 0L, 0L, Long.MAX_VALUE);
+
+    private final Map<String, PositionExposure> positions = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> accountTotals = new ConcurrentHashMap<>();
+    // accountCode -> symbol -> positionIds; states are read from positions
+    private final Map<String, Map<String, Set<String>>> byAccountAndSymbol = new ConcurrentHashMap<>();
+
+    /**
+     * Records the position's latest state, updates the account total and returns the state
+     * the update replaced (null for a position seen for the first time), or {@link #STALE} if the
+     * update's eventTime is older than the stored state's and nothing was changed.
+     */
+    public PositionExposure apply(PositionUpdate update) {
+        String accountCode = keyOf(update.accountCode());
+        PositionExposure next = new PositionExposure(accountCode, update.symbol(),
+            update.newQuantity(), update.costBasis(), update.eventTime());
+        PositionExposure previous;
+        // Compare-and-set, so a retry-topic event racing a newer one on the main topic cannot win
+        while (true) {
+            previous = positions.get(update.positionId());
+            if (previous != null && update.eventTime() > 0 && update.eventTime() < previous.eventTime()) {
+                return STALE;
+            }
+            if (previous == null
+                    ? positions.putIfAbsent(update.positionId(), next) == null
+                    : positions.replace(update.positionId(), previous, next)) {
+                break;
+            }
+        }
+        if (previous == null) {
+            index(update.positionId(), next);
+        } else if (!previous.accountCode().equals(accountCode) || !Objects.equals(previous.symbol(), update.symbol())) {
+            unindex(update.positionId(), previous);
+            index(update.positionId(), next);
+        }
+
+        AtomicLong total = accountTotal(accountCode);
+        if (previous == null) {
+            total.addAndGet(Math.abs(next.costBasis()));
+        } else if (!previous.accountCode().equals(accountCode)) {
+            accountTotal(previous.accountCode()).addAndGet(-Math.abs(previous.costBasis()));
+            total.addAndGet(Math.abs(next.costBasis()));
+        } else {
+            long delta = Math.abs(next.costBasis()) - Math.abs(previous.costBasis());
+            if (delta != 0) {
+                total.addAndGet(delta);
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Drops a position that is no longer tracked, if its state is still {@code expected}.
+     */
+    public boolean remove(String positionId, PositionExposure expected) {
+        if (!positions.remove(positionId, expected)) {
+            return false;
+        }
+        unindex(positionId, expected);
+        accountTotal(expected.accountCode()).addAndGet(-Math.abs(expected.costBasis()));
+        return true;
+    }
+
+    public long accountExposure(String accountCode) {
+        AtomicLong total = accountTotals.get(keyOf(accountCode));
+        return total != null ? total.get() : 0L;
+    }
+
+    /**
+     * Drops flat positions whose latest event is older than {@code eventTimeBefore}, and returns
+     * the states removed so other sums can drop them too. Waiting out the retry delays keeps a
+     * late retried event from reopening a position as new.
+     */
+    public List<PositionExposure> evictFlat(long eventTimeBefore) {
+        List<PositionExposure> evicted = new ArrayList<>();
+        positions.forEach((positionId, exposure) -> {
+            if (exposure.quantity() == 0 && exposure.eventTime() < eventTimeBefore && remove(positionId, exposure)) {
+                evicted.add(exposure);
+            }
+        });
+        return evicted;
+    }
+
+    /**
+     * Latest known state of the account's position in {@code symbol}, or null if none was seen.
+     * Several positions in the same symbol are summed into one.
+     */
+    public PositionExposure findPosition(String accountCode, String symbol) {
+        Map<String, Set<String>> bySymbol = byAccountAndSymbol.get(keyOf(accountCode));
+        Set<String> positionIds = bySymbol != null && symbol != null ? bySymbol.get(symbol) : null;
+        if (positionIds == null) {
+            return null;
+        }
+        PositionExposure found = null;
+        for (String positionId : positionIds) {
+            PositionExposure exposure = positions.get(positionId);
+            if (exposure == null || !exposure.accountCode().equals(keyOf(accountCode))
+                    || !symbol.equals(exposure.symbol())) {
+                continue;
+            }
+            found = found == null ? exposure : new PositionExposure(found.accountCode(), symbol,
+                found.quantity() + exposure.quantity(), found.costBasis() + exposure.costBasis(),
+                Math.max(found.eventTime(), exposure.eventTime()));
+        }
+        return found;
+    }
+
+    public Map<String, Long> accountExposures() {
+        Map<String, Long> exposures = new HashMap<>();
+        accountTotals.forEach((accountCode, total) -> exposures.put(accountCode, total.get()));
+        return exposures;
+    }
+
+    public int positionCount() {
+        return positions.size();
+    }
+
+    /**
+     * Copy of every position's latest state, keyed by positionId.
+     */
+    public Map<String, PositionExposure> positions() {
+        return new HashMap<>(positions);
+    }
+
+    /**
+     * Replaces all state with {@code restored}. Only safe before any update is applied.
+     */
+    public void restore(Map<String, PositionExposure> restored) {
+        positions.clear();
+        accountTotals.clear();
+        byAccountAndSymbol.clear();
+        restored.forEach((positionId, exposure) -> {
+            positions.put(positionId, exposure);
+            index(positionId, exposure);
+            accountTotal(exposure.accountCode()).addAndGet(Math.abs(exposure.costBasis()));
+        });
+    }
+
+    private void index(String positionId, PositionExposure exposure) {
+        if (exposure.symbol() != null) {
+            // compute, not computeIfAbsent: unindex may drop the set between the lookup and the add
+            byAccountAndSymbol.computeIfAbsent(exposure.accountCode(), k -> new ConcurrentHashMap<>())
+                .compute(exposure.symbol(), (symbol, positionIds) -> {
+                    Set<String> ids = positionIds != null ? positionIds : ConcurrentHashMap.newKeySet();
+                    ids.add(positionId);
+                    return ids;
+                });
+        }
+    }
+
+    private void unindex(String positionId, PositionExposure exposure) {
+        Map<String, Set<String>> bySymbol = byAccountAndSymbol.get(exposure.accountCode());
+        if (bySymbol != null && exposure.symbol() != null) {
+            bySymbol.computeIfPresent(exposure.symbol(), (symbol, positionIds) -> {
+                positionIds.remove(positionId);
+                return positionIds.isEmpty() ? null : positionIds;
+            });
+        }
+    }
+
+    private AtomicLong accountTotal(String accountCode) {
+        return accountTotals.computeIfAbsent(accountCode, k -> new AtomicLong());
+    }
+
+    private static String keyOf(String accountCode) {
+        return accountCode != null ? accountCode : "";
+    }
+
+    public record PositionExposure(String accountCode, String symbol, long quantity, long costBasis, long eventTime) {
+    }
+}
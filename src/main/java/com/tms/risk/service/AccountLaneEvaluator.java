@@ -0,0 +1,129 @@
+package com.tms.risk.service;
+
+import com.tms.common.observability.logging.CorrelationIdFilter;
+import com.tms.risk.event.PositionUpdate;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Evaluates a batch of position events on per-account lanes. Each lane runs its account's events
+ * in batch order on a virtual thread, so different accounts proceed in parallel while any one
+ * account's updates are never reordered. A failing lane stops at the failed event and defers it
+ * together with the rest of that account's events; other lanes are unaffected.
+ */
+@Component
+@Slf4j
+public class AccountLaneEvaluator {
+
+    private final RiskEvaluationService riskEvaluationService;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore lanePermits;
+
+    public AccountLaneEvaluator(RiskEvaluationService riskEvaluationService,
+                                @Value("${risk.consumer.lanes.max-concurrency:64}") int maxConcurrency) {
+        this.riskEvaluationService = riskEvaluationService;
+        this.lanePermits = new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * Evaluates every non-null event and returns the batch indexes that were not evaluated: each
+     * failed event plus the later events of the same account. Events flagged in
+     * {@code superseded} (may be null) are only checked against trade-scoped limits.
+     */
+    public BitSet evaluate(List<PositionUpdate> positionUpdates, boolean[] superseded) {
+        Map<String, List<Integer>> lanes = new HashMap<>();
+        for (int i = 0; i < positionUpdates.size(); i++) {
+            PositionUpdate positionUpdate = positionUpdates.get(i);
+            if (positionUpdate != null) {
+                String accountCode = positionUpdate.accountCode();
+                lanes.computeIfAbsent(accountCode != null ? accountCode : "", k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        BitSet deferred = new BitSet();
+        if (lanes.size() <= 1) {
+            for (List<Integer> lane : lanes.values()) {
+                defer(deferred, lane, runLane(positionUpdates, superseded, lane));
+            }
+            return deferred;
+        }
+
+        List<List<Integer>> submitted = new ArrayList<>(lanes.size());
+        List<Future<Integer>> running = new ArrayList<>(lanes.size());
+        try {
+            for (List<Integer> lane : lanes.values()) {
+                submitted.add(lane);
+                running.add(executor.submit(() -> {
+                    // Bounds concurrent lanes; waiting lanes are parked virtual threads
+                    lanePermits.acquire();
+                    try {
+                        return runLane(positionUpdates, superseded, lane);
+                    } finally {
+                        lanePermits.release();
+                    }
+                }));
+            }
+            for (int i = 0; i < running.size(); i++) {
+                defer(deferred, submitted.get(i), running.get(i).get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running.forEach(lane -> lane.cancel(true));
+            throw new IllegalStateException("Interrupted while evaluating position lanes", e);
+        } catch (ExecutionException e) {
+            // runLane handles evaluation failures itself; anything here is unexpected
+            throw new IllegalStateException("Position lane terminated unexpectedly", e.getCause());
+        }
+        return deferred;
+    }
+
+    /**
+     * Returns the position within the lane of the first failed event, or the lane size.
+     */
+    private int runLane(List<PositionUpdate> positionUpdates, boolean[] superseded, List<Integer> lane) {
+        for (int i = 0; i < lane.size(); i++) {
+            int index = lane.get(i);
+            PositionUpdate positionUpdate = positionUpdates.get(index);
+            try {
+                MDC.put(CorrelationIdFilter.CORRELATION_ID_MDC_KEY, positionUpdate.correlationId());
+                if (superseded != null && superseded[index]) {
+                    riskEvaluationService.evaluateTradeScoped(positionUpdate);
+                } else {
+                    riskEvaluationService.evaluatePosition(positionUpdate);
+                }
+            } catch (Exception e) {
+                log.error("Failed to evaluate risk for position, deferring account: positionId={}, accountCode={}, " +
+                    "deferred={}", positionUpdate.positionId(), positionUpdate.accountCode(), lane.size() - i, e);
+                return i;
+            } finally {
+                MDC.remove(CorrelationIdFilter.CORRELATION_ID_MDC_KEY);
+            }
+        }
+        return lane.size();
+    }
+
+    private static void defer(BitSet deferred, List<Integer> lane, int firstFailed) {
+        for (int i = firstFailed; i < lane.size(); i++) {
+            deferred.set(lane.get(i));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,250 @@
+package com.tms.risk.service;
+
+import com.tms.risk.entity.RiskAlert;
+import com.tms.risk.event.AlertStateChange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fans alert state changes out to Server-Sent Event subscribers. Every change gets a sequence
+ * number and is kept in a fixed-size replay ring, so a reconnecting client resumes after its
+ * Last-Event-ID. Each subscriber has a bounded queue drained by its own virtual thread; a
+ * subscriber that falls behind is either disconnected (and resumes from the ring) or has its
+ * oldest queued events dropped, per {@code risk.alert-stream.drop-policy}.
+ */
+@Component
+@Slf4j
+public class AlertStreamBroadcaster {
+
+    public enum DropPolicy {
+        DISCONNECT, DROP_OLDEST
+    }
+
+    private static final String EVENT_NAME = "alert";
+    private static final Sequenced CLOSE = new Sequenced(-1, null);
+    private static final Sequenced RESET = new Sequenced(-2, null);
+
+    private final Sequenced[] replay;
+    private final int subscriberBuffer;
+    private final DropPolicy dropPolicy;
+    private final int maxSubscribers;
+    private final long timeoutMs;
+    private final long heartbeatIntervalMs;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter overflows;
+
+    // Guards lastSequence, the ring and queue inserts, so a resume never misses or repeats a change
+    private final ReentrantLock publishLock = new ReentrantLock();
+    // Seeded from the clock so ids from a previous run fall outside the ring and trigger a reset
+    private final long firstSequence = System.currentTimeMillis() * 1000 + 1;
+    private long lastSequence = firstSequence - 1;
+
+    public AlertStreamBroadcaster(@Value("${risk.alert-stream.replay-capacity:10000}") int replayCapacity,
+                                  @Value("${risk.alert-stream.subscriber-buffer:1000}") int subscriberBuffer,
+                                  @Value("${risk.alert-stream.drop-policy:DISCONNECT}") DropPolicy dropPolicy,
+                                  @Value("${risk.alert-stream.max-subscribers:256}") int maxSubscribers,
+                                  @Value("${risk.alert-stream.timeout-ms:1800000}") long timeoutMs,
+                                  @Value("${risk.alert-stream.heartbeat-interval-ms:15000}") long heartbeatIntervalMs,
+                                  MeterRegistry meterRegistry) {
+        this.replay = new Sequenced[replayCapacity];
+        this.subscriberBuffer = subscriberBuffer;
+        this.dropPolicy = dropPolicy;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMs = timeoutMs;
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+
+        this.overflows = Counter.builder("risk.alerts.stream.overflows")
+            .description("Times a slow alert stream subscriber overflowed its buffer")
+            .tag("policy", dropPolicy.name())
+            .register(meterRegistry);
+        Gauge.builder("risk.alerts.stream.subscribers", subscribers, Set::size)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream of changes matching {@code filter}. With {@code lastEventId}, changes after
+     * it that are still in the ring are sent first; if it is older than the ring, a {@code reset}
+     * event tells the client to reload current alerts from {@code /alerts}.
+     */
+    public SseEmitter subscribe(Filter filter, Long lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            // 503 so clients back off and reconnect rather than treat it as a server fault
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Alert stream subscriber limit reached: " + maxSubscribers);
+        }
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeoutMs), filter,
+            new ArrayBlockingQueue<>(subscriberBuffer));
+
+        publishLock.lock();
+        try {
+            subscribers.add(subscriber);
+            if (lastEventId != null) {
+                replayAfter(subscriber, lastEventId);
+            }
+        } finally {
+            publishLock.unlock();
+        }
+
+        subscriber.emitter.onCompletion(() -> close(subscriber));
+        subscriber.emitter.onTimeout(() -> close(subscriber));
+        subscriber.emitter.onError(e -> close(subscriber));
+        executor.execute(() -> drain(subscriber));
+        log.info("Alert stream subscribed: filter={}, lastEventId={}, subscribers={}",
+            filter, lastEventId, subscribers.size());
+        return subscriber.emitter;
+    }
+
+    /**
+     * Changes made inside a transaction are only pushed once it commits.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAlertStateChange(AlertStateChange change) {
+        publishLock.lock();
+        try {
+            Sequenced entry = new Sequenced(++lastSequence, change);
+            replay[slot(entry.sequence())] = entry;
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.filter.matches(change)) {
+                    enqueue(subscriber, entry);
+                }
+            }
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    private void replayAfter(Subscriber subscriber, long lastEventId) {
+        long oldest = Math.max(lastSequence - replay.length + 1, firstSequence);
+        if (lastEventId > lastSequence || lastEventId < oldest - 1) {
+            enqueue(subscriber, RESET);
+            return;
+        }
+        for (long sequence = lastEventId + 1; sequence <= lastSequence; sequence++) {
+            Sequenced entry = replay[slot(sequence)];
+            if (subscriber.filter.matches(entry.change())) {
+                enqueue(subscriber, entry);
+            }
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, Sequenced entry) {
+        if (subscriber.queue.offer(entry)) {
+            return;
+        }
+        overflows.increment();
+        if (dropPolicy == DropPolicy.DROP_OLDEST) {
+            subscriber.queue.poll();
+            subscriber.dropped.incrementAndGet();
+            subscriber.queue.offer(entry);
+            return;
+        }
+        // The client reconnects with the id of the last event it received and resumes from the ring
+        log.warn("Disconnecting slow alert stream subscriber: filter={}, buffered={}",
+            subscriber.filter, subscriber.queue.size());
+        subscribers.remove(subscriber);
+        subscriber.queue.clear();
+        subscriber.queue.offer(CLOSE);
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            while (!subscriber.closed) {
+                Sequenced entry = subscriber.queue.poll(heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+                if (entry == null) {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                    continue;
+                }
+                if (entry == CLOSE) {
+                    subscriber.emitter.complete();
+                    return;
+                }
+                long dropped = subscriber.dropped.getAndSet(0);
+                if (dropped > 0) {
+                    subscriber.emitter.send(SseEmitter.event().name("dropped").data(dropped));
+                }
+                if (entry == RESET) {
+                    subscriber.emitter.send(SseEmitter.event().name("reset").data("resume point expired"));
+                    continue;
+                }
+                subscriber.emitter.send(SseEmitter.event()
+                    .id(Long.toString(entry.sequence()))
+                    .name(EVENT_NAME)
+                    .data(entry.change()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Alert stream subscriber went away: {}", e.getMessage());
+        } finally {
+            close(subscriber);
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        subscriber.closed = true;
+        if (subscribers.remove(subscriber)) {
+            log.info("Alert stream closed: filter={}, subscribers={}", subscriber.filter, subscribers.size());
+        }
+    }
+
+    private int slot(long sequence) {
+        return (int) Math.floorMod(sequence, (long) replay.length);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        executor.shutdownNow();
+    }
+
+    /**
+     * Subscriber filter; null or empty fields match everything.
+     */
+    public record Filter(Set<RiskAlert.Severity> severities, String accountCode,
+                         Set<AlertStateChange.Type> types) {
+
+        boolean matches(AlertStateChange change) {
+            return (severities == null || severities.isEmpty() || severities.contains(change.severity()))
+                && (accountCode == null || accountCode.equals(change.accountCode()))
+                && (types == null || types.isEmpty() || types.contains(change.type()));
+        }
+    }
+
+    private record Sequenced(long sequence, AlertStateChange change) {
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Filter filter;
+        private final BlockingQueue<Sequenced> queue;
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, Filter filter, BlockingQueue<Sequenced> queue) {
+            this.emitter = emitter;
+            this.filter = filter;
+            this.queue = queue;
+        }
+    }
+}
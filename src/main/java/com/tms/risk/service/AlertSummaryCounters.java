@@ -0,0 +1,255 @@
+package com.tms.risk.service;
+
+import com.tms.risk.entity.RiskAlert;
+import com.tms.risk.event.AlertStateChange;
+import com.tms.risk.repository.RiskAlertRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Open-alert counts for dashboards, kept current from {@link AlertStateChange} events instead of
+ * COUNT queries. Open alerts are the acknowledgement backlog; acknowledged alerts are counted
+ * until they are resolved. The counts are periodically rebuilt from the database, which also
+ * picks up changes made by replicas this instance does not hear from.
+ */
+@Component
+@Slf4j
+public class AlertSummaryCounters {
+
+    private static final String UNKNOWN_LIMIT_TYPE = "UNKNOWN";
+
+    private final RiskAlertRepository riskAlertRepository;
+    private final RiskLimitIndex riskLimitIndex;
+    private final RiskAlertWriteBehind riskAlertWriteBehind;
+    private final Counter drift;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Guarded by lock
+    private Counts counts = new Counts();
+    // Changes seen while a reconcile is reading the database, replayed on top of its result
+    private List<AlertStateChange> duringReconcile;
+    private LocalDateTime reconciledAt;
+    // Rebuilt on the first read after a change, so repeated reads copy nothing
+    private volatile Summary summary;
+
+    public AlertSummaryCounters(RiskAlertRepository riskAlertRepository,
+                                RiskLimitIndex riskLimitIndex,
+                                RiskAlertWriteBehind riskAlertWriteBehind,
+                                MeterRegistry meterRegistry) {
+        this.riskAlertRepository = riskAlertRepository;
+        this.riskLimitIndex = riskLimitIndex;
+        this.riskAlertWriteBehind = riskAlertWriteBehind;
+        this.drift = Counter.builder("risk.alerts.summary.drift")
+            .description("Alerts whose summary counts disagreed with the database at reconciliation")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Changes made inside a transaction are counted once it commits.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAlertStateChange(AlertStateChange change) {
+        apply(change);
+    }
+
+    /**
+     * Applies a change; repeated or out-of-date changes are ignored, so replays are harmless.
+     */
+    public void apply(AlertStateChange change) {
+        lock.lock();
+        try {
+            if (counts.apply(change, limitTypeOf(change.limitId()))) {
+                summary = null;
+            }
+            if (duringReconcile != null) {
+                duringReconcile.add(change);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Summary summary() {
+        Summary current = summary;
+        if (current != null) {
+            return current;
+        }
+        lock.lock();
+        try {
+            if (summary == null) {
+                summary = counts.toSummary(reconciledAt);
+            }
+            return summary;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PostConstruct
+    @Scheduled(initialDelayString = "${risk.alert-summary.reconcile-interval-ms:60000}",
+               fixedDelayString = "${risk.alert-summary.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        lock.lock();
+        try {
+            duringReconcile = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+
+        Counts rebuilt = new Counts();
+        try {
+            // Alerts raised here but still buffered would otherwise be missing from the read
+            riskAlertWriteBehind.awaitDurable();
+            for (RiskAlert alert : riskAlertRepository.findUnresolvedAlerts()) {
+                rebuilt.add(alert, limitTypeOf(alert.getLimitId()));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Alert summary reconciliation failed, keeping current counts: {}", e.getMessage());
+            lock.lock();
+            try {
+                duringReconcile = null;
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+
+        lock.lock();
+        try {
+            for (AlertStateChange change : duringReconcile) {
+                rebuilt.apply(change, limitTypeOf(change.limitId()));
+            }
+            long mismatched = counts.mismatches(rebuilt);
+            if (mismatched > 0) {
+                drift.increment(mismatched);
+                log.warn("Alert summary drifted from the database and was rebuilt: mismatched={}", mismatched);
+            }
+            counts = rebuilt;
+            duringReconcile = null;
+            reconciledAt = LocalDateTime.now();
+            summary = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String limitTypeOf(Long limitId) {
+        if (limitId == null) {
+            return UNKNOWN_LIMIT_TYPE;
+        }
+        return riskLimitIndex.findById(limitId)
+            .map(limit -> limit.getLimitType().name())
+            .orElse(UNKNOWN_LIMIT_TYPE);
+    }
+
+    public record Summary(long open,
+                          long acknowledged,
+                          Map<String, Long> openBySeverity,
+                          Map<String, Long> openByAccount,
+                          Map<String, Long> openByLimitType,
+                          LocalDateTime reconciledAt) {
+    }
+
+    private record Tracked(String severity, String accountCode, String limitType, boolean acknowledged) {
+    }
+
+    /**
+     * Unresolved alerts by id plus their running totals. Not thread-safe; callers hold the lock.
+     */
+    private static final class Counts {
+        private final Map<Long, Tracked> unresolved = new HashMap<>();
+        private final Map<String, Long> openBySeverity = new HashMap<>();
+        private final Map<String, Long> openByAccount = new HashMap<>();
+        private final Map<String, Long> openByLimitType = new HashMap<>();
+        private long open;
+        private long acknowledged;
+
+        void add(RiskAlert alert, String limitType) {
+            Tracked tracked = new Tracked(alert.getSeverity().name(), alert.getAccountCode(), limitType,
+                alert.getStatus() == RiskAlert.AlertStatus.ACKNOWLEDGED);
+            unresolved.put(alert.getAlertId(), tracked);
+            count(tracked, 1);
+        }
+
+        boolean apply(AlertStateChange change, String limitType) {
+            Tracked tracked = unresolved.get(change.alertId());
+            switch (change.type()) {
+                case CREATED -> {
+                    if (tracked != null) {
+                        return false;
+                    }
+                    tracked = new Tracked(change.severity().name(), change.accountCode(), limitType, false);
+                    unresolved.put(change.alertId(), tracked);
+                    count(tracked, 1);
+                }
+                case ACKNOWLEDGED -> {
+                    if (tracked == null || tracked.acknowledged()) {
+                        return false;
+                    }
+                    count(tracked, -1);
+                    tracked = new Tracked(tracked.severity(), tracked.accountCode(), tracked.limitType(), true);
+                    unresolved.put(change.alertId(), tracked);
+                    count(tracked, 1);
+                }
+                case RESOLVED -> {
+                    if (tracked == null) {
+                        return false;
+                    }
+                    unresolved.remove(change.alertId());
+                    count(tracked, -1);
+                }
+            }
+            return true;
+        }
+
+        long mismatches(Counts other) {
+            long mismatched = 0;
+            for (Map.Entry<Long, Tracked> entry : unresolved.entrySet()) {
+                if (!entry.getValue().equals(other.unresolved.get(entry.getKey()))) {
+                    mismatched++;
+                }
+            }
+            for (Long alertId : other.unresolved.keySet()) {
+                if (!unresolved.containsKey(alertId)) {
+                    mismatched++;
+                }
+            }
+            return mismatched;
+        }
+
+        Summary toSummary(LocalDateTime reconciledAt) {
+            return new Summary(open, acknowledged, Map.copyOf(openBySeverity), Map.copyOf(openByAccount),
+                Map.copyOf(openByLimitType), reconciledAt);
+        }
+
+        private void count(Tracked tracked, long delta) {
+            if (tracked.acknowledged()) {
+                acknowledged += delta;
+                return;
+            }
+            open += delta;
+            adjust(openBySeverity, tracked.severity(), delta);
+            if (tracked.accountCode() != null) {
+                adjust(openByAccount, tracked.accountCode(), delta);
+            }
+            adjust(openByLimitType, tracked.limitType(), delta);
+        }
+
+        private static void adjust(Map<String, Long> counts, String key, long delta) {
+            // Returning null from the merge drops keys that reach zero
+            counts.merge(key, delta, (current, change) -> current + change == 0 ? null : current + change);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.tms.risk.service;
+
+import com.tms.risk.entity.SecuritySector;
+import com.tms.risk.event.PositionUpdate;
+import com.tms.risk.repository.SecuritySectorRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-account gross exposure by symbol and by sector, kept current from the position deltas
+ * produced by {@link AccountExposureAggregator}. Symbol-to-sector mappings come from the
+ * {@code security_sector} reference table; when they change, sector sums are rebuilt from the
+ * symbol sums under a write lock so no delta is applied against a stale mapping.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConcentrationEngine {
+
+    private final SecuritySectorRepository securitySectorRepository;
+
+    private final Map<String, Map<String, AtomicLong>> symbolExposure = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, AtomicLong>> sectorExposure = new ConcurrentHashMap<>();
+    private final ReadWriteLock sectorLock = new ReentrantReadWriteLock();
+
+    private volatile Map<String, String> sectorBySymbol = Map.of();
+
+    @PostConstruct
+    public void load() {
+        reloadSectors();
+    }
+
+    @Scheduled(initialDelayString = "${risk.sector-reference.refresh-interval-ms:900000}",
+               fixedDelayString = "${risk.sector-reference.refresh-interval-ms:900000}")
+    public void reloadSectors() {
+        Map<String, String> mapping = new HashMap<>();
+        for (SecuritySector securitySector : securitySectorRepository.findAll()) {
+            mapping.put(securitySector.getSymbol(), securitySector.getSector());
+        }
+        if (mapping.equals(sectorBySymbol)) {
+            return;
+        }
+
+        sectorLock.writeLock().lock();
+        try {
+            sectorBySymbol = Map.copyOf(mapping);
+            sectorExposure.clear();
+            symbolExposure.forEach((accountCode, symbols) -> symbols.forEach((symbol, exposure) -> {
+                String sector = sectorBySymbol.get(symbol);
+                if (sector != null) {
+                    counter(sectorExposure, accountCode, sector).addAndGet(exposure.get());
+                }
+            }));
+        } finally {
+            sectorLock.writeLock().unlock();
+        }
+        log.info("Security sector reference data loaded: {} symbols", mapping.size());
+    }
+
+    /**
+     * Moves the position's exposure from its previous state to the state in {@code update}.
+     */
+    public void apply(AccountExposureAggregator.PositionExposure previous, PositionUpdate update) {
+        String accountCode = keyOf(update.accountCode());
+        long next = Math.abs(update.costBasis());
+
+        sectorLock.readLock().lock();
+        try {
+            if (previous == null) {
+                add(accountCode, update.symbol(), next);
+            } else if (previous.accountCode().equals(accountCode) && Objects.equals(previous.symbol(), update.symbol())) {
+                long delta = next - Math.abs(previous.costBasis());
+                if (delta != 0) {
+                    add(accountCode, update.symbol(), delta);
+                }
+            } else {
+                add(previous.accountCode(), previous.symbol(), -Math.abs(previous.costBasis()));
+                add(accountCode, update.symbol(), next);
+            }
+        } finally {
+            sectorLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Takes a position that is no longer tracked out of the sums.
+     */
+    public void remove(AccountExposureAggregator.PositionExposure previous) {
+        sectorLock.readLock().lock();
+        try {
+            add(previous.accountCode(), previous.symbol(), -Math.abs(previous.costBasis()));
+        } finally {
+            sectorLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuilds all sums from restored position states. Only safe before any update is applied.
+     */
+    public void restore(Collection<AccountExposureAggregator.PositionExposure> positions) {
+        sectorLock.writeLock().lock();
+        try {
+            symbolExposure.clear();
+            sectorExposure.clear();
+            for (AccountExposureAggregator.PositionExposure position : positions) {
+                add(position.accountCode(), position.symbol(), Math.abs(position.costBasis()));
+            }
+        } finally {
+            sectorLock.writeLock().unlock();
+        }
+    }
+
+    public long symbolExposure(String accountCode, String symbol) {
+        return value(symbolExposure, keyOf(accountCode), symbol);
+    }
+
+    public long sectorExposure(String accountCode, String sector) {
+        return value(sectorExposure, keyOf(accountCode), sector);
+    }
+
+    /**
+     * Gross exposure of the account to the sector {@code symbol} belongs to, or zero if the
+     * symbol has no sector mapping.
+     */
+    public long sectorExposureForSymbol(String accountCode, String symbol) {
+        String sector = sectorOf(symbol);
+        return sector != null ? sectorExposure(accountCode, sector) : 0L;
+    }
+
+    /**
+     * Share of the account's gross exposure held in {@code symbol}, as a fixed-point percentage.
+     */
+    public long concentration(String accountCode, String symbol, long accountExposure) {
+        return FixedPoint.percentOf(symbolExposure(accountCode, symbol), accountExposure);
+    }
+
+    public String sectorOf(String symbol) {
+        return symbol != null ? sectorBySymbol.get(symbol) : null;
+    }
+
+    private void add(String accountCode, String symbol, long delta) {
+        if (symbol == null) {
+            return;
+        }
+        counter(symbolExposure, accountCode, symbol).addAndGet(delta);
+        String sector = sectorBySymbol.get(symbol);
+        if (sector != null) {
+            counter(sectorExposure, accountCode, sector).addAndGet(delta);
+        }
+    }
+
+    private static AtomicLong counter(Map<String, Map<String, AtomicLong>> exposures, String accountCode, String key) {
+        return exposures.computeIfAbsent(accountCode, k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(key, k -> new AtomicLong());
+    }
+
+    private static long value(Map<String, Map<String, AtomicLong>> exposures, String accountCode, String key) {
+        if (key == null) {
+            return 0L;
+        }
+        Map<String, AtomicLong> byKey = exposures.get(accountCode);
+        AtomicLong exposure = byKey != null ? byKey.get(key) : null;
+        return exposure != null ? exposure.get() : 0L;
+    }
+
+    private static String keyOf(String accountCode) {
+        return accountCode != null ? accountCode : "";
+    }
+}
@@ -0,0 +1,61 @@
+package com.tms.risk.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Per-partition high-water marks in risk_consumer_offset. Written by {@link RiskAlertWriteBehind}
+ * in the same transaction as the alerts, so a mark never runs ahead of the alerts it covers.
+ */
+@Component
+public class ConsumerOffsetStore {
+
+    private static final String FIND_SQL =
+        "SELECT high_water_offset FROM risk_consumer_offset " +
+        "WHERE consumer_group = ? AND topic = ? AND partition_id = ?";
+
+    private static final String MERGE_SQL =
+        "MERGE risk_consumer_offset WITH (HOLDLOCK) AS t " +
+        "USING (VALUES (?, ?, ?, ?)) AS s (consumer_group, topic, partition_id, high_water_offset) " +
+        "ON t.consumer_group = s.consumer_group AND t.topic = s.topic AND t.partition_id = s.partition_id " +
+        "WHEN MATCHED AND s.high_water_offset > t.high_water_offset THEN " +
+        "UPDATE SET high_water_offset = s.high_water_offset, updated_at = GETDATE() " +
+        "WHEN NOT MATCHED THEN INSERT (consumer_group, topic, partition_id, high_water_offset) " +
+        "VALUES (s.consumer_group, s.topic, s.partition_id, s.high_water_offset);";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String consumerGroup;
+
+    public ConsumerOffsetStore(JdbcTemplate jdbcTemplate,
+                               @Value("${spring.kafka.consumer.group-id}") String consumerGroup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.consumerGroup = consumerGroup;
+    }
+
+    public Optional<Long> find(String topic, int partition) {
+        List<Long> offsets = jdbcTemplate.queryForList(FIND_SQL, Long.class, consumerGroup, topic, partition);
+        return offsets.isEmpty() ? Optional.empty() : Optional.of(offsets.get(0));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void write(Map<Partition, Long> highWaterMarks) {
+        if (highWaterMarks.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(highWaterMarks.size());
+        highWaterMarks.forEach((partition, offset) ->
+            rows.add(new Object[] {consumerGroup, partition.topic(), partition.partition(), offset}));
+        jdbcTemplate.batchUpdate(MERGE_SQL, rows);
+    }
+
+    public record Partition(String topic, int partition) {
+    }
+}
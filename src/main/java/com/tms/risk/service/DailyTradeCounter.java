@@ -0,0 +1,256 @@
+package com.tms.risk.service;
+
+import com.tms.risk.event.PositionUpdate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free per-account (and optionally per-account+symbol) trade counters for the current
+ * trading day, driven by {@code triggeringTradeId}. A trading day starts at the configured
+ * rollover time in the configured zone; all counters are dropped at rollover. Trade IDs are
+ * de-duplicated through a fixed-size fingerprint set, so replayed events are not counted twice
+ * and memory stays bounded regardless of volume.
+ */
+@Component
+@Slf4j
+public class DailyTradeCounter {
+
+    private final ZoneId zone;
+    private final LocalTime rolloverTime;
+    private final boolean perSymbol;
+    private final int maxTrackedTrades;
+
+    private final AtomicReference<TradingDay> currentDay = new AtomicReference<>();
+
+    public DailyTradeCounter(@Value("${risk.daily-trades.zone:UTC}") String zone,
+                             @Value("${risk.daily-trades.rollover-time:00:00}") String rolloverTime,
+                             @Value("${risk.daily-trades.per-symbol:false}") boolean perSymbol,
+                             @Value("${risk.daily-trades.max-tracked-trades:1000000}") int maxTrackedTrades) {
+        this.zone = ZoneId.of(zone);
+        this.rolloverTime = LocalTime.parse(rolloverTime);
+        this.perSymbol = perSymbol;
+        this.maxTrackedTrades = maxTrackedTrades;
+    }
+
+    /**
+     * Counts the update's trade once for the trading day it belongs to. Updates without a trade
+     * ID, and late updates from a previous trading day, are not counted. Event times ahead of the
+     * wall clock count toward the current day, so a skewed producer cannot roll the day forward
+     * and leave every real trade looking late.
+     */
+    public void record(PositionUpdate update) {
+        if (update.triggeringTradeId() == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long eventTime = update.eventTime() > 0 ? Math.min(update.eventTime(), now) : now;
+        TradingDay day = dayFor(eventTime);
+        if (day == null || !day.tradeIds().add(fingerprint(update.triggeringTradeId()))) {
+            return;
+        }
+
+        String accountCode = keyOf(update.accountCode());
+        day.byAccount().computeIfAbsent(accountCode, k -> new AtomicInteger()).incrementAndGet();
+        if (perSymbol && update.symbol() != null) {
+            day.byAccountAndSymbol().computeIfAbsent(accountCode, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(update.symbol(), k -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    public int accountTrades(String accountCode) {
+        TradingDay day = today();
+        if (day == null) {
+            return 0;
+        }
+        AtomicInteger count = day.byAccount().get(keyOf(accountCode));
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * Trades for the account in the symbol, or the account total when per-symbol counting is off.
+     */
+    public int symbolTrades(String accountCode, String symbol) {
+        if (!perSymbol || symbol == null) {
+            return accountTrades(accountCode);
+        }
+        TradingDay day = today();
+        if (day == null) {
+            return 0;
+        }
+        Map<String, AtomicInteger> bySymbol = day.byAccountAndSymbol().get(keyOf(accountCode));
+        AtomicInteger count = bySymbol != null ? bySymbol.get(symbol) : null;
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * Copy of the current trading day's counters, or null before the first trade.
+     */
+    public Snapshot snapshot() {
+        TradingDay day = currentDay.get();
+        if (day == null) {
+            return null;
+        }
+        Map<String, Integer> byAccount = new HashMap<>();
+        day.byAccount().forEach((accountCode, count) -> byAccount.put(accountCode, count.get()));
+        Map<String, Map<String, Integer>> byAccountAndSymbol = new HashMap<>();
+        day.byAccountAndSymbol().forEach((accountCode, symbols) -> {
+            Map<String, Integer> bySymbol = new HashMap<>();
+            symbols.forEach((symbol, count) -> bySymbol.put(symbol, count.get()));
+            byAccountAndSymbol.put(accountCode, bySymbol);
+        });
+        return new Snapshot(day.tradingDate(), byAccount, byAccountAndSymbol, day.tradeIds().toArray());
+    }
+
+    /**
+     * Restores counters saved during the current trading day; a snapshot from an earlier day is
+     * ignored. Only safe before any update is recorded.
+     */
+    public boolean restore(Snapshot snapshot) {
+        TradingDay day = newTradingDay(System.currentTimeMillis());
+        if (!day.tradingDate().equals(snapshot.tradingDate())) {
+            return false;
+        }
+        snapshot.byAccount().forEach((accountCode, count) -> day.byAccount().put(accountCode, new AtomicInteger(count)));
+        snapshot.byAccountAndSymbol().forEach((accountCode, symbols) -> {
+            Map<String, AtomicInteger> bySymbol = new ConcurrentHashMap<>();
+            symbols.forEach((symbol, count) -> bySymbol.put(symbol, new AtomicInteger(count)));
+            day.byAccountAndSymbol().put(accountCode, bySymbol);
+        });
+        for (long tradeId : snapshot.tradeIds()) {
+            day.tradeIds().add(tradeId);
+        }
+        currentDay.set(day);
+        return true;
+    }
+
+    private TradingDay today() {
+        TradingDay day = currentDay.get();
+        long now = System.currentTimeMillis();
+        return day != null && now >= day.startMillis() && now < day.endMillis() ? day : dayFor(now);
+    }
+
+    private TradingDay dayFor(long epochMillis) {
+        while (true) {
+            TradingDay day = currentDay.get();
+            if (day != null && epochMillis >= day.startMillis()) {
+                if (epochMillis < day.endMillis()) {
+                    return day;
+                }
+            } else if (day != null) {
+                return null;
+            }
+            TradingDay next = newTradingDay(epochMillis);
+            if (currentDay.compareAndSet(day, next)) {
+                log.info("Daily trade counters rolled over: tradingDate={}, zone={}", next.tradingDate(), zone);
+                return next;
+            }
+        }
+    }
+
+    private TradingDay newTradingDay(long epochMillis) {
+        LocalDate date = Instant.ofEpochMilli(epochMillis).atZone(zone).minusNanos(rolloverTime.toNanoOfDay())
+            .toLocalDate();
+        long start = date.atTime(rolloverTime).atZone(zone).toInstant().toEpochMilli();
+        long end = date.plusDays(1).atTime(rolloverTime).atZone(zone).toInstant().toEpochMilli();
+        return new TradingDay(date, start, end, new ConcurrentHashMap<>(), new ConcurrentHashMap<>(),
+            new FingerprintSet(maxTrackedTrades));
+    }
+
+    // 64-bit FNV-1a; collisions are negligible at daily trade volumes
+    private static long fingerprint(String tradeId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < tradeId.length(); i++) {
+            hash ^= tradeId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash != 0 ? hash : 1;
+    }
+
+    private static String keyOf(String accountCode) {
+        return accountCode != null ? accountCode : "";
+    }
+
+    public record Snapshot(LocalDate tradingDate,
+                           Map<String, Integer> byAccount,
+                           Map<String, Map<String, Integer>> byAccountAndSymbol,
+                           long[] tradeIds) {
+    }
+
+    private record TradingDay(LocalDate tradingDate, long startMillis, long endMillis,
+                              Map<String, AtomicInteger> byAccount,
+                              Map<String, Map<String, AtomicInteger>> byAccountAndSymbol,
+                              FingerprintSet tradeIds) {
+    }
+
+    /**
+     * Open-addressing set of non-zero longs built on CAS. Once {@code maxSize} entries are held
+     * it stops tracking and admits every trade, trading replay protection for bounded memory.
+     */
+    private static final class FingerprintSet {
+
+        private final AtomicLongArray slots;
+        private final int mask;
+        private final int maxSize;
+        private final AtomicInteger size = new AtomicInteger();
+        private volatile boolean saturated;
+
+        FingerprintSet(int maxSize) {
+            int capacity = Integer.highestOneBit(Math.max(maxSize, 1) * 2 - 1) << 1;
+            this.slots = new AtomicLongArray(capacity);
+            this.mask = capacity - 1;
+            this.maxSize = maxSize;
+        }
+
+        long[] toArray() {
+            long[] fingerprints = new long[size.get()];
+            int count = 0;
+            for (int i = 0; i < slots.length() && count < fingerprints.length; i++) {
+                long fingerprint = slots.get(i);
+                if (fingerprint != 0) {
+                    fingerprints[count++] = fingerprint;
+                }
+            }
+            return count == fingerprints.length ? fingerprints : Arrays.copyOf(fingerprints, count);
+        }
+
+        /** Returns false if the fingerprint was already present. */
+        boolean add(long fingerprint) {
+            int index = (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+            while (true) {
+                long current = slots.get(index);
+                if (current == fingerprint) {
+                    return false;
+                }
+                if (current == 0) {
+                    if (size.get() >= maxSize) {
+                        if (!saturated) {
+                            saturated = true;
+                            log.warn("Daily trade ID tracking is full ({} trades); replays may be double counted",
+                                maxSize);
+                        }
+                        return true;
+                    }
+                    if (slots.compareAndSet(index, 0, fingerprint)) {
+                        size.incrementAndGet();
+                        return true;
+                    }
+                    continue;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.tms.risk.service;
+
+import com.tms.risk.event.PositionUpdate;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Periodically writes the in-memory evaluation state (position exposures, from which account and
+ * concentration sums are rebuilt, and the day's trade counters) to a local binary file together
+ * with the last applied offset of every consumed partition. On startup the file is restored and
+ * each covered partition is rewound to just after its snapshot offset; records up to the
+ * previously committed position are applied to state only, since their alerts already exist.
+ * Each position is saved with the partition its latest event came from. Partitions that are not
+ * assigned back to this instance within {@code unassigned-timeout-ms} of the restore belong to
+ * another consumer now, so their positions are dropped instead of lingering as stale exposure.
+ */
+@Component
+@Slf4j
+public class EvaluationStateSnapshots {
+
+    private static final int MAGIC = 0x52534e50;
+    private static final int VERSION = 3;
+
+    private final boolean enabled;
+    private final Path path;
+    private final long unassignedTimeoutMs;
+    private final AccountExposureAggregator accountExposureAggregator;
+    private final ConcentrationEngine concentrationEngine;
+    private final DailyTradeCounter dailyTradeCounter;
+
+    // Consumers apply records under the read lock; a snapshot copies state under the write lock
+    private final ReentrantReadWriteLock applyLock = new ReentrantReadWriteLock();
+    private final Map<ConsumerOffsetStore.Partition, Long> appliedOffsets = new ConcurrentHashMap<>();
+    private final Map<ConsumerOffsetStore.Partition, Long> restoredOffsets = new ConcurrentHashMap<>();
+    // Exclusive end of the rewound range whose records are applied to state only
+    private final Map<ConsumerOffsetStore.Partition, Long> catchUpEnds = new ConcurrentHashMap<>();
+    // Partition of the latest applied event per positionId
+    private final Map<String, ConsumerOffsetStore.Partition> positionPartitions = new ConcurrentHashMap<>();
+    private volatile long restoredAt;
+
+    public EvaluationStateSnapshots(@Value("${risk.snapshot.enabled:false}") boolean enabled,
+                                    @Value("${risk.snapshot.path:data/risk-state.snapshot}") String path,
+                                    @Value("${risk.snapshot.unassigned-timeout-ms:120000}") long unassignedTimeoutMs,
+                                    AccountExposureAggregator accountExposureAggregator,
+                                    ConcentrationEngine concentrationEngine,
+                                    DailyTradeCounter dailyTradeCounter) {
+        this.enabled = enabled;
+        this.path = Path.of(path);
+        this.unassignedTimeoutMs = unassignedTimeoutMs;
+        this.accountExposureAggregator = accountExposureAggregator;
+        this.concentrationEngine = concentrationEngine;
+        this.dailyTradeCounter = dailyTradeCounter;
+    }
+
+    /**
+     * Held by consumers while they apply records and record offsets, so a snapshot never sees
+     * state and offsets from different points in the stream.
+     */
+    public Lock applyLock() {
+        return applyLock.readLock();
+    }
+
+    public boolean isCatchUp(ConsumerRecord<?, ?> record) {
+        if (catchUpEnds.isEmpty()) {
+            return false;
+        }
+        Long end = catchUpEnds.get(new ConsumerOffsetStore.Partition(record.topic(), record.partition()));
+        return end != null && record.offset() < end;
+    }
+
+    public void markApplied(ConsumerRecord<?, ?> record) {
+        if (enabled) {
+            ConsumerOffsetStore.Partition partition = new ConsumerOffsetStore.Partition(record.topic(), record.partition());
+            appliedOffsets.merge(partition, record.offset(), Math::max);
+            if (record.value() instanceof PositionUpdate update) {
+                positionPartitions.put(update.positionId(), partition);
+            }
+        }
+    }
+
+    /**
+     * Rewinds partitions covered by the restored snapshot to replay only the tail. Each partition
+     * is rewound at most once, on its first assignment after startup.
+     */
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        if (restoredOffsets.isEmpty()) {
+            return;
+        }
+        assignments.forEach((topicPartition, position) -> {
+            ConsumerOffsetStore.Partition partition =
+                new ConsumerOffsetStore.Partition(topicPartition.topic(), topicPartition.partition());
+            Long snapshotOffset = restoredOffsets.remove(partition);
+            if (snapshotOffset == null || position == null || snapshotOffset + 1 >= position) {
+                return;
+            }
+            catchUpEnds.put(partition, position);
+            callback.seek(partition.topic(), partition.partition(), snapshotOffset + 1);
+            log.info("Replaying snapshot tail: topic={}, partition={}, from={}, committed={}",
+                partition.topic(), partition.partition(), snapshotOffset + 1, position);
+        });
+    }
+
+    @PostConstruct
+    public void restore() {
+        if (!enabled || !Files.exists(path)) {
+            return;
+        }
+        long started = System.nanoTime();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                log.warn("Ignoring state snapshot with unknown format: path={}", path);
+                return;
+            }
+            long createdAt = in.readLong();
+
+            // Insertion-ordered: positions refer to their partition by its index in this list
+            Map<ConsumerOffsetStore.Partition, Long> offsets = new LinkedHashMap<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                offsets.put(new ConsumerOffsetStore.Partition(in.readUTF(), in.readInt()), in.readLong());
+            }
+
+            List<ConsumerOffsetStore.Partition> partitions = new ArrayList<>(offsets.keySet());
+            int positionCount = in.readInt();
+            Map<String, AccountExposureAggregator.PositionExposure> positions = new HashMap<>(positionCount * 2);
+            Map<String, ConsumerOffsetStore.Partition> sources = new HashMap<>(positionCount * 2);
+            for (int i = 0; i < positionCount; i++) {
+                String positionId = in.readUTF();
+                positions.put(positionId, new AccountExposureAggregator.PositionExposure(
+                    in.readUTF(), readNullableUTF(in), in.readLong(), in.readLong(), in.readLong()));
+                int source = in.readInt();
+                if (source >= 0) {
+                    sources.put(positionId, partitions.get(source));
+                }
+            }
+
+            DailyTradeCounter.Snapshot trades = in.readBoolean() ? readTrades(in) : null;
+
+            accountExposureAggregator.restore(positions);
+            concentrationEngine.restore(positions.values());
+            boolean tradesRestored = trades != null && dailyTradeCounter.restore(trades);
+            restoredOffsets.putAll(offsets);
+            appliedOffsets.putAll(offsets);
+            positionPartitions.putAll(sources);
+            restoredAt = System.currentTimeMillis();
+            log.info("State snapshot restored: positions={}, partitions={}, dailyTrades={}, ageMs={}, tookMs={}",
+                positionCount, offsets.size(), tradesRestored, System.currentTimeMillis() - createdAt,
+                (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to restore state snapshot, starting empty: path={}", path, e);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${risk.snapshot.interval-ms:60000}",
+               fixedDelayString = "${risk.snapshot.interval-ms:60000}")
+    public void snapshot() {
+        if (!enabled) {
+            return;
+        }
+        Map<ConsumerOffsetStore.Partition, Long> offsets;
+        Map<String, AccountExposureAggregator.PositionExposure> positions;
+        Map<String, ConsumerOffsetStore.Partition> sources;
+        DailyTradeCounter.Snapshot trades;
+        applyLock.writeLock().lock();
+        try {
+            dropUnassignedPartitions();
+            offsets = new LinkedHashMap<>(appliedOffsets);
+            positions = accountExposureAggregator.positions();
+            // Evicted positions keep no partition
+            positionPartitions.keySet().retainAll(positions.keySet());
+            sources = new HashMap<>(positionPartitions);
+            trades = dailyTradeCounter.snapshot();
+        } finally {
+            applyLock.writeLock().unlock();
+        }
+        if (offsets.isEmpty()) {
+            return;
+        }
+
+        // Serialized outside the lock; the rename makes the new file visible in one step
+        long started = System.nanoTime();
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(System.currentTimeMillis());
+                out.writeInt(offsets.size());
+                Map<ConsumerOffsetStore.Partition, Integer> partitionIndexes = new HashMap<>();
+                for (Map.Entry<ConsumerOffsetStore.Partition, Long> offset : offsets.entrySet()) {
+                    partitionIndexes.put(offset.getKey(), partitionIndexes.size());
+                    out.writeUTF(offset.getKey().topic());
+                    out.writeInt(offset.getKey().partition());
+                    out.writeLong(offset.getValue());
+                }
+                out.writeInt(positions.size());
+                for (Map.Entry<String, AccountExposureAggregator.PositionExposure> position : positions.entrySet()) {
+                    AccountExposureAggregator.PositionExposure exposure = position.getValue();
+                    out.writeUTF(position.getKey());
+                    out.writeUTF(exposure.accountCode());
+                    writeNullableUTF(out, exposure.symbol());
+                    out.writeLong(exposure.quantity());
+                    out.writeLong(exposure.costBasis());
+                    out.writeLong(exposure.eventTime());
+                    ConsumerOffsetStore.Partition source = sources.get(position.getKey());
+                    out.writeInt(source != null ? partitionIndexes.getOrDefault(source, -1) : -1);
+                }
+                out.writeBoolean(trades != null);
+                if (trades != null) {
+                    writeTrades(out, trades);
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("State snapshot written: positions={}, partitions={}, bytes={}, tookMs={}",
+                positions.size(), offsets.size(), Files.size(path), (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException e) {
+            log.warn("Failed to write state snapshot: path={}", path, e);
+        }
+    }
+
+    /**
+     * Drops restored positions whose partition was never assigned back to this instance. Those
+     * positions are updated by another consumer now and would otherwise count here for good.
+     * Called under the write lock.
+     */
+    private void dropUnassignedPartitions() {
+        if (restoredOffsets.isEmpty() || System.currentTimeMillis() - restoredAt < unassignedTimeoutMs) {
+            return;
+        }
+        Set<ConsumerOffsetStore.Partition> unassigned = new HashSet<>(restoredOffsets.keySet());
+        int dropped = 0;
+        for (Map.Entry<String, AccountExposureAggregator.PositionExposure> position
+                : accountExposureAggregator.positions().entrySet()) {
+            ConsumerOffsetStore.Partition source = positionPartitions.get(position.getKey());
+            if (source != null && unassigned.contains(source)
+                    && accountExposureAggregator.remove(position.getKey(), position.getValue())) {
+                concentrationEngine.remove(position.getValue());
+                positionPartitions.remove(position.getKey());
+                dropped++;
+            }
+        }
+        unassigned.forEach(partition -> {
+            restoredOffsets.remove(partition);
+            appliedOffsets.remove(partition);
+        });
+        log.warn("Dropped restored positions of partitions not assigned to this instance: partitions={}, positions={}",
+            unassigned, dropped);
+    }
+
+    /**
+     * Listener containers stop before beans are destroyed, so this snapshot covers everything
+     * consumed and leaves no tail to replay after a clean shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        snapshot();
+    }
+
+    private static DailyTradeCounter.Snapshot readTrades(DataInputStream in) throws IOException {
+        LocalDate tradingDate = LocalDate.ofEpochDay(in.readLong());
+        Map<String, Integer> byAccount = new HashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            byAccount.put(in.readUTF(), in.readInt());
+        }
+        Map<String, Map<String, Integer>> byAccountAndSymbol = new HashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            String accountCode = in.readUTF();
+            Map<String, Integer> bySymbol = new HashMap<>();
+            for (int j = in.readInt(); j > 0; j--) {
+                bySymbol.put(in.readUTF(), in.readInt());
+            }
+            byAccountAndSymbol.put(accountCode, bySymbol);
+        }
+        long[] tradeIds = new long[in.readInt()];
+        for (int i = 0; i < tradeIds.length; i++) {
+            tradeIds[i] = in.readLong();
+        }
+        return new DailyTradeCounter.Snapshot(tradingDate, byAccount, byAccountAndSymbol, tradeIds);
+    }
+
+    private static void writeTrades(DataOutputStream out, DailyTradeCounter.Snapshot trades) throws IOException {
+        out.writeLong(trades.tradingDate().toEpochDay());
+        out.writeInt(trades.byAccount().size());
+        for (Map.Entry<String, Integer> account : trades.byAccount().entrySet()) {
+            out.writeUTF(account.getKey());
+            out.writeInt(account.getValue());
+        }
+        out.writeInt(trades.byAccountAndSymbol().size());
+        for (Map.Entry<String, Map<String, Integer>> account : trades.byAccountAndSymbol().entrySet()) {
+            out.writeUTF(account.getKey());
+            out.writeInt(account.getValue().size());
+            for (Map.Entry<String, Integer> symbol : account.getValue().entrySet()) {
+                out.writeUTF(symbol.getKey());
+                out.writeInt(symbol.getValue());
+            }
+        }
+        out.writeInt(trades.tradeIds().length);
+        for (long tradeId : trades.tradeIds()) {
+            out.writeLong(tradeId);
+        }
+    }
+
+    private static String readNullableUTF(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeNullableUTF(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+}
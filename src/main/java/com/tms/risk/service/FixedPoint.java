@@ -0,0 +1,170 @@
+package com.tms.risk.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Scaled-long arithmetic for the DECIMAL(18,4) amounts used by limit evaluation. Amounts are
+ * held as {@code value * 10^4}; utilization is held in hundredths of a percent, matching
+ * {@code utilization_pct DECIMAL(9,2)}. Rounding is HALF_UP throughout, as in the BigDecimal code.
+ */
+public final class FixedPoint {
+
+    public static final int SCALE = 4;
+    public static final long ONE = 10_000L;
+
+    /** Largest magnitude representable in DECIMAL(18,4). */
+    public static final long MAX_VALUE = 999_999_999_999_999_999L;
+
+    /** Largest utilization, in hundredths of a percent, that fits {@code utilization_pct DECIMAL(9,2)}. */
+    public static final long MAX_RECORDED_UTILIZATION = 999_999_999L;
+
+    // Keeps 2 * |current| * 10^4 + limit inside a long on the fast utilization path
+    private static final long MAX_FAST_UTILIZATION_VALUE = 100_000_000_000_000L;
+    // Keeps 2 * part * 10^6 + whole inside a long on the fast percentOf path
+    private static final long MAX_FAST_PERCENT_PART = 3_000_000_000_000L;
+    private static final long MAX_FAST_PERCENT_WHOLE = Long.MAX_VALUE / 4;
+
+    private FixedPoint() {
+    }
+
+    public static long parse(CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * Parses a plain decimal string ({@code -123.4567}) without allocating. Digits beyond the
+     * fourth decimal place are rounded HALF_UP; exponent notation falls back to BigDecimal.
+     */
+    public static long parse(CharSequence text, int start, int end) {
+        if (start >= end) {
+            throw new NumberFormatException("Empty decimal value");
+        }
+        int i = start;
+        boolean negative = false;
+        char first = text.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+
+        long value = 0;
+        int fractionDigits = -1;
+        int roundingDigit = -1;
+        boolean anyDigit = false;
+
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                anyDigit = true;
+                int digit = c - '0';
+                if (fractionDigits < SCALE) {
+                    if (value > (MAX_VALUE - digit) / 10) {
+                        throw new NumberFormatException("Value outside DECIMAL(18,4): " + text.subSequence(start, end));
+                    }
+                    value = value * 10 + digit;
+                    if (fractionDigits >= 0) {
+                        fractionDigits++;
+                    }
+                } else if (roundingDigit < 0) {
+                    roundingDigit = digit;
+                }
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (c == 'e' || c == 'E') {
+                return of(new BigDecimal(text.subSequence(start, end).toString()));
+            } else {
+                throw new NumberFormatException("Invalid decimal value: " + text.subSequence(start, end));
+            }
+        }
+        if (!anyDigit) {
+            throw new NumberFormatException("Invalid decimal value: " + text.subSequence(start, end));
+        }
+
+        for (int scale = Math.max(fractionDigits, 0); scale < SCALE; scale++) {
+            if (value > MAX_VALUE / 10) {
+                throw new NumberFormatException("Value outside DECIMAL(18,4): " + text.subSequence(start, end));
+            }
+            value *= 10;
+        }
+        if (roundingDigit >= 5 && ++value > MAX_VALUE) {
+            throw new NumberFormatException("Value outside DECIMAL(18,4): " + text.subSequence(start, end));
+        }
+        return negative ? -value : value;
+    }
+
+    public static long of(BigDecimal value) {
+        long scaled = value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        if (Math.abs(scaled) > MAX_VALUE) {
+            throw new ArithmeticException("Value outside DECIMAL(18,4): " + value);
+        }
+        return scaled;
+    }
+
+    public static BigDecimal toBigDecimal(long value) {
+        return BigDecimal.valueOf(value, SCALE);
+    }
+
+    /**
+     * Percentage threshold in hundredths, rounded up so that {@code utilization >= threshold}
+     * gives the same answer as the BigDecimal comparison for any threshold scale.
+     */
+    public static long percentHundredths(BigDecimal percent) {
+        return percent.movePointRight(2).setScale(0, RoundingMode.CEILING).longValueExact();
+    }
+
+    /**
+     * Equivalent to {@code current.divide(limit, 4, HALF_UP).multiply(100)} expressed in
+     * hundredths of a percent.
+     */
+    public static long utilization(long current, long limit) {
+        if (limit > 0 && current <= MAX_FAST_UTILIZATION_VALUE && current >= -MAX_FAST_UTILIZATION_VALUE) {
+            long magnitude = Math.abs(current);
+            long rounded = (2 * magnitude * ONE + limit) / (2 * limit);
+            return current < 0 ? -rounded : rounded;
+        }
+        return toBigDecimal(current).divide(toBigDecimal(limit), SCALE, RoundingMode.HALF_UP)
+            .unscaledValue().longValueExact();
+    }
+
+    /**
+     * Product of two fixed-point values, rounded HALF_UP back to four decimal places.
+     */
+    public static long multiply(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        if (high == (low >> 63) && low != Long.MIN_VALUE) {
+            long magnitude = Math.abs(low);
+            long rounded = magnitude / ONE + (magnitude % ONE >= ONE / 2 ? 1 : 0);
+            return low < 0 ? -rounded : rounded;
+        }
+        return of(toBigDecimal(a).multiply(toBigDecimal(b)));
+    }
+
+    /**
+     * {@code part / whole * 100} as a fixed-point percentage, rounded HALF_UP. Both arguments
+     * must be non-negative; a zero whole yields zero.
+     */
+    public static long percentOf(long part, long whole) {
+        if (whole <= 0) {
+            return 0L;
+        }
+        if (part <= MAX_FAST_PERCENT_PART && whole <= MAX_FAST_PERCENT_WHOLE) {
+            return (2 * part * 100 * ONE + whole) / (2 * whole);
+        }
+        return of(toBigDecimal(part).multiply(BigDecimal.valueOf(100))
+            .divide(toBigDecimal(whole), SCALE, RoundingMode.HALF_UP));
+    }
+
+    /**
+     * Utilization capped to what {@code utilization_pct} can store; far-out breaches are recorded
+     * at the cap rather than failing the alert write.
+     */
+    public static long recordableUtilization(long hundredths) {
+        return Math.max(-MAX_RECORDED_UTILIZATION, Math.min(MAX_RECORDED_UTILIZATION, hundredths));
+    }
+
+    public static BigDecimal percentToBigDecimal(long hundredths) {
+        return BigDecimal.valueOf(hundredths, 2);
+    }
+}
@@ -0,0 +1,44 @@
+package com.tms.risk.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Drops flat positions from the exposure and concentration state, so memory tracks the open
+ * positions instead of every position ever seen. A flat position is kept for {@code grace-ms}
+ * after its latest event, longer than the retry topics delay an event, so a late retry is still
+ * recognised as stale rather than reopening the position.
+ */
+@Component
+@Slf4j
+public class FlatPositionSweeper {
+
+    private final AccountExposureAggregator accountExposureAggregator;
+    private final ConcentrationEngine concentrationEngine;
+    private final long graceMs;
+
+    public FlatPositionSweeper(AccountExposureAggregator accountExposureAggregator,
+                               ConcentrationEngine concentrationEngine,
+                               @Value("${risk.flat-positions.grace-ms:300000}") long graceMs) {
+        this.accountExposureAggregator = accountExposureAggregator;
+        this.concentrationEngine = concentrationEngine;
+        this.graceMs = graceMs;
+    }
+
+    @Scheduled(initialDelayString = "${risk.flat-positions.sweep-interval-ms:60000}",
+               fixedDelayString = "${risk.flat-positions.sweep-interval-ms:60000}")
+    public int sweep() {
+        List<AccountExposureAggregator.PositionExposure> evicted =
+            accountExposureAggregator.evictFlat(System.currentTimeMillis() - graceMs);
+        evicted.forEach(concentrationEngine::remove);
+        if (!evicted.isEmpty()) {
+            log.debug("Evicted flat positions: count={}, remaining={}",
+                evicted.size(), accountExposureAggregator.positionCount());
+        }
+        return evicted.size();
+    }
+}
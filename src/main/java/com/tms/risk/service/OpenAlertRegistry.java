@@ -0,0 +1,188 @@
+package com.tms.risk.service;
+
+import com.tms.risk.entity.RiskAlert;
+import com.tms.risk.event.AlertStateChange;
+import com.tms.risk.repository.RiskAlertRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Authoritative set of OPEN alerts keyed by (limitId, accountCode, symbol), used for alert
+ * de-duplication and auto-resolve without touching the database. Changes made inside a
+ * transaction are reverted if that transaction does not commit. The registry is always rebuilt
+ * from the database; with Redis sync enabled the shared set is reconciled against it at the same
+ * time, and the registry is kept in step with changes made on other replicas.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OpenAlertRegistry {
+
+    private final RiskAlertRepository riskAlertRepository;
+    private final ObjectProvider<RedisStateStore> redisStateStore;
+
+    private final Map<Key, OpenAlert> openAlerts = new ConcurrentHashMap<>();
+    // Never lower than the number of entries for the account, so a zero means no lookup is needed
+    private final Map<String, AtomicInteger> openCountByAccount = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        openAlerts.clear();
+        openCountByAccount.clear();
+        LocalDateTime readAt = LocalDateTime.now();
+        List<RiskAlert> alerts = riskAlertRepository.findOpenAlerts();
+        for (RiskAlert alert : alerts) {
+            if (alert.getLimitId() == null) {
+                continue;
+            }
+            Key key = keyOf(alert);
+            OpenAlert kept = openAlerts.get(key);
+            if (kept != null) {
+                log.warn("Duplicate open alert ignored by registry: alertId={}, keptAlertId={}",
+                    alert.getAlertId(), kept.alertId());
+                continue;
+            }
+            put(key, OpenAlert.of(alert));
+        }
+        RedisStateStore store = redisStateStore.getIfAvailable();
+        if (store != null) {
+            try {
+                store.reconcileOpenAlerts(alerts.stream()
+                    .filter(alert -> alert.getLimitId() != null)
+                    .map(alert -> AlertStateChange.of(AlertStateChange.Type.CREATED, alert, alert.getCreatedAt()))
+                    .toList(), readAt);
+            } catch (RuntimeException e) {
+                log.warn("Failed to reconcile shared open alerts with the database", e);
+            }
+        }
+        log.info("Open alert registry rebuilt: {} open alerts", openAlerts.size());
+    }
+
+    public OpenAlert find(Long limitId, String accountCode, String symbol) {
+        if (!hasOpenAlerts(accountCode)) {
+            return null;
+        }
+        return openAlerts.get(new Key(limitId, accountCode, symbol));
+    }
+
+    public boolean hasOpenAlerts(String accountCode) {
+        AtomicInteger count = openCountByAccount.get(accountCode != null ? accountCode : "");
+        return count != null && count.get() > 0;
+    }
+
+    public void register(RiskAlert alert) {
+        if (alert.getLimitId() == null || alert.getStatus() != RiskAlert.AlertStatus.OPEN) {
+            return;
+        }
+        Key key = keyOf(alert);
+        OpenAlert entry = OpenAlert.of(alert);
+        OpenAlert replaced = put(key, entry);
+        onRollback(() -> {
+            if (remove(key, entry) && replaced != null) {
+                put(key, replaced);
+            }
+        });
+    }
+
+    /**
+     * Registers an alert opened on another replica.
+     */
+    public void register(AlertStateChange change) {
+        if (change.limitId() == null) {
+            return;
+        }
+        put(new Key(change.limitId(), change.accountCode(), change.symbol()),
+            new OpenAlert(change.alertId(), change.alertType(), change.severity()));
+    }
+
+    /**
+     * Removes the alert from the registry once it is no longer OPEN (acknowledged or resolved).
+     */
+    public void remove(RiskAlert alert) {
+        if (alert.getLimitId() == null) {
+            return;
+        }
+        remove(keyOf(alert), alert.getAlertId());
+    }
+
+    public void remove(Long limitId, String accountCode, String symbol, Long alertId) {
+        remove(new Key(limitId, accountCode, symbol), alertId);
+    }
+
+    public int size() {
+        return openAlerts.size();
+    }
+
+    private void remove(Key key, Long alertId) {
+        OpenAlert entry = openAlerts.get(key);
+        if (entry != null && entry.alertId().equals(alertId) && remove(key, entry)) {
+            onRollback(() -> {
+                if (openAlerts.get(key) == null) {
+                    put(key, entry);
+                }
+            });
+        }
+    }
+
+    private OpenAlert put(Key key, OpenAlert entry) {
+        AtomicInteger count = accountCount(key);
+        count.incrementAndGet();
+        OpenAlert previous = openAlerts.put(key, entry);
+        if (previous != null) {
+            count.decrementAndGet();
+        }
+        return previous;
+    }
+
+    private boolean remove(Key key, OpenAlert entry) {
+        if (!openAlerts.remove(key, entry)) {
+            return false;
+        }
+        accountCount(key).decrementAndGet();
+        return true;
+    }
+
+    private AtomicInteger accountCount(Key key) {
+        return openCountByAccount.computeIfAbsent(key.accountCode() != null ? key.accountCode() : "",
+            k -> new AtomicInteger());
+    }
+
+    private void onRollback(Runnable undo) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    undo.run();
+                }
+            }
+        });
+    }
+
+    private static Key keyOf(RiskAlert alert) {
+        return new Key(alert.getLimitId(), alert.getAccountCode(), alert.getSymbol());
+    }
+
+    private record Key(Long limitId, String accountCode, String symbol) {
+    }
+
+    public record OpenAlert(Long alertId, RiskAlert.AlertType alertType, RiskAlert.Severity severity) {
+
+        static OpenAlert of(RiskAlert alert) {
+            return new OpenAlert(alert.getAlertId(), alert.getAlertType(), alert.getSeverity());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.tms.risk.service;
+
+import com.tms.risk.event.PositionUpdate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Opt-in conflation of a consumer batch: when several events for one positionId are queued,
+ * only the newest drives position-level evaluation. The older ones still apply their state in
+ * order and are run through the trade-scoped limits by
+ * {@link RiskEvaluationService#evaluateTradeScoped}, so every trade is checked.
+ */
+@Component
+@Slf4j
+public class PositionConflator {
+
+    private final boolean enabled;
+    private final Counter conflatedEvents;
+
+    public PositionConflator(@Value("${risk.consumer.conflation.enabled:false}") boolean enabled,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.conflatedEvents = Counter.builder("risk.consumer.conflated.events")
+            .description("Position events superseded by a newer event for the same position in a batch")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Flags, by batch index, the events superseded by a later event for the same positionId.
+     * Returns {@code null} when conflation is disabled or nothing was superseded.
+     */
+    public boolean[] superseded(List<PositionUpdate> positionUpdates) {
+        if (!enabled || positionUpdates.size() < 2) {
+            return null;
+        }
+
+        boolean[] superseded = null;
+        int count = 0;
+        Set<String> newer = new HashSet<>();
+        for (int i = positionUpdates.size() - 1; i >= 0; i--) {
+            PositionUpdate positionUpdate = positionUpdates.get(i);
+            if (positionUpdate != null && !newer.add(positionUpdate.positionId())) {
+                if (superseded == null) {
+                    superseded = new boolean[positionUpdates.size()];
+                }
+                superseded[i] = true;
+                count++;
+            }
+        }
+
+        if (count > 0) {
+            conflatedEvents.increment(count);
+            log.debug("Conflated position updates in batch: size={}, conflated={}", positionUpdates.size(), count);
+        }
+        return superseded;
+    }
+}
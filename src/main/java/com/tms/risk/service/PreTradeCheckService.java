@@ -0,0 +1,152 @@
+package com.tms.risk.service;
+
+import com.tms.risk.dto.PreTradeCheckRequest;
+import com.tms.risk.dto.PreTradeCheckResponse;
+import com.tms.risk.entity.RiskLimit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Answers whether a proposed trade would breach any active limit, using only the in-memory limit
+ * index and position state. Nothing is read from the database and no alert is persisted.
+ * The trade is assumed to fill at the requested price. Shares that reduce a position leave at
+ * its average cost, and only shares that open or add to a position are valued at that price.
+ */
+@Service
+@RequiredArgsConstructor
+public class PreTradeCheckService {
+
+    private static final long NOT_APPLICABLE = Long.MIN_VALUE;
+
+    private final RiskLimitIndex riskLimitIndex;
+    private final AccountExposureAggregator accountExposureAggregator;
+    private final ConcentrationEngine concentrationEngine;
+    private final DailyTradeCounter dailyTradeCounter;
+
+    public PreTradeCheckResponse check(PreTradeCheckRequest request) {
+        return check(request, riskLimitIndex.snapshot());
+    }
+
+    /**
+     * Checks each order independently against the same limit snapshot.
+     */
+    public List<PreTradeCheckResponse> checkAll(List<PreTradeCheckRequest> requests) {
+        RiskLimitIndex.Snapshot limits = riskLimitIndex.snapshot();
+        List<PreTradeCheckResponse> responses = new ArrayList<>(requests.size());
+        for (PreTradeCheckRequest request : requests) {
+            responses.add(check(request, limits));
+        }
+        return responses;
+    }
+
+    private PreTradeCheckResponse check(PreTradeCheckRequest request, RiskLimitIndex.Snapshot limits) {
+        Projection projection = project(request);
+        List<PreTradeCheckResponse.LimitCheck> breaches = new ArrayList<>();
+        List<PreTradeCheckResponse.LimitCheck> warnings = new ArrayList<>();
+
+        for (int tier = 0; tier < RiskLimitIndex.TIER_COUNT; tier++) {
+            for (RiskLimitIndex.Entry entry : limits.tier(tier, request.getAccountCode(), request.getSymbol())) {
+                RiskLimit limit = entry.limit();
+                long projected = projectedValue(limit, request, projection);
+                if (projected == NOT_APPLICABLE) {
+                    continue;
+                }
+                long utilization = FixedPoint.utilization(projected, entry.limitValue());
+                if (projected >= entry.limitValue()) {
+                    breaches.add(toLimitCheck(limit, projected, utilization));
+                } else if (utilization >= entry.warningThreshold()) {
+                    warnings.add(toLimitCheck(limit, projected, utilization));
+                }
+            }
+        }
+
+        return PreTradeCheckResponse.builder()
+            .clientOrderId(request.getClientOrderId())
+            .accountCode(request.getAccountCode())
+            .symbol(request.getSymbol())
+            .approved(breaches.isEmpty())
+            .tradeValue(FixedPoint.toBigDecimal(projection.tradeValue()))
+            .breaches(breaches)
+            .warnings(warnings)
+            .build();
+    }
+
+    private long projectedValue(RiskLimit limit, PreTradeCheckRequest request, Projection projection) {
+        String accountCode = request.getAccountCode();
+        String symbol = request.getSymbol();
+        return switch (limit.getLimitType()) {
+            case MAX_SINGLE_TRADE_VALUE -> projection.tradeValue();
+            case MAX_POSITION_VALUE -> projection.costBasis();
+            case MAX_POSITION_QUANTITY -> Math.abs(projection.quantity());
+            case MAX_ACCOUNT_EXPOSURE -> projection.accountExposure();
+            case MAX_CONCENTRATION -> FixedPoint.percentOf(
+                concentrationEngine.symbolExposure(accountCode, symbol) + projection.exposureDelta(),
+                projection.accountExposure());
+            case MAX_SECTOR_EXPOSURE -> concentrationEngine.sectorOf(symbol) != null
+                ? concentrationEngine.sectorExposureForSymbol(accountCode, symbol) + projection.exposureDelta()
+                : NOT_APPLICABLE;
+            case MAX_DAILY_TRADES -> FixedPoint.ONE * (1 + (limit.getSymbol() != null
+                ? dailyTradeCounter.symbolTrades(accountCode, limit.getSymbol())
+                : dailyTradeCounter.accountTrades(accountCode)));
+            default -> NOT_APPLICABLE;
+        };
+    }
+
+    private Projection project(PreTradeCheckRequest request) {
+        long quantity = FixedPoint.of(request.getQuantity());
+        long price = FixedPoint.of(request.getPrice());
+        long tradeValue = FixedPoint.multiply(quantity, price);
+        boolean buy = request.getSide() == PreTradeCheckRequest.Side.BUY;
+
+        AccountExposureAggregator.PositionExposure position =
+            accountExposureAggregator.findPosition(request.getAccountCode(), request.getSymbol());
+        long currentQuantity = position != null ? position.quantity() : 0L;
+        long currentCostBasis = position != null ? position.costBasis() : 0L;
+
+        long signedQuantity = buy ? quantity : -quantity;
+        long projectedQuantity = currentQuantity + signedQuantity;
+        long projectedCostBasis;
+        if (currentQuantity == 0 || Long.signum(currentQuantity) == Long.signum(signedQuantity)) {
+            projectedCostBasis = currentCostBasis + (buy ? tradeValue : -tradeValue);
+        } else if (quantity <= Math.abs(currentQuantity)) {
+            // Reducing: the shares that leave take their share of the cost basis, not the trade price
+            projectedCostBasis = proportion(currentCostBasis, Math.abs(projectedQuantity), Math.abs(currentQuantity));
+        } else {
+            // Flipping through zero: only the new position on the other side is valued at the trade price
+            long opened = FixedPoint.multiply(quantity - Math.abs(currentQuantity), price);
+            projectedCostBasis = buy ? opened : -opened;
+        }
+        long exposureDelta = Math.abs(projectedCostBasis) - Math.abs(currentCostBasis);
+        long accountExposure = accountExposureAggregator.accountExposure(request.getAccountCode()) + exposureDelta;
+
+        return new Projection(tradeValue, projectedQuantity, projectedCostBasis, exposureDelta, accountExposure);
+    }
+
+    // value * part / whole, rounded HALF_UP; part <= whole, so the result never exceeds value
+    private static long proportion(long value, long part, long whole) {
+        if (part == whole) {
+            return value;
+        }
+        return BigDecimal.valueOf(value).multiply(BigDecimal.valueOf(part))
+            .divide(BigDecimal.valueOf(whole), 0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private PreTradeCheckResponse.LimitCheck toLimitCheck(RiskLimit limit, long projected, long utilization) {
+        return PreTradeCheckResponse.LimitCheck.builder()
+            .limitId(limit.getLimitId())
+            .limitType(limit.getLimitType().name())
+            .projectedValue(FixedPoint.toBigDecimal(projected))
+            .limitValue(limit.getLimitValue())
+            .utilizationPct(FixedPoint.percentToBigDecimal(utilization))
+            .build();
+    }
+
+    private record Projection(long tradeValue, long quantity, long costBasis, long exposureDelta,
+                              long accountExposure) {
+    }
+}
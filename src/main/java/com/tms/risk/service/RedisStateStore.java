@@ -0,0 +1,248 @@
+package com.tms.risk.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tms.risk.entity.RiskLimit;
+import com.tms.risk.event.AlertStateChange;
+import com.tms.risk.event.LimitBookReplaced;
+import com.tms.risk.event.LimitChange;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shares the active limit book and the open-alert set between replicas through Redis. Each
+ * replica keeps serving reads from its own {@link RiskLimitIndex} and {@link OpenAlertRegistry},
+ * which act as the near cache: they are warmed from the Redis hashes at startup and kept current
+ * by change messages on {@link #CHANNEL}, so only one replica per refresh interval reads the
+ * limit table. Open alerts are always loaded from SQL Server; the shared open-alert hash is a
+ * cache that is reconciled against it whenever a replica starts.
+ */
+@Component
+@ConditionalOnProperty(name = "risk.redis-sync.enabled", havingValue = "true")
+@Slf4j
+public class RedisStateStore {
+
+    public static final String CHANNEL = "risk:state-changes";
+
+    private static final String LIMITS_KEY = "risk:limits";
+    private static final String LIMITS_STAGING_KEY = "risk:limits:staging";
+    private static final String LIMITS_REFRESH_LOCK_KEY = "risk:limits:refresh-lock";
+    private static final String OPEN_ALERTS_KEY = "risk:open-alerts";
+    // Alerts raised this close to the database read may have committed after it
+    private static final Duration RECONCILE_GRACE = Duration.ofMinutes(1);
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration limitRefreshInterval;
+    // One virtual thread keeps Redis writes in publication order and off the evaluation lanes
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(
+        Thread.ofVirtual().name("risk-redis-sync").factory());
+
+    public RedisStateStore(StringRedisTemplate redisTemplate,
+                           ObjectMapper objectMapper,
+                           @Value("${risk.limit-index.refresh-interval-ms:300000}") long limitRefreshIntervalMs) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.limitRefreshInterval = Duration.ofMillis(limitRefreshIntervalMs);
+    }
+
+    public String instanceId() {
+        return instanceId;
+    }
+
+    // ============= Limits =============
+
+    /**
+     * Returns the shared limit book, or empty if it has not been seeded yet.
+     */
+    public Optional<List<RiskLimit>> loadLimits() {
+        List<Object> values = redisTemplate.opsForHash().values(LIMITS_KEY);
+        if (values.isEmpty()) {
+            return Optional.empty();
+        }
+        List<RiskLimit> limits = new ArrayList<>(values.size());
+        for (Object value : values) {
+            limits.add(read((String) value, RiskLimit.class));
+        }
+        return Optional.of(limits);
+    }
+
+    /**
+     * True for the one replica per refresh interval that should re-read limits from the database.
+     */
+    public boolean tryAcquireLimitRefresh() {
+        return Boolean.TRUE.equals(
+            redisTemplate.opsForValue().setIfAbsent(LIMITS_REFRESH_LOCK_KEY, instanceId, limitRefreshInterval));
+    }
+
+    /**
+     * Replaces the shared limit book in one step, so readers never see a partial book.
+     */
+    public void replaceLimits(Collection<RiskLimit> limits) {
+        if (limits.isEmpty()) {
+            redisTemplate.delete(LIMITS_KEY);
+            return;
+        }
+        Map<String, String> entries = new HashMap<>();
+        limits.forEach(limit -> entries.put(limit.getLimitId().toString(), write(limit)));
+        redisTemplate.delete(LIMITS_STAGING_KEY);
+        redisTemplate.opsForHash().putAll(LIMITS_STAGING_KEY, entries);
+        redisTemplate.rename(LIMITS_STAGING_KEY, LIMITS_KEY);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLimitChange(LimitChange change) {
+        writer.execute(() -> {
+            try {
+                String limitId = change.limitId().toString();
+                if (change.limit() != null && Boolean.TRUE.equals(change.limit().getIsActive())) {
+                    redisTemplate.opsForHash().put(LIMITS_KEY, limitId, write(change.limit()));
+                } else {
+                    redisTemplate.opsForHash().delete(LIMITS_KEY, limitId);
+                }
+                publish(new SyncMessage(instanceId, change, null));
+            } catch (RuntimeException e) {
+                log.warn("Failed to share limit change, other replicas catch up on their next refresh: limitId={}",
+                    change.limitId(), e);
+            }
+        });
+    }
+
+    /**
+     * After a bulk import, swaps the shared book and has the other replicas reload it.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLimitBookReplaced(LimitBookReplaced replaced) {
+        writer.execute(() -> {
+            try {
+                replaceLimits(replaced.limits());
+                publish(new SyncMessage(instanceId, LimitChange.reloadAll(), null));
+            } catch (RuntimeException e) {
+                log.warn("Failed to share replaced limit book, other replicas catch up on their next refresh", e);
+            }
+        });
+    }
+
+    // ============= Open Alerts =============
+
+    /**
+     * Brings the shared open-alert set in line with {@code openAlerts}, read from the database at
+     * {@code readAt}: missing alerts are added and entries the database does not have open are
+     * removed, which clears out writes that failed or were never made durable. Entries raised
+     * within {@link #RECONCILE_GRACE} of the read are kept, as they may have committed after it.
+     */
+    public void reconcileOpenAlerts(Collection<AlertStateChange> openAlerts, LocalDateTime readAt) {
+        Map<String, String> missing = new HashMap<>();
+        openAlerts.forEach(alert -> missing.put(alert.alertId().toString(), write(alert)));
+        LocalDateTime cutoff = readAt.minus(RECONCILE_GRACE);
+
+        List<Object> stale = new ArrayList<>();
+        redisTemplate.opsForHash().entries(OPEN_ALERTS_KEY).forEach((field, value) -> {
+            if (missing.remove(field) != null) {
+                return;
+            }
+            if (isOlderThan((String) value, cutoff)) {
+                stale.add(field);
+            }
+        });
+        if (!stale.isEmpty()) {
+            redisTemplate.opsForHash().delete(OPEN_ALERTS_KEY, stale.toArray());
+        }
+        if (!missing.isEmpty()) {
+            redisTemplate.opsForHash().putAll(OPEN_ALERTS_KEY, missing);
+        }
+        log.info("Shared open alerts reconciled with the database: added={}, removed={}", missing.size(), stale.size());
+    }
+
+    private boolean isOlderThan(String value, LocalDateTime cutoff) {
+        try {
+            LocalDateTime occurredAt = read(value, AlertStateChange.class).occurredAt();
+            return occurredAt == null || occurredAt.isBefore(cutoff);
+        } catch (IllegalStateException e) {
+            // Unreadable entries are dropped
+            return true;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAlertStateChange(AlertStateChange change) {
+        if (change.limitId() == null) {
+            return;
+        }
+        writer.execute(() -> {
+            try {
+                String alertId = change.alertId().toString();
+                if (change.type() == AlertStateChange.Type.CREATED) {
+                    redisTemplate.opsForHash().put(OPEN_ALERTS_KEY, alertId, write(change));
+                } else {
+                    redisTemplate.opsForHash().delete(OPEN_ALERTS_KEY, alertId);
+                }
+                publish(new SyncMessage(instanceId, null, change));
+            } catch (RuntimeException e) {
+                log.warn("Failed to share alert state change: alertId={}, type={}",
+                    change.alertId(), change.type(), e);
+            }
+        });
+    }
+
+    // ============= Messages =============
+
+    public SyncMessage decode(byte[] body) {
+        try {
+            return objectMapper.readValue(body, SyncMessage.class);
+        } catch (IOException e) {
+            log.warn("Ignoring undecodable state change message", e);
+            return null;
+        }
+    }
+
+    private void publish(SyncMessage message) {
+        redisTemplate.convertAndSend(CHANNEL, write(message));
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    private <T> T read(String value, Class<T> type) {
+        try {
+            return objectMapper.readValue(value, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to deserialize " + type.getSimpleName() + " from Redis", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+    }
+
+    /**
+     * A change made on {@code origin}; exactly one of {@code limit} and {@code alert} is set.
+     */
+    public record SyncMessage(String origin, LimitChange limit, AlertStateChange alert) {
+    }
+}
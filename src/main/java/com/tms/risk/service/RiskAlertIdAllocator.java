@@ -0,0 +1,43 @@
+package com.tms.risk.service;
+
+import com.tms.risk.entity.RiskAlert;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out alert ids from risk_alert_seq in pooled-lo blocks, the same way Hibernate does for
+ * {@link RiskAlert}, so alerts can be numbered before they are written.
+ */
+@Component
+@RequiredArgsConstructor
+public class RiskAlertIdAllocator {
+
+    private static final String NEXT_BLOCK_SQL = "SELECT NEXT VALUE FOR risk_alert_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Not synchronized: the block fetch would pin the carrier when called from a virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private long next;
+    private long limit;
+
+    public long next() {
+        lock.lock();
+        try {
+            if (next == limit) {
+                Long blockStart = jdbcTemplate.queryForObject(NEXT_BLOCK_SQL, Long.class);
+                if (blockStart == null) {
+                    throw new IllegalStateException("risk_alert_seq returned no value");
+                }
+                next = blockStart;
+                limit = blockStart + RiskAlert.ID_ALLOCATION_SIZE;
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
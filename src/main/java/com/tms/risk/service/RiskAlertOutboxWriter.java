@@ -0,0 +1,93 @@
+package com.tms.risk.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tms.common.config.kafka.KafkaTopics;
+import com.tms.risk.entity.RiskAlert;
+import com.tms.risk.entity.RiskAlertOutbox;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Builds the RiskAlert event for an alert and writes it to the outbox in the caller's transaction.
+ * {@link com.tms.risk.messaging.RiskAlertOutboxRelay} publishes it once that transaction commits.
+ */
+@Component
+@RequiredArgsConstructor
+public class RiskAlertOutboxWriter {
+
+    // Guarded like the risk_alert insert, so a flush retried after a lost commit acknowledgement
+    // does not enqueue the event a second time
+    private static final String INSERT_SQL =
+        "INSERT INTO risk_alert_outbox (alert_id, event_id, topic, message_key, payload, created_at) " +
+        "SELECT ?, ?, ?, ?, ?, ? " +
+        "WHERE NOT EXISTS (SELECT 1 FROM risk_alert_outbox WHERE event_id = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public RiskAlertOutbox newEntry(RiskAlert alert, String correlationId) {
+        String eventId = UUID.randomUUID().toString();
+        return RiskAlertOutbox.builder()
+            .alertId(alert.getAlertId())
+            .eventId(eventId)
+            .topic(KafkaTopics.RISK_ALERTS)
+            .messageKey(alert.getAccountCode() + ":" + alert.getSeverity().name())
+            .payload(toPayload(alert, eventId, correlationId))
+            .createdAt(LocalDateTime.now())
+            .build();
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void write(List<RiskAlertOutbox> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getAlertId());
+            ps.setString(2, entry.getEventId());
+            ps.setString(3, entry.getTopic());
+            ps.setString(4, entry.getMessageKey());
+            ps.setString(5, entry.getPayload());
+            ps.setTimestamp(6, Timestamp.valueOf(entry.getCreatedAt()));
+            ps.setString(7, entry.getEventId());
+        });
+    }
+
+    private String toPayload(RiskAlert alert, String eventId, String correlationId) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("eventId", eventId);
+        event.put("eventType", "RiskAlert");
+        event.put("eventTime", Instant.now().toEpochMilli());
+        event.put("correlationId", correlationId);
+        event.put("source", "risk-service");
+
+        event.put("alertId", alert.getAlertId().toString());
+        event.put("alertType", alert.getAlertType().name());
+        event.put("severity", alert.getSeverity().name());
+        event.put("accountCode", alert.getAccountCode());
+        event.put("symbol", alert.getSymbol());
+        event.put("triggeringTradeId", alert.getTriggeringTradeId());
+        event.put("currentValue", alert.getCurrentValue().toString());
+        event.put("limitValue", alert.getLimitValue().toString());
+        event.put("utilizationPct", alert.getUtilizationPct().toString());
+        event.put("message", alert.getMessage());
+
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize RiskAlert event: alertId=" + alert.getAlertId(), e);
+        }
+    }
+}
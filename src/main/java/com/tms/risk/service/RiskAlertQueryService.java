@@ -0,0 +1,86 @@
+package com.tms.risk.service;
+
+import com.tms.risk.entity.RiskAlert;
+import com.tms.risk.repository.RiskAlertRepository;
+import com.tms.risk.repository.RiskAlertSearchRepository.Criteria;
+import com.tms.risk.repository.RiskAlertSearchRepository.Cursor;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Alert reads that never load an unbounded result set: keyset pages with an opaque cursor,
+ * and a chunked scan for streaming exports.
+ */
+@Service
+@RequiredArgsConstructor
+public class RiskAlertQueryService {
+
+    public static final int EXPORT_CHUNK_SIZE = 1000;
+
+    private final RiskAlertRepository riskAlertRepository;
+    private final EntityManager entityManager;
+
+    public Page search(Criteria criteria, String cursor, int limit) {
+        // One extra row tells us whether there is a next page
+        List<RiskAlert> alerts = riskAlertRepository.search(criteria, decodeCursor(cursor), limit + 1);
+        if (alerts.size() <= limit) {
+            return new Page(alerts, null);
+        }
+        List<RiskAlert> page = alerts.subList(0, limit);
+        return new Page(page, encodeCursor(Cursor.of(page.get(limit - 1))));
+    }
+
+    /**
+     * Feeds every matching alert to {@code chunkConsumer} in chunks of {@link #EXPORT_CHUNK_SIZE},
+     * each read in its own short query. Each chunk is detached once consumed; with open-in-view
+     * the request's persistence context would otherwise hold the whole export.
+     */
+    public long export(Criteria criteria, Consumer<List<RiskAlert>> chunkConsumer) {
+        long exported = 0;
+        Cursor after = null;
+        List<RiskAlert> chunk;
+        do {
+            chunk = riskAlertRepository.search(criteria, after, EXPORT_CHUNK_SIZE);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            chunkConsumer.accept(chunk);
+            exported += chunk.size();
+            after = Cursor.of(chunk.get(chunk.size() - 1));
+            entityManager.clear();
+        } while (chunk.size() == EXPORT_CHUNK_SIZE);
+        return exported;
+    }
+
+    static String encodeCursor(Cursor cursor) {
+        String raw = cursor.createdAt() + "|" + cursor.alertId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Cursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separator)),
+                Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor, e);
+        }
+    }
+
+    public record Page(List<RiskAlert> alerts, String nextCursor) {
+    }
+}
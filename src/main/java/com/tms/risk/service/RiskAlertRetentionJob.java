@@ -0,0 +1,195 @@
+package com.tms.risk.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keeps {@code risk_alert} bounded to the retention period plus the alerts still OPEN. Each run
+ * adds monthly partitions ahead of the current month and, when enabled, moves resolved and
+ * acknowledged alerts older than the retention period into {@code risk_alert_archive}, then merges
+ * away the month boundaries that archival has emptied. Rows are moved in small batches, each a
+ * single DELETE ... OUTPUT INTO statement, with a pause in between. This keeps locks below the
+ * escalation threshold and stops the job from starving the write-behind inserts. Partitions are
+ * not switched out: the unique alert_id index (V10) is not aligned with the partition scheme.
+ */
+@Component
+@Slf4j
+public class RiskAlertRetentionJob {
+
+    private static final String ARCHIVE_BATCH_SQL =
+        "DELETE TOP (?) FROM risk_alert " +
+        "OUTPUT deleted.alert_id, deleted.limit_id, deleted.alert_type, deleted.severity, deleted.account_id, " +
+        "deleted.account_code, deleted.instrument_id, deleted.symbol, deleted.triggering_trade_id, " +
+        "deleted.current_value, deleted.limit_value, deleted.utilization_pct, deleted.message, deleted.status, " +
+        "deleted.acknowledged_by, deleted.acknowledged_at, deleted.resolved_at, deleted.created_at, GETDATE() " +
+        "INTO risk_alert_archive (alert_id, limit_id, alert_type, severity, account_id, account_code, " +
+        "instrument_id, symbol, triggering_trade_id, current_value, limit_value, utilization_pct, message, " +
+        "status, acknowledged_by, acknowledged_at, resolved_at, created_at, archived_at) " +
+        "WHERE status IN ('RESOLVED', 'ACKNOWLEDGED') AND created_at < ?";
+
+    private static final String LAST_BOUNDARY_SQL =
+        "SELECT CAST(MAX(prv.value) AS DATETIME2) FROM sys.partition_range_values prv " +
+        "JOIN sys.partition_functions pf ON pf.function_id = prv.function_id " +
+        "WHERE pf.name = 'pf_risk_alert_created'";
+
+    private static final String BOUNDARIES_SQL =
+        "SELECT CAST(prv.value AS DATETIME2) FROM sys.partition_range_values prv " +
+        "JOIN sys.partition_functions pf ON pf.function_id = prv.function_id " +
+        "WHERE pf.name = 'pf_risk_alert_created' ORDER BY prv.boundary_id";
+
+    private static final String ANY_BETWEEN_SQL =
+        "SELECT CASE WHEN EXISTS (SELECT 1 FROM risk_alert WHERE created_at >= ? AND created_at < ?) " +
+        "THEN 1 ELSE 0 END";
+
+    // Lower bound of the first partition, which has none
+    private static final LocalDateTime BEFORE_ANY_ALERT = LocalDateTime.of(1900, 1, 1, 0, 0);
+
+    private static final String NEXT_USED_SQL = "ALTER PARTITION SCHEME ps_risk_alert_created NEXT USED [PRIMARY]";
+    private static final String SPLIT_SQL = "ALTER PARTITION FUNCTION pf_risk_alert_created() SPLIT RANGE (?)";
+    private static final String MERGE_SQL = "ALTER PARTITION FUNCTION pf_risk_alert_created() MERGE RANGE (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean archiveEnabled;
+    private final int retentionDays;
+    private final int batchSize;
+    private final long batchPauseMs;
+    private final int maxBatchesPerRun;
+    private final int partitionMonthsAhead;
+    private final Counter archived;
+
+    public RiskAlertRetentionJob(JdbcTemplate jdbcTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${risk.retention.enabled:false}") boolean archiveEnabled,
+                                 @Value("${risk.retention.retention-days:90}") int retentionDays,
+                                 @Value("${risk.retention.batch-size:2000}") int batchSize,
+                                 @Value("${risk.retention.batch-pause-ms:100}") long batchPauseMs,
+                                 @Value("${risk.retention.max-batches-per-run:500}") int maxBatchesPerRun,
+                                 @Value("${risk.retention.partition-months-ahead:3}") int partitionMonthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.archiveEnabled = archiveEnabled;
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+        this.batchPauseMs = batchPauseMs;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.partitionMonthsAhead = partitionMonthsAhead;
+        this.archived = Counter.builder("risk.alerts.archived")
+            .description("Resolved and acknowledged alerts moved to risk_alert_archive")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${risk.retention.cron:0 30 2 * * *}")
+    public void run() {
+        addFuturePartitions();
+        if (archiveEnabled) {
+            archiveClosed();
+            mergeEmptyPartitions();
+        }
+    }
+
+    /**
+     * Splits the empty trailing partition month by month, which is a metadata-only change.
+     */
+    public void addFuturePartitions() {
+        try {
+            LocalDateTime lastBoundary = jdbcTemplate.queryForObject(LAST_BOUNDARY_SQL, LocalDateTime.class);
+            if (lastBoundary == null) {
+                log.warn("risk_alert is not partitioned; skipping partition maintenance");
+                return;
+            }
+            LocalDate target = LocalDate.now().withDayOfMonth(1).plusMonths(partitionMonthsAhead);
+            LocalDate next = lastBoundary.toLocalDate().withDayOfMonth(1).plusMonths(1);
+            for (; !next.isAfter(target); next = next.plusMonths(1)) {
+                jdbcTemplate.execute(NEXT_USED_SQL);
+                jdbcTemplate.update(SPLIT_SQL, Timestamp.valueOf(next.atStartOfDay()));
+                log.info("Added risk_alert partition: boundary={}", next);
+            }
+        } catch (DataAccessException e) {
+            // Another replica may have added the same boundary; the next run catches up
+            log.warn("Failed to add risk_alert partitions: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Archives RESOLVED and ACKNOWLEDGED alerts; acknowledged alerts are never resolved later, so
+     * they would otherwise stay forever. Returns the number of alerts moved this run; a run stops
+     * after {@code max-batches-per-run} and leaves the remainder for the next one.
+     */
+    public long archiveClosed() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays));
+        long started = System.nanoTime();
+        long moved = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int rows = jdbcTemplate.update(ARCHIVE_BATCH_SQL, batchSize, cutoff);
+            moved += rows;
+            archived.increment(rows);
+            if (rows < batchSize) {
+                break;
+            }
+            if (!pause()) {
+                break;
+            }
+        }
+        log.info("Archived closed risk alerts: count={}, cutoff={}, tookMs={}",
+            moved, cutoff, (System.nanoTime() - started) / 1_000_000);
+        return moved;
+    }
+
+    /**
+     * Merges each boundary before the retention cutoff whose partitions on both sides are empty,
+     * so the partition count stays flat as months are added ahead. Each merge is metadata-only.
+     * Months still holding OPEN alerts keep their boundaries.
+     */
+    public int mergeEmptyPartitions() {
+        LocalDate cutoffMonth = LocalDate.now().minusDays(retentionDays).withDayOfMonth(1);
+        int merged = 0;
+        try {
+            List<LocalDateTime> boundaries = jdbcTemplate.queryForList(BOUNDARIES_SQL, LocalDateTime.class);
+            // Start of the partition left of boundaries[i]; it absorbs the right one on each merge
+            LocalDateTime lower = BEFORE_ANY_ALERT;
+            for (int i = 0; i + 1 < boundaries.size(); i++) {
+                LocalDateTime upper = boundaries.get(i + 1);
+                if (upper.toLocalDate().isAfter(cutoffMonth)) {
+                    break;
+                }
+                if (hasAlertsBetween(lower, upper)) {
+                    lower = boundaries.get(i);
+                    continue;
+                }
+                jdbcTemplate.update(MERGE_SQL, Timestamp.valueOf(boundaries.get(i)));
+                merged++;
+                log.info("Merged empty risk_alert partition: boundary={}", boundaries.get(i).toLocalDate());
+            }
+        } catch (DataAccessException e) {
+            // Another replica may be merging the same boundary; the next run catches up
+            log.warn("Failed to merge empty risk_alert partitions: {}", e.getMessage());
+        }
+        return merged;
+    }
+
+    private boolean hasAlertsBetween(LocalDateTime from, LocalDateTime to) {
+        Integer any = jdbcTemplate.queryForObject(ANY_BETWEEN_SQL, Integer.class,
+            Timestamp.valueOf(from), Timestamp.valueOf(to));
+        return any == null || any != 0;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,458 @@
+package com.tms.risk.service;
+
+import com.tms.risk.entity.RiskAlert;
+import com.tms.risk.entity.RiskAlertOutbox;
+import com.tms.risk.event.AlertStateChange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Buffers new alerts, their outbox events and auto-resolves, and writes them as multi-row JDBC
+ * batches in one transaction when the buffer reaches {@code batch-size} or every
+ * {@code flush-interval-ms}. Callbacks registered with {@link #onDurable} (the Kafka acks) run
+ * only after everything buffered before them has committed, so offsets are never committed ahead
+ * of the alerts they produced. {@link AlertStateChange} events for the buffered creates and
+ * resolves are published after the commit too, so listeners never see an alert that was not
+ * written. Both run in order on a dedicated thread, so a slow listener never holds up the
+ * flushing thread, which may be the scheduler. Writes count against {@code max-pending} until
+ * their callbacks have run, and only {@link #onDurable} callers wait on it. A failed flush is
+ * kept and retried in order, unless the database rejected its data: then the batch is written
+ * row by row and rows that fail on their own are moved to {@code risk_alert_dead_letter}, so one
+ * bad row cannot hold up every later write.
+ */
+@Component
+@Slf4j
+public class RiskAlertWriteBehind {
+
+    // Guarded so a flush retried after a lost commit acknowledgement does not hit the primary key
+    private static final String INSERT_ALERT_SQL =
+        "INSERT INTO risk_alert (alert_id, limit_id, alert_type, severity, account_id, account_code, " +
+        "instrument_id, symbol, triggering_trade_id, current_value, limit_value, utilization_pct, message, " +
+        "status, created_at) " +
+        "SELECT ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ? " +
+        "WHERE NOT EXISTS (SELECT 1 FROM risk_alert WHERE alert_id = ?)";
+
+    private static final String RESOLVE_ALERT_SQL =
+        "UPDATE risk_alert SET status = 'RESOLVED', resolved_at = ? WHERE alert_id = ? AND status = 'OPEN'";
+
+    private static final String DEAD_LETTER_SQL =
+        "INSERT INTO risk_alert_dead_letter (alert_id, operation, payload, error, created_at) " +
+        "SELECT ?, ?, ?, ?, ? " +
+        "WHERE NOT EXISTS (SELECT 1 FROM risk_alert_dead_letter WHERE alert_id = ? AND operation = ?)";
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RiskAlertOutboxWriter riskAlertOutboxWriter;
+    private final ConsumerOffsetStore consumerOffsetStore;
+    private final OpenAlertRegistry openAlertRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxPending;
+    private final long retryBackoffMs;
+    private final Timer writeTimer;
+    private final Counter deadLettered;
+
+    private final ReentrantLock bufferLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // Runs each committed batch's publishes and callbacks, one batch at a time in commit order
+    private final ExecutorService callbackExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "risk-write-behind-callbacks");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Notified whenever a batch's callbacks have run and pending has dropped
+    private final Object drained = new Object();
+
+    private Batch buffer = new Batch();
+    // Batch whose write failed; retried before anything newer. Guarded by flushLock
+    private Batch failed;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    public RiskAlertWriteBehind(JdbcTemplate jdbcTemplate,
+                                RiskAlertOutboxWriter riskAlertOutboxWriter,
+                                ConsumerOffsetStore consumerOffsetStore,
+                                OpenAlertRegistry openAlertRegistry,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${risk.write-behind.batch-size:500}") int batchSize,
+                                @Value("${risk.write-behind.max-pending:5000}") int maxPending,
+                                @Value("${risk.write-behind.retry-backoff-ms:500}") long retryBackoffMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.riskAlertOutboxWriter = riskAlertOutboxWriter;
+        this.consumerOffsetStore = consumerOffsetStore;
+        this.openAlertRegistry = openAlertRegistry;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.retryBackoffMs = retryBackoffMs;
+        this.writeTimer = RiskEvaluationMetrics.stageTimer(meterRegistry, "write");
+        this.deadLettered = Counter.builder("risk.alerts.dead.lettered")
+            .description("Alert inserts and resolves the database rejected, moved to risk_alert_dead_letter")
+            .register(meterRegistry);
+    }
+
+    public void insert(RiskAlert alert, String correlationId) {
+        RiskAlertOutbox event = riskAlertOutboxWriter.newEntry(alert, correlationId);
+        bufferLock.lock();
+        try {
+            buffer.inserts.add(alert);
+            buffer.events.add(event);
+            buffer.changes.add(AlertStateChange.of(AlertStateChange.Type.CREATED, alert, alert.getCreatedAt()));
+            pending.incrementAndGet();
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    /**
+     * Buffers an auto-resolve; {@code resolved} is published once it has committed.
+     */
+    public void resolve(AlertStateChange resolved) {
+        bufferLock.lock();
+        try {
+            buffer.resolves.add(new Resolve(resolved.alertId(), resolved.occurredAt()));
+            buffer.changes.add(resolved);
+            pending.incrementAndGet();
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    /**
+     * Records that a partition has been evaluated up to {@code offset}; persisted with the next flush.
+     */
+    public void markProcessed(String topic, int partition, long offset) {
+        bufferLock.lock();
+        try {
+            buffer.highWaterMarks.merge(new ConsumerOffsetStore.Partition(topic, partition), offset, Math::max);
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    /**
+     * Runs the callback once every write buffered so far is committed. Flushes inline when the
+     * buffer is full and blocks the caller while the backlog is at or above {@code max-pending}.
+     */
+    public void onDurable(Runnable callback) {
+        bufferLock.lock();
+        try {
+            buffer.callbacks.add(callback);
+        } finally {
+            bufferLock.unlock();
+        }
+
+        if (pending.get() >= batchSize) {
+            tryFlush();
+        }
+        if (pending.get() >= maxPending) {
+            log.warn("Alert write-behind backlog full, pausing consumer: pending={}", pending);
+            while (pending.get() >= maxPending) {
+                tryFlush();
+                awaitDrained(retryBackoffMs);
+            }
+        }
+    }
+
+    /**
+     * Flushes until everything buffered before the call is committed and its changes published,
+     * so a reader of the database and of the change listeners sees the same alerts.
+     */
+    public void awaitDurable() {
+        for (int attempt = 1; ; attempt++) {
+            // The first flush may only retry an earlier failed batch; the second drains the buffer
+            if (tryFlush() && tryFlush()) {
+                awaitCallbacks();
+                return;
+            }
+            if (attempt >= 3) {
+                throw new IllegalStateException("Risk alert writes could not be flushed");
+            }
+            sleep(retryBackoffMs);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${risk.write-behind.flush-interval-ms:50}")
+    public void flush() {
+        tryFlush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!tryFlush()) {
+            log.error("Risk alert writes lost on shutdown; their records will be redelivered: pending={}", pending);
+        }
+        callbackExecutor.shutdown();
+        try {
+            if (!callbackExecutor.awaitTermination(retryBackoffMs + 5_000, TimeUnit.MILLISECONDS)) {
+                log.warn("Risk alert write-behind callbacks still running at shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean tryFlush() {
+        flushLock.lock();
+        try {
+            if (failed == null) {
+                failed = drain();
+            }
+            if (failed.isEmpty()) {
+                failed = null;
+                return true;
+            }
+            Batch batch = failed;
+            if (batch.size() > 0 || !batch.highWaterMarks.isEmpty()) {
+                long started = System.nanoTime();
+                try {
+                    transactionTemplate.executeWithoutResult(status -> write(batch));
+                } catch (DataIntegrityViolationException e) {
+                    // Retrying the whole batch would fail the same way every time
+                    log.error("Risk alert batch rejected by the database, writing rows one by one: inserts={}, resolves={}",
+                        batch.inserts.size(), batch.resolves.size(), e);
+                    writeIsolated(batch);
+                }
+                writeTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                log.debug("Flushed risk alert writes: inserts={}, resolves={}",
+                    batch.inserts.size(), batch.resolves.size());
+            }
+            failed = null;
+            callbackExecutor.execute(() -> completed(batch));
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Failed to flush risk alert writes, will retry: pending={}", pending, e);
+            return false;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Runs on the callback thread once the batch has committed
+    private void completed(Batch batch) {
+        batch.changes.forEach(change -> publish(batch, change));
+        batch.callbacks.forEach(this::runCallback);
+        pending.addAndGet(-batch.size());
+        synchronized (drained) {
+            drained.notifyAll();
+        }
+    }
+
+    // Batches run in commit order, so a marker queued now runs after every committed one
+    private void awaitCallbacks() {
+        try {
+            CompletableFuture.runAsync(() -> { }, callbackExecutor).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for risk alert writes", e);
+        } catch (ExecutionException | RejectedExecutionException e) {
+            throw new IllegalStateException("Risk alert write-behind callbacks are not running", e);
+        }
+    }
+
+    private void awaitDrained(long timeoutMs) {
+        synchronized (drained) {
+            if (pending.get() < maxPending) {
+                return;
+            }
+            try {
+                drained.wait(Math.max(timeoutMs, 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for risk alert writes", e);
+            }
+        }
+    }
+
+    private Batch drain() {
+        bufferLock.lock();
+        try {
+            Batch drained = buffer;
+            buffer = new Batch();
+            return drained;
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    private void write(Batch batch) {
+        // Inserts first: a resolve may target an alert created earlier in the same batch
+        if (!batch.inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ALERT_SQL, batch.inserts, batch.inserts.size(),
+                RiskAlertWriteBehind::bindInsert);
+        }
+        riskAlertOutboxWriter.write(batch.events);
+        consumerOffsetStore.write(batch.highWaterMarks);
+        if (!batch.resolves.isEmpty()) {
+            jdbcTemplate.batchUpdate(RESOLVE_ALERT_SQL, batch.resolves, batch.resolves.size(), (ps, resolve) -> {
+                ps.setTimestamp(1, Timestamp.valueOf(resolve.resolvedAt()));
+                ps.setLong(2, resolve.alertId());
+            });
+        }
+    }
+
+    /**
+     * Writes each alert with its outbox event, and each resolve, in a transaction of its own.
+     * A transient failure still fails the flush; the retry skips rows already written.
+     */
+    private void writeIsolated(Batch batch) {
+        for (int i = 0; i < batch.inserts.size(); i++) {
+            RiskAlert alert = batch.inserts.get(i);
+            RiskAlertOutbox event = batch.events.get(i);
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.update(INSERT_ALERT_SQL, ps -> bindInsert(ps, alert));
+                    riskAlertOutboxWriter.write(List.of(event));
+                });
+            } catch (DataIntegrityViolationException e) {
+                deadLetter(alert.getAlertId(), "INSERT", event.getPayload(), e);
+                batch.deadLettered.add(alert.getAlertId());
+                // Let the breach be raised again rather than de-duplicated against an alert that does not exist
+                openAlertRegistry.remove(alert);
+            }
+        }
+        for (Resolve resolve : batch.resolves) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(RESOLVE_ALERT_SQL,
+                    Timestamp.valueOf(resolve.resolvedAt()), resolve.alertId()));
+            } catch (DataIntegrityViolationException e) {
+                deadLetter(resolve.alertId(), "RESOLVE", null, e);
+                batch.deadLettered.add(resolve.alertId());
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> consumerOffsetStore.write(batch.highWaterMarks));
+    }
+
+    private void deadLetter(Long alertId, String operation, String payload, DataIntegrityViolationException cause) {
+        String error = String.valueOf(cause.getMostSpecificCause().getMessage());
+        String truncated = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(DEAD_LETTER_SQL,
+            alertId, operation, payload, truncated, Timestamp.valueOf(LocalDateTime.now()), alertId, operation));
+        deadLettered.increment();
+        log.error("Risk alert write dead-lettered: alertId={}, operation={}, error={}", alertId, operation, truncated);
+    }
+
+    private static void bindInsert(PreparedStatement ps, RiskAlert alert) throws SQLException {
+        ps.setLong(1, alert.getAlertId());
+        setLong(ps, 2, alert.getLimitId());
+        ps.setString(3, alert.getAlertType().name());
+        ps.setString(4, alert.getSeverity().name());
+        setLong(ps, 5, alert.getAccountId());
+        ps.setString(6, alert.getAccountCode());
+        setLong(ps, 7, alert.getInstrumentId());
+        ps.setString(8, alert.getSymbol());
+        ps.setString(9, alert.getTriggeringTradeId());
+        setDecimal(ps, 10, alert.getCurrentValue());
+        setDecimal(ps, 11, alert.getLimitValue());
+        setDecimal(ps, 12, alert.getUtilizationPct());
+        ps.setString(13, alert.getMessage());
+        ps.setString(14, alert.getStatus().name());
+        ps.setTimestamp(15, Timestamp.valueOf(alert.getCreatedAt()));
+        ps.setLong(16, alert.getAlertId());
+    }
+
+    private static void setLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+
+    private static void setDecimal(PreparedStatement ps, int index, BigDecimal value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.DECIMAL);
+        } else {
+            ps.setBigDecimal(index, value);
+        }
+    }
+
+    private void publish(Batch batch, AlertStateChange change) {
+        if (batch.deadLettered.contains(change.alertId())) {
+            return;
+        }
+        try {
+            eventPublisher.publishEvent(change);
+        } catch (RuntimeException e) {
+            log.error("Failed to publish alert state change: alertId={}, type={}", change.alertId(), change.type(), e);
+        }
+    }
+
+    private void runCallback(Runnable callback) {
+        try {
+            callback.run();
+        } catch (RuntimeException e) {
+            log.error("Risk alert write-behind callback failed", e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for risk alert writes", e);
+        }
+    }
+
+    private static final class Batch {
+        private final List<RiskAlert> inserts = new ArrayList<>();
+        private final List<RiskAlertOutbox> events = new ArrayList<>();
+        private final List<Resolve> resolves = new ArrayList<>();
+        // In the order they were buffered; published after the commit
+        private final List<AlertStateChange> changes = new ArrayList<>();
+        // Alerts with a write moved to risk_alert_dead_letter; their changes are not published
+        private final Set<Long> deadLettered = new HashSet<>();
+        private final List<Runnable> callbacks = new ArrayList<>();
+        private final Map<ConsumerOffsetStore.Partition, Long> highWaterMarks = new HashMap<>();
+
+        int size() {
+            return inserts.size() + resolves.size();
+        }
+
+        boolean isEmpty() {
+            return size() == 0 && callbacks.isEmpty() && highWaterMarks.isEmpty();
+        }
+    }
+
+    private record Resolve(Long alertId, LocalDateTime resolvedAt) {
+    }
+}
@@ -1,21 +1,20 @@
 package com.tms.risk.service;
 
-import com.tms.common.config.kafka.KafkaTopics;
 import com.tms.common.observability.logging.CorrelationIdFilter;
 import com.tms.common.observability.metrics.TradeMetrics;
 import com.tms.risk.entity.RiskAlert;
 import com.tms.risk.entity.RiskLimit;
+import com.tms.risk.event.AlertStateChange;
+import com.tms.risk.event.PositionUpdate;
 import com.tms.risk.repository.RiskAlertRepository;
-import com.tms.risk.repository.RiskLimitRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.Instant;
 import java.util.*;
 
 @Service
@@ -23,91 +22,206 @@ import java.util.*;
 @Slf4j
 public class RiskEvaluationService {
 
-    private final RiskLimitRepository riskLimitRepository;
+    // Utilization thresholds in hundredths of a percent
+    private static final long CRITICAL_UTILIZATION = 12_000L;
+    private static final long MEDIUM_UTILIZATION = 9_000L;
+    // Trade notional of an event that did not change the position, or whose previous state is unknown
+    private static final long NO_TRADE = Long.MIN_VALUE;
+
+    private final RiskLimitIndex riskLimitIndex;
     private final RiskAlertRepository riskAlertRepository;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OpenAlertRegistry openAlertRegistry;
+    private final AccountExposureAggregator accountExposureAggregator;
+    private final ConcentrationEngine concentrationEngine;
+    private final DailyTradeCounter dailyTradeCounter;
+    private final RiskAlertIdAllocator riskAlertIdAllocator;
+    private final RiskAlertWriteBehind riskAlertWriteBehind;
     private final TradeMetrics tradeMetrics;
+    private final RiskEvaluationMetrics riskEvaluationMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Evaluates one position event. Alert writes are buffered by {@link RiskAlertWriteBehind}, which
+     * also publishes their {@link AlertStateChange}s once committed; callers acknowledge the event through {@link RiskAlertWriteBehind#onDurable}.
+     */
+    public List<RiskAlert> evaluatePosition(PositionUpdate positionUpdate) {
+        return evaluate(positionUpdate, false);
+    }
 
-    @Transactional
-    public List<RiskAlert> evaluatePosition(Map<String, Object> positionEvent) {
-        String correlationId = (String) positionEvent.getOrDefault("correlationId",
-            CorrelationIdFilter.getCurrentCorrelationId());
-        String positionId = (String) positionEvent.get("positionId");
-        String accountCode = (String) positionEvent.get("accountCode");
-        String symbol = (String) positionEvent.get("symbol");
-        String triggeringTradeId = (String) positionEvent.get("triggeringTradeId");
-
-        log.info("Evaluating risk for position: positionId={}, accountCode={}, symbol={}",
-            positionId, accountCode, symbol);
-
-        BigDecimal newQuantity = new BigDecimal((String) positionEvent.get("newQuantity"));
-        BigDecimal avgCost = new BigDecimal((String) positionEvent.get("avgCost"));
-        BigDecimal costBasis = new BigDecimal((String) positionEvent.get("costBasis"));
-
-        List<RiskLimit> applicableLimits = riskLimitRepository.findApplicableLimits(accountCode, symbol);
-        List<RiskAlert> alerts = new ArrayList<>();
-
-        for (RiskLimit limit : applicableLimits) {
-            Optional<RiskAlert> alert = evaluateLimit(limit, positionEvent, newQuantity, avgCost,
-                costBasis, triggeringTradeId, correlationId);
-            alert.ifPresent(a -> {
-                alerts.add(riskAlertRepository.save(a));
-                publishRiskAlert(a, correlationId);
-                tradeMetrics.incrementRiskAlerts(a.getSeverity().name());
-            });
+    /**
+     * Evaluates an event that a later event for the same position has superseded. Its state is
+     * applied, which is cheap and lets its trade be measured, but only the trade-scoped limits, which
+     * need every trade, are checked; position-level limits are left to the newer event.
+     */
+    public List<RiskAlert> evaluateTradeScoped(PositionUpdate positionUpdate) {
+        return evaluate(positionUpdate, true);
+    }
+
+    private List<RiskAlert> evaluate(PositionUpdate positionUpdate, boolean tradeScopedOnly) {
+        String correlationId = positionUpdate.correlationId() != null
+            ? positionUpdate.correlationId()
+            : CorrelationIdFilter.getCurrentCorrelationId();
+        String positionId = positionUpdate.positionId();
+        String accountCode = positionUpdate.accountCode();
+        String symbol = positionUpdate.symbol();
+
+        if (log.isDebugEnabled()) {
+            log.debug("Evaluating risk for position: positionId={}, accountCode={}, symbol={}",
+                positionId, accountCode, symbol);
         }
 
-        if (alerts.isEmpty()) {
+        long started = System.nanoTime();
+        // Superseded events still apply their state, so each one's trade can be measured against the last
+        AccountExposureAggregator.PositionExposure previous = applyPositionState(positionUpdate);
+        // A stale event (retried after newer ones were applied) only counts toward trade-scoped limits
+        boolean tradeScoped = tradeScopedOnly || previous == AccountExposureAggregator.STALE;
+        long tradeValue = tradeValue(previous, positionUpdate);
+        long stateApplied = System.nanoTime();
+
+        RiskLimitIndex.Snapshot limits = riskLimitIndex.snapshot();
+        List<RiskAlert> alerts = null;
+        int limitCount = 0;
+        long raiseNanos = 0;
+
+        for (int tier = 0; tier < RiskLimitIndex.TIER_COUNT; tier++) {
+            List<RiskLimitIndex.Entry> entries = limits.tier(tier, accountCode, symbol);
+            for (int i = 0; i < entries.size(); i++) {
+                RiskLimitIndex.Entry entry = entries.get(i);
+                RiskLimit.LimitType limitType = entry.limit().getLimitType();
+                if ((tradeScoped && !isTradeScoped(limitType))
+                        || (limitType == RiskLimit.LimitType.MAX_SINGLE_TRADE_VALUE && tradeValue == NO_TRADE)) {
+                    continue;
+                }
+                limitCount++;
+                Optional<RiskAlert> alert = evaluateLimit(entry, positionUpdate, tradeValue);
+                if (alert.isPresent()) {
+                    long raising = System.nanoTime();
+                    RiskAlert created = alert.get();
+                    created.setAlertId(riskAlertIdAllocator.next());
+                    if (!isPerTrade(limitType)) {
+                        openAlertRegistry.register(created);
+                    }
+                    riskAlertWriteBehind.insert(created, correlationId);
+                    if (alerts == null) {
+                        alerts = new ArrayList<>();
+                    }
+                    alerts.add(created);
+                    tradeMetrics.incrementRiskAlerts(created.getSeverity().name());
+                    raiseNanos += System.nanoTime() - raising;
+                }
+            }
+        }
+        riskEvaluationMetrics.recordEvaluation(started, stateApplied, System.nanoTime(), raiseNanos,
+            limitCount, positionUpdate.eventTime());
+
+        if (alerts == null) {
             log.debug("No risk alerts generated for position: positionId={}", positionId);
+            return List.of();
+        }
+        log.warn("Generated {} risk alerts for position: positionId={}", alerts.size(), positionId);
+        return alerts;
+    }
+
+    /**
+     * Updates exposure and trade-count state without evaluating limits, for events whose alerts
+     * were already produced before a restart.
+     */
+    public void applyState(PositionUpdate positionUpdate) {
+        applyPositionState(positionUpdate);
+    }
+
+    /**
+     * Returns the position state the event replaced (null for a new position), or
+     * {@link AccountExposureAggregator#STALE} if the position state was left alone.
+     */
+    private AccountExposureAggregator.PositionExposure applyPositionState(PositionUpdate positionUpdate) {
+        AccountExposureAggregator.PositionExposure previous = accountExposureAggregator.apply(positionUpdate);
+        if (previous != AccountExposureAggregator.STALE) {
+            concentrationEngine.apply(previous, positionUpdate);
         } else {
-            log.warn("Generated {} risk alerts for position: positionId={}", alerts.size(), positionId);
+            log.debug("Ignoring stale position state: positionId={}, eventId={}, eventTime={}",
+                positionUpdate.positionId(), positionUpdate.eventId(), positionUpdate.eventTime());
         }
+        dailyTradeCounter.record(positionUpdate);
+        return previous;
+    }
 
-        return alerts;
+    /**
+     * Notional of the trade that moved the position from {@code previous} to the event's state, or
+     * {@link #NO_TRADE}. Events carry no fill price, so shares that add to a position are valued by
+     * the cost basis they add and shares that reduce it by the average cost they remove; on a flip
+     * the price implied by the new side's cost basis applies to the whole trade.
+     */
+    static long tradeValue(AccountExposureAggregator.PositionExposure previous, PositionUpdate positionUpdate) {
+        if (previous == AccountExposureAggregator.STALE) {
+            return NO_TRADE;
+        }
+        long previousQuantity = previous != null ? previous.quantity() : 0L;
+        long previousCostBasis = previous != null ? previous.costBasis() : 0L;
+        long newQuantity = positionUpdate.newQuantity();
+        long traded = newQuantity - previousQuantity;
+        if (traded == 0) {
+            return NO_TRADE;
+        }
+        if (previousQuantity == 0 || newQuantity == 0 || Long.signum(previousQuantity) == Long.signum(newQuantity)) {
+            return Math.abs(positionUpdate.costBasis() - previousCostBasis);
+        }
+        return BigDecimal.valueOf(Math.abs(positionUpdate.costBasis()))
+            .multiply(BigDecimal.valueOf(Math.abs(traded)))
+            .divide(BigDecimal.valueOf(Math.abs(newQuantity)), 0, RoundingMode.HALF_UP)
+            .longValueExact();
     }
 
-    private Optional<RiskAlert> evaluateLimit(RiskLimit limit, Map<String, Object> positionEvent,
-                                               BigDecimal quantity, BigDecimal avgCost,
-                                               BigDecimal costBasis, String tradeId, String correlationId) {
+    /**
+     * Decides breach/warning entirely in {@link FixedPoint} arithmetic; BigDecimals are only
+     * created once an alert has to be built.
+     */
+    private Optional<RiskAlert> evaluateLimit(RiskLimitIndex.Entry entry, PositionUpdate positionUpdate,
+                                              long tradeValue) {
+        RiskLimit limit = entry.limit();
+        String accountCode = positionUpdate.accountCode();
+        String symbol = positionUpdate.symbol();
 
-        BigDecimal currentValue = calculateCurrentValue(limit.getLimitType(), quantity, avgCost, costBasis);
-        BigDecimal utilizationPct = currentValue.divide(limit.getLimitValue(), 4, RoundingMode.HALF_UP)
-            .multiply(BigDecimal.valueOf(100));
+        long currentValue = calculateCurrentValue(limit, positionUpdate, tradeValue);
+        long utilization = FixedPoint.utilization(currentValue, entry.limitValue());
 
-        // Check for existing open alert to avoid duplicates
-        List<RiskAlert> existingAlerts = riskAlertRepository.findExistingOpenAlert(
-            RiskAlert.AlertType.LIMIT_BREACH,
-            (String) positionEvent.get("accountCode"),
-            (String) positionEvent.get("symbol"));
+        boolean isBreach = currentValue >= entry.limitValue();
+        boolean isWarning = !isBreach && utilization >= entry.warningThreshold();
 
-        boolean isBreach = currentValue.compareTo(limit.getLimitValue()) >= 0;
-        boolean isWarning = !isBreach && limit.getWarningThreshold() != null &&
-            utilizationPct.compareTo(limit.getWarningThreshold()) >= 0;
+        // Check for existing open alert for this limit to avoid duplicates; every trade is its own breach
+        OpenAlertRegistry.OpenAlert existing = isPerTrade(limit.getLimitType())
+            ? null
+            : openAlertRegistry.find(limit.getLimitId(), accountCode, symbol);
 
         if (!isBreach && !isWarning) {
             // If we had an open alert and now we're back to normal, resolve it
-            existingAlerts.forEach(alert -> {
-                alert.setStatus(RiskAlert.AlertStatus.RESOLVED);
-                alert.setResolvedAt(java.time.LocalDateTime.now());
-                riskAlertRepository.save(alert);
-            });
+            if (existing != null) {
+                resolveOpenAlert(limit.getLimitId(), accountCode, symbol, existing);
+                riskEvaluationMetrics.alertAutoResolved();
+            }
             return Optional.empty();
         }
 
-        // Don't create duplicate alerts
-        if (!existingAlerts.isEmpty()) {
-            log.debug("Alert already exists for this limit breach");
-            return Optional.empty();
+        if (existing != null) {
+            // Escalate an open warning to a breach; otherwise don't create duplicate alerts
+            if (!isBreach || existing.alertType() == RiskAlert.AlertType.LIMIT_BREACH) {
+                log.debug("Alert already exists for this limit: alertId={}", existing.alertId());
+                riskEvaluationMetrics.alertDeduplicated();
+                return Optional.empty();
+            }
+            resolveOpenAlert(limit.getLimitId(), accountCode, symbol, existing);
         }
 
-        RiskAlert.Severity severity = determineSeverity(utilizationPct, isBreach);
+        RiskAlert.Severity severity = determineSeverity(utilization, isBreach);
         RiskAlert.AlertType alertType = isBreach ? RiskAlert.AlertType.LIMIT_BREACH : RiskAlert.AlertType.LIMIT_WARNING;
+        BigDecimal current = FixedPoint.toBigDecimal(currentValue);
+        BigDecimal utilizationPct = FixedPoint.percentToBigDecimal(utilization);
 
         String message = String.format("%s: %s at %.2f%% utilization (Current: %s, Limit: %s)",
             isBreach ? "LIMIT BREACH" : "WARNING",
             limit.getLimitType().name(),
             utilizationPct,
-            currentValue.setScale(2, RoundingMode.HALF_UP),
+            current.setScale(2, RoundingMode.HALF_UP),
             limit.getLimitValue().setScale(2, RoundingMode.HALF_UP));
 
         return Optional.of(RiskAlert.builder()
@@ -115,97 +229,109 @@ public class RiskEvaluationService {
             .alertType(alertType)
             .severity(severity)
             .accountId(limit.getAccountId())
-            .accountCode(limit.getAccountCode())
+            .accountCode(accountCode)
             .instrumentId(limit.getInstrumentId())
-            .symbol(limit.getSymbol())
-            .triggeringTradeId(tradeId)
-            .currentValue(currentValue)
+            .symbol(symbol)
+            .triggeringTradeId(positionUpdate.triggeringTradeId())
+            .currentValue(current)
             .limitValue(limit.getLimitValue())
-            .utilizationPct(utilizationPct)
+            .utilizationPct(FixedPoint.percentToBigDecimal(FixedPoint.recordableUtilization(utilization)))
             .message(message)
             .status(RiskAlert.AlertStatus.OPEN)
+            .createdAt(java.time.LocalDateTime.now())
             .build());
     }
 
-    private BigDecimal calculateCurrentValue(RiskLimit.LimitType limitType,
-                                              BigDecimal quantity, BigDecimal avgCost,
-                                              BigDecimal costBasis) {
-        return switch (limitType) {
-            case MAX_POSITION_VALUE -> costBasis;
-            case MAX_POSITION_QUANTITY -> quantity.abs();
-            default -> costBasis;
+    private void resolveOpenAlert(Long limitId, String accountCode, String symbol,
+                                  OpenAlertRegistry.OpenAlert openAlert) {
+        java.time.LocalDateTime resolvedAt = java.time.LocalDateTime.now();
+        riskAlertWriteBehind.resolve(new AlertStateChange(AlertStateChange.Type.RESOLVED, openAlert.alertId(),
+            limitId, openAlert.alertType(), openAlert.severity(), accountCode, symbol, resolvedAt));
+        openAlertRegistry.remove(limitId, accountCode, symbol, openAlert.alertId());
+        log.info("Auto-resolved risk alert: alertId={}", openAlert.alertId());
+    }
+
+    private long calculateCurrentValue(RiskLimit limit, PositionUpdate positionUpdate, long tradeValue) {
+        return switch (limit.getLimitType()) {
+            case MAX_SINGLE_TRADE_VALUE -> tradeValue;
+            case MAX_POSITION_VALUE -> positionUpdate.costBasis();
+            case MAX_POSITION_QUANTITY -> Math.abs(positionUpdate.newQuantity());
+            case MAX_ACCOUNT_EXPOSURE -> accountExposureAggregator.accountExposure(positionUpdate.accountCode());
+            // Limit value is a percentage of the account's gross exposure
+            case MAX_CONCENTRATION -> concentrationEngine.concentration(positionUpdate.accountCode(),
+                positionUpdate.symbol(), accountExposureAggregator.accountExposure(positionUpdate.accountCode()));
+            case MAX_SECTOR_EXPOSURE -> concentrationEngine.sectorExposureForSymbol(positionUpdate.accountCode(),
+                positionUpdate.symbol());
+            // Limit value is a trade count; symbol-scoped limits count trades in that symbol only
+            case MAX_DAILY_TRADES -> FixedPoint.ONE * (limit.getSymbol() != null
+                ? dailyTradeCounter.symbolTrades(positionUpdate.accountCode(), limit.getSymbol())
+                : dailyTradeCounter.accountTrades(positionUpdate.accountCode()));
+            default -> positionUpdate.costBasis();
         };
     }
 
-    private RiskAlert.Severity determineSeverity(BigDecimal utilizationPct, boolean isBreach) {
+    private static boolean isTradeScoped(RiskLimit.LimitType limitType) {
+        return limitType == RiskLimit.LimitType.MAX_SINGLE_TRADE_VALUE
+            || limitType == RiskLimit.LimitType.MAX_DAILY_TRADES;
+    }
+
+    /**
+     * Limits whose alerts belong to one trade: they are neither de-duplicated nor auto-resolved.
+     */
+    private static boolean isPerTrade(RiskLimit.LimitType limitType) {
+        return limitType == RiskLimit.LimitType.MAX_SINGLE_TRADE_VALUE;
+    }
+
+    static RiskAlert.Severity determineSeverity(long utilization, boolean isBreach) {
         if (isBreach) {
-            if (utilizationPct.compareTo(BigDecimal.valueOf(120)) >= 0) {
+            if (utilization >= CRITICAL_UTILIZATION) {
                 return RiskAlert.Severity.CRITICAL;
             }
             return RiskAlert.Severity.HIGH;
         }
-        if (utilizationPct.compareTo(BigDecimal.valueOf(90)) >= 0) {
+        if (utilization >= MEDIUM_UTILIZATION) {
             return RiskAlert.Severity.MEDIUM;
         }
         return RiskAlert.Severity.LOW;
     }
 
-    private void publishRiskAlert(RiskAlert alert, String correlationId) {
-        Map<String, Object> event = new HashMap<>();
-        event.put("eventId", UUID.randomUUID().toString());
-        event.put("eventType", "RiskAlert");
-        event.put("eventTime", Instant.now().toEpochMilli());
-        event.put("correlationId", correlationId);
-        event.put("source", "risk-service");
-
-        event.put("alertId", alert.getAlertId().toString());
-        event.put("alertType", alert.getAlertType().name());
-        event.put("severity", alert.getSeverity().name());
-        event.put("accountCode", alert.getAccountCode());
-        event.put("symbol", alert.getSymbol());
-        event.put("triggeringTradeId", alert.getTriggeringTradeId());
-        event.put("currentValue", alert.getCurrentValue().toString());
-        event.put("limitValue", alert.getLimitValue().toString());
-        event.put("utilizationPct", alert.getUtilizationPct().toString());
-        event.put("message", alert.getMessage());
-
-        String key = alert.getAccountCode() + ":" + alert.getSeverity().name();
-        kafkaTemplate.send(KafkaTopics.RISK_ALERTS, key, event)
-            .whenComplete((result, ex) -> {
-                if (ex != null) {
-                    log.error("Failed to publish RiskAlert event: alertId={}", alert.getAlertId(), ex);
-                } else {
-                    log.info("RiskAlert event published: alertId={}, severity={}",
-                        alert.getAlertId(), alert.getSeverity());
-                }
-            });
-    }
-
     @Transactional
     public RiskAlert acknowledgeAlert(Long alertId, String acknowledgedBy) {
-        RiskAlert alert = riskAlertRepository.findById(alertId)
-            .orElseThrow(() -> new IllegalArgumentException("Alert not found: " + alertId));
+        RiskAlert alert = findAlert(alertId);
 
         alert.setStatus(RiskAlert.AlertStatus.ACKNOWLEDGED);
         alert.setAcknowledgedBy(acknowledgedBy);
         alert.setAcknowledgedAt(java.time.LocalDateTime.now());
 
-        return riskAlertRepository.save(alert);
+        RiskAlert saved = riskAlertRepository.save(alert);
+        openAlertRegistry.remove(saved);
+        eventPublisher.publishEvent(
+            AlertStateChange.of(AlertStateChange.Type.ACKNOWLEDGED, saved, saved.getAcknowledgedAt()));
+        return saved;
     }
 
     @Transactional
     public RiskAlert resolveAlert(Long alertId) {
-        RiskAlert alert = riskAlertRepository.findById(alertId)
-            .orElseThrow(() -> new IllegalArgumentException("Alert not found: " + alertId));
+        RiskAlert alert = findAlert(alertId);
 
         alert.setStatus(RiskAlert.AlertStatus.RESOLVED);
         alert.setResolvedAt(java.time.LocalDateTime.now());
 
-        return riskAlertRepository.save(alert);
+        RiskAlert saved = riskAlertRepository.save(alert);
+        openAlertRegistry.remove(saved);
+        eventPublisher.publishEvent(
+            AlertStateChange.of(AlertStateChange.Type.RESOLVED, saved, saved.getResolvedAt()));
+        return saved;
     }
 
-    public List<RiskAlert> getOpenAlerts() {
-        return riskAlertRepository.findByStatus(RiskAlert.AlertStatus.OPEN);
+    private RiskAlert findAlert(Long alertId) {
+        Optional<RiskAlert> alert = riskAlertRepository.findById(alertId);
+        if (alert.isEmpty()) {
+            // A just-raised alert may still be buffered in the write-behind stage
+            riskAlertWriteBehind.awaitDurable();
+            alert = riskAlertRepository.findById(alertId);
+        }
+        return alert.orElseThrow(() -> new IllegalArgumentException("Alert not found: " + alertId));
     }
 
     public List<RiskAlert> getCriticalAlerts() {
@@ -0,0 +1,373 @@
+package com.tms.risk.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tms.risk.dto.RiskLimitRequest;
+import com.tms.risk.entity.RiskLimit;
+import com.tms.risk.event.LimitBookReplaced;
+import com.tms.risk.repository.RiskLimitRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk import and export of the limit book. An import is validated in full before anything is
+ * written; the rows are then staged in a temp table with JDBC batches and applied with a single
+ * MERGE, so the {@code risk_limit} update trigger fires once per import rather than once per row.
+ * Rows match existing limits on (account code, symbol, limit type). After the commit the index
+ * is swapped to the new active set in one step, so evaluation never sees a partial import.
+ */
+@Service
+@Slf4j
+public class RiskLimitImportService {
+
+    public static final List<String> CSV_COLUMNS = List.of(
+        "accountId", "accountCode", "instrumentId", "symbol", "limitType", "limitValue",
+        "warningThreshold", "isActive");
+
+    private static final int STAGE_BATCH_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final BigDecimal MAX_WARNING_THRESHOLD = new BigDecimal("100");
+
+    private static final String DROP_STAGE_SQL =
+        "IF OBJECT_ID('tempdb..#risk_limit_import') IS NOT NULL DROP TABLE #risk_limit_import";
+
+    private static final String CREATE_STAGE_SQL =
+        "CREATE TABLE #risk_limit_import (" +
+        "account_id BIGINT NULL, account_code VARCHAR(50) NULL, instrument_id BIGINT NULL, " +
+        "symbol VARCHAR(20) NULL, limit_type VARCHAR(50) NOT NULL, limit_value DECIMAL(18, 4) NOT NULL, " +
+        "warning_threshold DECIMAL(5, 2) NULL, is_active BIT NOT NULL)";
+
+    private static final String STAGE_ROW_SQL =
+        "INSERT INTO #risk_limit_import (account_id, account_code, instrument_id, symbol, limit_type, " +
+        "limit_value, warning_threshold, is_active) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // OUTPUT goes to a table variable: risk_limit has a trigger, which rules out OUTPUT to the client.
+    // INTERSECT matches NULL account codes and symbols as equal. updated_at is set by the trigger
+    private static final String MERGE_SQL =
+        "SET NOCOUNT ON; " +
+        "DECLARE @actions TABLE (action NVARCHAR(10) NOT NULL); " +
+        "MERGE risk_limit WITH (HOLDLOCK) AS t " +
+        "USING #risk_limit_import AS s " +
+        "ON t.limit_type = s.limit_type " +
+        "AND EXISTS (SELECT t.account_code, t.symbol INTERSECT SELECT s.account_code, s.symbol) " +
+        "WHEN MATCHED THEN UPDATE SET account_id = s.account_id, instrument_id = s.instrument_id, " +
+        "limit_value = s.limit_value, warning_threshold = s.warning_threshold, is_active = s.is_active " +
+        "WHEN NOT MATCHED BY TARGET THEN INSERT (account_id, account_code, instrument_id, symbol, limit_type, " +
+        "limit_value, warning_threshold, is_active) VALUES (s.account_id, s.account_code, s.instrument_id, " +
+        "s.symbol, s.limit_type, s.limit_value, s.warning_threshold, s.is_active) " +
+        "OUTPUT $action INTO @actions; " +
+        "SELECT COALESCE(SUM(CASE WHEN action = 'INSERT' THEN 1 ELSE 0 END), 0), " +
+        "COALESCE(SUM(CASE WHEN action = 'UPDATE' THEN 1 ELSE 0 END), 0) FROM @actions";
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    public record Result(int received, int inserted, int updated, List<String> errors) {
+
+        public boolean accepted() {
+            return errors.isEmpty();
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RiskLimitRepository riskLimitRepository;
+    private final RiskLimitIndex riskLimitIndex;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxRows;
+
+    public RiskLimitImportService(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  RiskLimitRepository riskLimitRepository,
+                                  RiskLimitIndex riskLimitIndex,
+                                  Validator validator,
+                                  ObjectMapper objectMapper,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${risk.limit-import.max-rows:200000}") int maxRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.riskLimitRepository = riskLimitRepository;
+        this.riskLimitIndex = riskLimitIndex;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * Reads the whole stream, then applies it only if every row is valid. CSV input needs a header
+     * naming columns from {@link #CSV_COLUMNS}; values are unquoted and blank means null.
+     */
+    public Result importLimits(InputStream in, Format format) throws IOException {
+        long started = System.nanoTime();
+        List<RiskLimitRequest> rows = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        Set<String> keys = new HashSet<>();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Map<String, Integer> columns = null;
+        String line;
+        int lineNumber = 0;
+        int received = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && columns == null) {
+                try {
+                    columns = parseHeader(line);
+                    continue;
+                } catch (IllegalArgumentException e) {
+                    addError(errors, lineNumber, e.getMessage());
+                    break;
+                }
+            }
+            if (++received > maxRows) {
+                addError(errors, lineNumber, "more than " + maxRows + " rows");
+                break;
+            }
+            try {
+                RiskLimitRequest row = format == Format.CSV ? parseCsv(line, columns) : parseJson(line);
+                String problem = validate(row);
+                if (problem == null && !keys.add(key(row))) {
+                    problem = "duplicate limit for accountCode=" + row.getAccountCode()
+                        + ", symbol=" + row.getSymbol() + ", limitType=" + row.getLimitType();
+                }
+                if (problem != null) {
+                    addError(errors, lineNumber, problem);
+                } else {
+                    rows.add(row);
+                }
+            } catch (IllegalArgumentException e) {
+                addError(errors, lineNumber, e.getMessage());
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            log.warn("Rejected limit import: rows={}, firstError={}", received, errors.get(0));
+            return new Result(received, 0, 0, errors);
+        }
+        if (rows.isEmpty()) {
+            return new Result(0, 0, 0, List.of());
+        }
+
+        int[] counts = transactionTemplate.execute(status -> merge(rows));
+        List<RiskLimit> active = riskLimitRepository.findByIsActiveTrue();
+        riskLimitIndex.replaceAll(active);
+        eventPublisher.publishEvent(new LimitBookReplaced(active));
+
+        log.info("Imported limits: rows={}, inserted={}, updated={}, active={}, tookMs={}",
+            rows.size(), counts[0], counts[1], active.size(), (System.nanoTime() - started) / 1_000_000);
+        return new Result(rows.size(), counts[0], counts[1], List.of());
+    }
+
+    /**
+     * Writes the active limits in import format, so an export can be edited and imported back.
+     */
+    public int export(Format format, OutputStream out) throws IOException {
+        List<RiskLimit> limits = riskLimitIndex.getAll().stream()
+            .sorted(Comparator.comparing(RiskLimit::getLimitId))
+            .toList();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(String.join(",", CSV_COLUMNS));
+            writer.write('\n');
+        }
+        for (RiskLimit limit : limits) {
+            if (format == Format.CSV) {
+                writer.write(toCsv(limit));
+            } else {
+                writer.write(objectMapper.writeValueAsString(toRequest(limit)));
+            }
+            writer.write('\n');
+        }
+        writer.flush();
+        return limits.size();
+    }
+
+    private int[] merge(List<RiskLimitRequest> rows) {
+        jdbcTemplate.execute(DROP_STAGE_SQL);
+        jdbcTemplate.execute(CREATE_STAGE_SQL);
+        jdbcTemplate.batchUpdate(STAGE_ROW_SQL, rows, STAGE_BATCH_SIZE, (ps, row) -> {
+            ps.setObject(1, row.getAccountId(), Types.BIGINT);
+            ps.setString(2, row.getAccountCode());
+            ps.setObject(3, row.getInstrumentId(), Types.BIGINT);
+            ps.setString(4, row.getSymbol());
+            ps.setString(5, row.getLimitType().name());
+            ps.setBigDecimal(6, row.getLimitValue());
+            ps.setObject(7, row.getWarningThreshold(), Types.DECIMAL);
+            ps.setBoolean(8, !Boolean.FALSE.equals(row.getIsActive()));
+        });
+        int[] counts = jdbcTemplate.queryForObject(MERGE_SQL,
+            (rs, rowNum) -> new int[]{rs.getInt(1), rs.getInt(2)});
+        jdbcTemplate.execute(DROP_STAGE_SQL);
+        return counts;
+    }
+
+    private String validate(RiskLimitRequest row) {
+        Set<ConstraintViolation<RiskLimitRequest>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            return violations.iterator().next().getMessage();
+        }
+        if (row.getAccountCode() != null && row.getAccountCode().length() > 50) {
+            return "accountCode longer than 50 characters";
+        }
+        if (row.getSymbol() != null && row.getSymbol().length() > 20) {
+            return "symbol longer than 20 characters";
+        }
+        // DECIMAL(18, 4) in risk_limit
+        BigDecimal value = row.getLimitValue().stripTrailingZeros();
+        if (value.scale() > 4 || value.precision() - value.scale() > 14) {
+            return "limitValue does not fit DECIMAL(18, 4)";
+        }
+        BigDecimal threshold = row.getWarningThreshold();
+        if (threshold != null && (threshold.signum() <= 0 || threshold.compareTo(MAX_WARNING_THRESHOLD) > 0
+                || threshold.stripTrailingZeros().scale() > 2)) {
+            return "warningThreshold must be a percentage above 0 and at most 100, with two decimals";
+        }
+        return null;
+    }
+
+    private RiskLimitRequest parseJson(String line) {
+        try {
+            RiskLimitRequest row = objectMapper.readValue(line, RiskLimitRequest.class);
+            if (row == null) {
+                throw new IllegalArgumentException("expected a JSON object");
+            }
+            return row;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private static Map<String, Integer> parseHeader(String line) {
+        String[] names = line.split(",", -1);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i].trim();
+            if (!CSV_COLUMNS.contains(name)) {
+                throw new IllegalArgumentException("unknown column '" + name + "', expected " + CSV_COLUMNS);
+            }
+            if (columns.put(name, i) != null) {
+                throw new IllegalArgumentException("duplicate column '" + name + "'");
+            }
+        }
+        if (!columns.containsKey("limitType") || !columns.containsKey("limitValue")) {
+            throw new IllegalArgumentException("header must include limitType and limitValue");
+        }
+        return columns;
+    }
+
+    private static RiskLimitRequest parseCsv(String line, Map<String, Integer> columns) {
+        String[] values = line.split(",", -1);
+        if (values.length != columns.size()) {
+            throw new IllegalArgumentException("expected " + columns.size() + " values, found " + values.length);
+        }
+        String isActive = value(values, columns, "isActive");
+        if (isActive != null && !isActive.equalsIgnoreCase("true") && !isActive.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("isActive must be true or false");
+        }
+        String limitType = value(values, columns, "limitType");
+        try {
+            return RiskLimitRequest.builder()
+                .accountId(toLong(value(values, columns, "accountId")))
+                .accountCode(value(values, columns, "accountCode"))
+                .instrumentId(toLong(value(values, columns, "instrumentId")))
+                .symbol(value(values, columns, "symbol"))
+                .limitType(limitType != null ? RiskLimit.LimitType.valueOf(limitType) : null)
+                .limitValue(toDecimal(value(values, columns, "limitValue")))
+                .warningThreshold(toDecimal(value(values, columns, "warningThreshold")))
+                .isActive(isActive == null || Boolean.parseBoolean(isActive))
+                .build();
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid number: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown limitType '" + limitType + "'");
+        }
+    }
+
+    private static String value(String[] values, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null) {
+            return null;
+        }
+        String value = values[index].trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Long toLong(String value) {
+        return value != null ? Long.valueOf(value) : null;
+    }
+
+    private static BigDecimal toDecimal(String value) {
+        return value != null ? new BigDecimal(value) : null;
+    }
+
+    private static String key(RiskLimitRequest row) {
+        return row.getAccountCode() + '\u0000' + row.getSymbol() + '\u0000' + row.getLimitType();
+    }
+
+    private static void addError(List<String> errors, int lineNumber, String message) {
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add("line " + lineNumber + ": " + message);
+        }
+    }
+
+    private static RiskLimitRequest toRequest(RiskLimit limit) {
+        return RiskLimitRequest.builder()
+            .accountId(limit.getAccountId())
+            .accountCode(limit.getAccountCode())
+            .instrumentId(limit.getInstrumentId())
+            .symbol(limit.getSymbol())
+            .limitType(limit.getLimitType())
+            .limitValue(limit.getLimitValue())
+            .warningThreshold(limit.getWarningThreshold())
+            .isActive(limit.getIsActive())
+            .build();
+    }
+
+    private static String toCsv(RiskLimit limit) {
+        return String.join(",",
+            text(limit.getAccountId()),
+            text(limit.getAccountCode()),
+            text(limit.getInstrumentId()),
+            text(limit.getSymbol()),
+            limit.getLimitType().name(),
+            limit.getLimitValue().toPlainString(),
+            limit.getWarningThreshold() != null ? limit.getWarningThreshold().toPlainString() : "",
+            text(limit.getIsActive()));
+    }
+
+    private static String text(Object value) {
+        return value != null ? value.toString() : "";
+    }
+}
@@ -0,0 +1,331 @@
+package com.tms.risk.service;
+
+import com.tms.risk.entity.RiskLimit;
+import com.tms.risk.repository.RiskLimitRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of active risk limits, tiered by scope: account+symbol, account-only,
+ * symbol-only and global. Readers see an immutable snapshot; writers build a new snapshot
+ * and swap it in, so a lookup never observes a half-applied change. A single-limit change only
+ * rebuilds the buckets it touches; a reload rebuilds everything. With Redis sync enabled the
+ * index loads the limit book shared by all replicas instead of the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RiskLimitIndex {
+
+    /** Number of scope tiers walked by {@link Snapshot#tier(int, String, String)}. */
+    public static final int TIER_COUNT = 4;
+
+    private final RiskLimitRepository riskLimitRepository;
+    private final ObjectProvider<RedisStateStore> redisStateStore;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    // Lookup by id, outside the snapshot so an upsert need not copy it; written under the lock
+    private volatile Map<Long, Entry> byId = new ConcurrentHashMap<>();
+    private long mutations;
+
+    @PostConstruct
+    public void load() {
+        reload();
+    }
+
+    /**
+     * Re-reads active limits from the database to pick up changes made outside this instance.
+     * A reload that races with a local mutation is discarded; the next cycle picks it up.
+     */
+    @Scheduled(initialDelayString = "${risk.limit-index.refresh-interval-ms:300000}",
+               fixedDelayString = "${risk.limit-index.refresh-interval-ms:300000}")
+    public void reload() {
+        long seen;
+        synchronized (this) {
+            seen = mutations;
+        }
+        List<RiskLimit> active = loadActive();
+        synchronized (this) {
+            if (seen != mutations) {
+                log.debug("Skipping limit index reload, index changed while loading");
+                return;
+            }
+            replace(active);
+        }
+        log.info("Risk limit index loaded: {} active limits", active.size());
+    }
+
+    private List<RiskLimit> loadActive() {
+        RedisStateStore store = redisStateStore.getIfAvailable();
+        if (store == null) {
+            return riskLimitRepository.findByIsActiveTrue();
+        }
+        // One replica per interval refreshes the shared book from the database; the rest read it
+        if (!store.tryAcquireLimitRefresh()) {
+            Optional<List<RiskLimit>> shared = store.loadLimits();
+            if (shared.isPresent()) {
+                return shared.get();
+            }
+        }
+        List<RiskLimit> active = riskLimitRepository.findByIsActiveTrue();
+        store.replaceLimits(active);
+        return active;
+    }
+
+    /**
+     * Current immutable view of the index. Hot-path callers take one snapshot per event and walk
+     * its tiers, which needs no allocation.
+     */
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    public List<RiskLimit> findApplicableLimits(String accountCode, String symbol) {
+        Snapshot current = snapshot;
+        List<RiskLimit> result = new ArrayList<>();
+        for (int tier = 0; tier < TIER_COUNT; tier++) {
+            current.tier(tier, accountCode, symbol).forEach(entry -> result.add(entry.limit()));
+        }
+        return result;
+    }
+
+    /**
+     * Limits scoped to the account: account-wide ones and those on one of its symbols.
+     */
+    public List<RiskLimit> findByAccount(String accountCode) {
+        Snapshot current = snapshot;
+        List<RiskLimit> result = new ArrayList<>();
+        current.accountWide(accountCode).forEach(entry -> result.add(entry.limit()));
+        if (accountCode != null) {
+            current.byAccountAndSymbol().getOrDefault(accountCode, Map.of())
+                .values().forEach(entries -> entries.forEach(entry -> result.add(entry.limit())));
+        }
+        return result;
+    }
+
+    public Optional<RiskLimit> findById(Long limitId) {
+        return Optional.ofNullable(byId.get(limitId)).map(Entry::limit);
+    }
+
+    public List<RiskLimit> getAll() {
+        return byId.values().stream().map(Entry::limit).toList();
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Adds or replaces a limit. Inactive limits are removed from the index.
+     */
+    public synchronized void upsert(RiskLimit limit) {
+        Entry previous = byId.get(limit.getLimitId());
+        Snapshot next = previous != null ? snapshot.without(previous) : snapshot;
+        if (Boolean.TRUE.equals(limit.getIsActive())) {
+            Entry entry = Entry.of(limit);
+            swap(next.with(entry));
+            byId.put(limit.getLimitId(), entry);
+        } else if (previous != null) {
+            swap(next);
+            byId.remove(limit.getLimitId());
+        }
+    }
+
+    public synchronized void remove(Long limitId) {
+        Entry previous = byId.get(limitId);
+        if (previous == null) {
+            return;
+        }
+        swap(snapshot.without(previous));
+        byId.remove(limitId);
+    }
+
+    public synchronized void replaceAll(Collection<RiskLimit> limits) {
+        mutations++;
+        replace(limits);
+    }
+
+    private void replace(Collection<RiskLimit> limits) {
+        Snapshot next = Snapshot.of(limits);
+        Map<Long, Entry> entries = new ConcurrentHashMap<>();
+        for (int tier = 0; tier < TIER_COUNT; tier++) {
+            next.entries(tier).forEach(entry -> entries.put(entry.limit().getLimitId(), entry));
+        }
+        snapshot = next;
+        byId = entries;
+    }
+
+    private void swap(Snapshot next) {
+        mutations++;
+        snapshot = next;
+    }
+
+    /**
+     * A limit with its value and warning threshold pre-converted to {@link FixedPoint} form.
+     * {@code warningThreshold} is in hundredths of a percent, or {@link #NO_THRESHOLD}.
+     */
+    public record Entry(RiskLimit limit, long limitValue, long warningThreshold) {
+
+        public static final long NO_THRESHOLD = Long.MAX_VALUE;
+
+        static Entry of(RiskLimit limit) {
+            return new Entry(limit,
+                FixedPoint.of(limit.getLimitValue()),
+                limit.getWarningThreshold() != null
+                    ? FixedPoint.percentHundredths(limit.getWarningThreshold())
+                    : NO_THRESHOLD);
+        }
+    }
+
+    public record Snapshot(Map<String, Map<String, List<Entry>>> byAccountAndSymbol,
+                           Map<String, List<Entry>> byAccount,
+                           Map<String, List<Entry>> bySymbol,
+                           List<Entry> global) {
+
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of(), Map.of(), List.of());
+
+        /**
+         * Tier 0 is account+symbol, 1 account-only, 2 symbol-only and 3 global.
+         */
+        public List<Entry> tier(int tier, String accountCode, String symbol) {
+            return switch (tier) {
+                case 0 -> exact(accountCode, symbol);
+                case 1 -> accountWide(accountCode);
+                case 2 -> symbolWide(symbol);
+                default -> global;
+            };
+        }
+
+        public List<Entry> exact(String accountCode, String symbol) {
+            if (accountCode == null || symbol == null) {
+                return List.of();
+            }
+            Map<String, List<Entry>> bySymbol = byAccountAndSymbol.get(accountCode);
+            return bySymbol != null ? bySymbol.getOrDefault(symbol, List.of()) : List.of();
+        }
+
+        public List<Entry> accountWide(String accountCode) {
+            return accountCode != null ? byAccount.getOrDefault(accountCode, List.of()) : List.of();
+        }
+
+        public List<Entry> symbolWide(String symbol) {
+            return symbol != null ? bySymbol.getOrDefault(symbol, List.of()) : List.of();
+        }
+
+        // Every entry in one tier, in no particular order
+        List<Entry> entries(int tier) {
+            List<Entry> entries = new ArrayList<>();
+            switch (tier) {
+                case 0 -> byAccountAndSymbol.values()
+                    .forEach(symbols -> symbols.values().forEach(entries::addAll));
+                case 1 -> byAccount.values().forEach(entries::addAll);
+                case 2 -> bySymbol.values().forEach(entries::addAll);
+                default -> entries.addAll(global);
+            }
+            return entries;
+        }
+
+        /**
+         * Copy with {@code entry} added, replacing any entry with the same limitId in its bucket.
+         * Only that bucket and the map that holds it are copied.
+         */
+        Snapshot with(Entry entry) {
+            return change(entry, true);
+        }
+
+        /** Copy without the entry's limitId, looked up in the bucket the entry's scope selects. */
+        Snapshot without(Entry entry) {
+            return change(entry, false);
+        }
+
+        private Snapshot change(Entry entry, boolean add) {
+            String accountCode = entry.limit().getAccountCode();
+            String symbol = entry.limit().getSymbol();
+            if (accountCode != null && symbol != null) {
+                Map<String, List<Entry>> symbols =
+                    changed(byAccountAndSymbol.getOrDefault(accountCode, Map.of()), symbol, entry, add);
+                Map<String, Map<String, List<Entry>>> accounts = new HashMap<>(byAccountAndSymbol);
+                if (symbols.isEmpty()) {
+                    accounts.remove(accountCode);
+                } else {
+                    accounts.put(accountCode, symbols);
+                }
+                return new Snapshot(Collections.unmodifiableMap(accounts), byAccount, bySymbol, global);
+            } else if (accountCode != null) {
+                return new Snapshot(byAccountAndSymbol, changed(byAccount, accountCode, entry, add), bySymbol, global);
+            } else if (symbol != null) {
+                return new Snapshot(byAccountAndSymbol, byAccount, changed(bySymbol, symbol, entry, add), global);
+            }
+            return new Snapshot(byAccountAndSymbol, byAccount, bySymbol, changed(global, entry, add));
+        }
+
+        private static Map<String, List<Entry>> changed(Map<String, List<Entry>> tier, String key, Entry entry,
+                                                        boolean add) {
+            List<Entry> bucket = changed(tier.getOrDefault(key, List.of()), entry, add);
+            Map<String, List<Entry>> copy = new HashMap<>(tier);
+            if (bucket.isEmpty()) {
+                copy.remove(key);
+            } else {
+                copy.put(key, bucket);
+            }
+            return Collections.unmodifiableMap(copy);
+        }
+
+        private static List<Entry> changed(List<Entry> bucket, Entry entry, boolean add) {
+            List<Entry> copy = new ArrayList<>(bucket.size() + 1);
+            for (Entry existing : bucket) {
+                if (!existing.limit().getLimitId().equals(entry.limit().getLimitId())) {
+                    copy.add(existing);
+                }
+            }
+            if (add) {
+                copy.add(entry);
+            }
+            return List.copyOf(copy);
+        }
+
+        static Snapshot of(Collection<RiskLimit> limits) {
+            Map<String, Map<String, List<Entry>>> byAccountAndSymbol = new HashMap<>();
+            Map<String, List<Entry>> byAccount = new HashMap<>();
+            Map<String, List<Entry>> bySymbol = new HashMap<>();
+            List<Entry> global = new ArrayList<>();
+
+            for (RiskLimit limit : limits) {
+                if (!Boolean.TRUE.equals(limit.getIsActive())) {
+                    continue;
+                }
+                Entry entry = Entry.of(limit);
+                String accountCode = limit.getAccountCode();
+                String symbol = limit.getSymbol();
+                if (accountCode != null && symbol != null) {
+                    byAccountAndSymbol.computeIfAbsent(accountCode, k -> new HashMap<>())
+                        .computeIfAbsent(symbol, k -> new ArrayList<>()).add(entry);
+                } else if (accountCode != null) {
+                    byAccount.computeIfAbsent(accountCode, k -> new ArrayList<>()).add(entry);
+                } else if (symbol != null) {
+                    bySymbol.computeIfAbsent(symbol, k -> new ArrayList<>()).add(entry);
+                } else {
+                    global.add(entry);
+                }
+            }
+
+            Map<String, Map<String, List<Entry>>> nested = new HashMap<>();
+            byAccountAndSymbol.forEach((account, symbols) -> nested.put(account, freeze(symbols)));
+            return new Snapshot(Map.copyOf(nested), freeze(byAccount),
+                freeze(bySymbol), List.copyOf(global));
+        }
+
+        private static Map<String, List<Entry>> freeze(Map<String, List<Entry>> source) {
+            Map<String, List<Entry>> frozen = new HashMap<>();
+            source.forEach((key, value) -> frozen.put(key, List.copyOf(value)));
+            return Map.copyOf(frozen);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.tms.risk.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free Bloom filter over two generations. Once the current generation holds
+ * {@code expectedInsertions} keys it becomes the previous one and the old previous is dropped,
+ * so memory is fixed at two bit arrays and keys are remembered for at least one generation.
+ */
+public final class RotatingBloomFilter {
+
+    private final int expectedInsertions;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicReference<Generations> generations;
+
+    public RotatingBloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter sizing: expectedInsertions="
+                + expectedInsertions + ", falsePositiveRate=" + falsePositiveRate);
+        }
+        this.expectedInsertions = expectedInsertions;
+        // Each generation is checked, so size each one for half the target rate
+        double perGeneration = falsePositiveRate / 2;
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(perGeneration) / (Math.log(2) * Math.log(2)));
+        this.bitCount = Math.max(64, (bits + 63) & ~63L);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.generations = new AtomicReference<>(new Generations(newGeneration(), newGeneration()));
+    }
+
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        Generations current = generations.get();
+        return current.active().mightContain(hash) || current.previous().mightContain(hash);
+    }
+
+    public void put(String key) {
+        long hash = hash(key);
+        Generations current = generations.get();
+        if (current.active().put(hash) && current.active().size() >= expectedInsertions) {
+            generations.compareAndSet(current, new Generations(newGeneration(), current.active()));
+        }
+    }
+
+    /** Estimated false-positive rate across both generations at their current fill. */
+    public double falsePositiveRate() {
+        Generations current = generations.get();
+        double active = current.active().falsePositiveRate();
+        double previous = current.previous().falsePositiveRate();
+        return 1 - (1 - active) * (1 - previous);
+    }
+
+    public long size() {
+        Generations current = generations.get();
+        return (long) current.active().size() + current.previous().size();
+    }
+
+    public long memoryBytes() {
+        return 2 * bitCount / 8;
+    }
+
+    private Generation newGeneration() {
+        return new Generation(new AtomicLongArray((int) (bitCount / 64)), new AtomicInteger());
+    }
+
+    // 64-bit FNV-1a followed by the MurmurHash3 finalizer for avalanche
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // The step for double hashing, drawn from the hash by a second finalizer round; odd, so it is never 0
+    private static long step(long hash) {
+        return mix(hash + 0x9e3779b97f4a7c15L) | 1L;
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    // Double hashing in 64-bit arithmetic, so the indexes spread over any bitCount
+    private long bitIndex(long hash, long step, int i) {
+        return ((hash + i * step) & Long.MAX_VALUE) % bitCount;
+    }
+
+    private record Generations(Generation active, Generation previous) {
+    }
+
+    private final class Generation {
+        private final AtomicLongArray words;
+        private final AtomicInteger size;
+
+        Generation(AtomicLongArray words, AtomicInteger size) {
+            this.words = words;
+            this.size = size;
+        }
+
+        boolean mightContain(long hash) {
+            long step = step(hash);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = bitIndex(hash, step, i);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** Returns true if the key was not already present. */
+        boolean put(long hash) {
+            long step = step(hash);
+            boolean changed = false;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = bitIndex(hash, step, i);
+                long mask = 1L << bit;
+                int word = (int) (bit >>> 6);
+                if ((words.get(word) & mask) == 0) {
+                    long previous = words.getAndAccumulate(word, mask, (a, b) -> a | b);
+                    changed |= (previous & mask) == 0;
+                }
+            }
+            if (changed) {
+                size.incrementAndGet();
+            }
+            return changed;
+        }
+
+        int size() {
+            return size.get();
+        }
+
+        double falsePositiveRate() {
+            return Math.pow(1 - Math.exp(-(double) hashCount * size.get() / bitCount), hashCount);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+-- Risk Service Database Schema
+-- V10: Enforce alert_id uniqueness again on the partitioned risk_alert
+
+-- The V7 primary key is (created_at, alert_id), so nothing stopped two rows sharing an alert_id.
+-- An aligned unique index would have to include created_at and could not enforce it either, so
+-- this one is non-aligned, on [PRIMARY]. That rules out partition SWITCH; RiskAlertRetentionJob
+-- archives row by row and merges the boundaries it has emptied instead.
+DROP INDEX idx_risk_alert_id ON risk_alert;
+CREATE UNIQUE NONCLUSTERED INDEX idx_risk_alert_id ON risk_alert(alert_id) ON [PRIMARY];
@@ -0,0 +1,10 @@
+-- Risk Service Database Schema
+-- V2: Security-to-sector reference data for sector exposure limits
+
+CREATE TABLE security_sector (
+    symbol VARCHAR(20) NOT NULL PRIMARY KEY,
+    sector VARCHAR(50) NOT NULL,
+    updated_at DATETIME2 NOT NULL DEFAULT GETDATE()
+);
+
+CREATE INDEX idx_security_sector_sector ON security_sector(sector);
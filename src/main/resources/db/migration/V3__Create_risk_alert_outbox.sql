@@ -0,0 +1,12 @@
+-- Risk Service Database Schema
+-- V3: Transactional outbox for RiskAlert events
+
+-- Rows are written in the same transaction as risk_alert and deleted once published
+CREATE TABLE risk_alert_outbox (
+    outbox_id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    alert_id BIGINT NOT NULL,
+    topic VARCHAR(100) NOT NULL,
+    message_key VARCHAR(100) NULL,
+    payload VARCHAR(MAX) NOT NULL,
+    created_at DATETIME2 NOT NULL DEFAULT GETDATE()
+);
@@ -0,0 +1,56 @@
+-- Risk Service Database Schema
+-- V4: Sequence-allocated risk_alert ids so alert inserts can be JDBC batched
+
+-- Ids are handed out in blocks of 50 (pooled-lo): NEXT VALUE returns the first id of the block
+DECLARE @start BIGINT = (SELECT ISNULL(MAX(alert_id), 0) + 1 FROM risk_alert);
+DECLARE @sql NVARCHAR(200) = N'CREATE SEQUENCE risk_alert_seq AS BIGINT START WITH '
+    + CAST(@start AS NVARCHAR(20)) + N' INCREMENT BY 50';
+EXEC sp_executesql @sql;
+GO
+
+-- IDENTITY cannot be dropped in place, so rebuild the table without it
+CREATE TABLE risk_alert_new (
+    alert_id BIGINT NOT NULL,
+    limit_id BIGINT NULL,
+    alert_type VARCHAR(50) NOT NULL,
+    severity VARCHAR(20) NOT NULL,
+    account_id BIGINT NULL,
+    account_code VARCHAR(50) NULL,
+    instrument_id BIGINT NULL,
+    symbol VARCHAR(20) NULL,
+    triggering_trade_id VARCHAR(50) NULL,
+    current_value DECIMAL(18, 4) NULL,
+    limit_value DECIMAL(18, 4) NULL,
+    utilization_pct DECIMAL(5, 2) NULL,
+    message VARCHAR(500) NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'OPEN',
+    acknowledged_by VARCHAR(100) NULL,
+    acknowledged_at DATETIME2 NULL,
+    resolved_at DATETIME2 NULL,
+    created_at DATETIME2 NOT NULL DEFAULT GETDATE()
+);
+
+INSERT INTO risk_alert_new (alert_id, limit_id, alert_type, severity, account_id, account_code,
+                            instrument_id, symbol, triggering_trade_id, current_value, limit_value,
+                            utilization_pct, message, status, acknowledged_by, acknowledged_at,
+                            resolved_at, created_at)
+SELECT alert_id, limit_id, alert_type, severity, account_id, account_code,
+       instrument_id, symbol, triggering_trade_id, current_value, limit_value,
+       utilization_pct, message, status, acknowledged_by, acknowledged_at,
+       resolved_at, created_at
+FROM risk_alert;
+
+DROP TABLE risk_alert;
+EXEC sp_rename 'risk_alert_new', 'risk_alert';
+GO
+
+ALTER TABLE risk_alert ADD CONSTRAINT pk_risk_alert PRIMARY KEY (alert_id);
+ALTER TABLE risk_alert ADD CONSTRAINT fk_risk_alert_limit
+    FOREIGN KEY (limit_id) REFERENCES risk_limit(limit_id);
+
+-- Indexes for risk alert queries
+CREATE INDEX idx_risk_alert_status ON risk_alert(status);
+CREATE INDEX idx_risk_alert_severity ON risk_alert(severity);
+CREATE INDEX idx_risk_alert_account_code ON risk_alert(account_code);
+CREATE INDEX idx_risk_alert_created_at ON risk_alert(created_at);
+CREATE INDEX idx_risk_alert_trade_id ON risk_alert(triggering_trade_id);
@@ -0,0 +1,12 @@
+-- Risk Service Database Schema
+-- V5: Per-partition high-water mark of consumed events whose alerts are durable
+
+CREATE TABLE risk_consumer_offset (
+    consumer_group VARCHAR(100) NOT NULL,
+    topic VARCHAR(200) NOT NULL,
+    partition_id INT NOT NULL,
+    high_water_offset BIGINT NOT NULL,
+    updated_at DATETIME2 NOT NULL DEFAULT GETDATE(),
+
+    CONSTRAINT pk_risk_consumer_offset PRIMARY KEY (consumer_group, topic, partition_id)
+);
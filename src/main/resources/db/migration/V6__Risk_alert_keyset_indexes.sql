@@ -0,0 +1,5 @@
+-- Risk Service Database Schema
+-- V6: Indexes for keyset pagination of alerts, newest first on (created_at, alert_id)
+
+CREATE INDEX idx_risk_alert_status_created ON risk_alert(status, created_at DESC, alert_id DESC);
+CREATE INDEX idx_risk_alert_account_created ON risk_alert(account_code, created_at DESC, alert_id DESC);
@@ -0,0 +1,112 @@
+-- Risk Service Database Schema
+-- V7: Monthly partitions on risk_alert.created_at, filtered open-alert indexes and a cold archive
+
+-- RANGE RIGHT: each boundary is the first instant of its month. Boundaries run from the oldest
+-- alert's month to three months ahead; RiskAlertRetentionJob keeps adding future months
+DECLARE @oldest DATETIME2 = ISNULL((SELECT MIN(created_at) FROM risk_alert), GETDATE());
+DECLARE @boundary DATE = DATEFROMPARTS(YEAR(@oldest), MONTH(@oldest), 1);
+DECLARE @last DATE = DATEADD(MONTH, 3, DATEFROMPARTS(YEAR(GETDATE()), MONTH(GETDATE()), 1));
+DECLARE @sql NVARCHAR(300) = N'CREATE PARTITION FUNCTION pf_risk_alert_created (DATETIME2) AS RANGE RIGHT FOR VALUES ('''
+    + CONVERT(NVARCHAR(10), @boundary, 23) + N''')';
+EXEC sp_executesql @sql;
+EXEC sp_executesql N'CREATE PARTITION SCHEME ps_risk_alert_created AS PARTITION pf_risk_alert_created ALL TO ([PRIMARY])';
+
+SET @boundary = DATEADD(MONTH, 1, @boundary);
+WHILE @boundary <= @last
+BEGIN
+    EXEC sp_executesql N'ALTER PARTITION SCHEME ps_risk_alert_created NEXT USED [PRIMARY]';
+    EXEC sp_executesql N'ALTER PARTITION FUNCTION pf_risk_alert_created() SPLIT RANGE (@value)',
+        N'@value DATETIME2', @value = @boundary;
+    SET @boundary = DATEADD(MONTH, 1, @boundary);
+END;
+GO
+
+-- Rebuild the table on the partition scheme
+CREATE TABLE risk_alert_new (
+    alert_id BIGINT NOT NULL,
+    limit_id BIGINT NULL,
+    alert_type VARCHAR(50) NOT NULL,
+    severity VARCHAR(20) NOT NULL,
+    account_id BIGINT NULL,
+    account_code VARCHAR(50) NULL,
+    instrument_id BIGINT NULL,
+    symbol VARCHAR(20) NULL,
+    triggering_trade_id VARCHAR(50) NULL,
+    current_value DECIMAL(18, 4) NULL,
+    limit_value DECIMAL(18, 4) NULL,
+    utilization_pct DECIMAL(5, 2) NULL,
+    message VARCHAR(500) NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'OPEN',
+    acknowledged_by VARCHAR(100) NULL,
+    acknowledged_at DATETIME2 NULL,
+    resolved_at DATETIME2 NULL,
+    created_at DATETIME2 NOT NULL DEFAULT GETDATE()
+) ON ps_risk_alert_created(created_at);
+
+INSERT INTO risk_alert_new (alert_id, limit_id, alert_type, severity, account_id, account_code,
+                            instrument_id, symbol, triggering_trade_id, current_value, limit_value,
+                            utilization_pct, message, status, acknowledged_by, acknowledged_at,
+                            resolved_at, created_at)
+SELECT alert_id, limit_id, alert_type, severity, account_id, account_code,
+       instrument_id, symbol, triggering_trade_id, current_value, limit_value,
+       utilization_pct, message, status, acknowledged_by, acknowledged_at,
+       resolved_at, created_at
+FROM risk_alert;
+
+DROP TABLE risk_alert;
+EXEC sp_rename 'risk_alert_new', 'risk_alert';
+GO
+
+-- An aligned unique index must contain the partitioning column, so the clustered key is
+-- (created_at, alert_id); alert_id stays unique through risk_alert_seq
+ALTER TABLE risk_alert ADD CONSTRAINT pk_risk_alert
+    PRIMARY KEY CLUSTERED (created_at, alert_id) ON ps_risk_alert_created(created_at);
+ALTER TABLE risk_alert ADD CONSTRAINT fk_risk_alert_limit
+    FOREIGN KEY (limit_id) REFERENCES risk_limit(limit_id);
+
+-- Lookups by id (acknowledge, resolve, write-behind guard) seek once per partition
+CREATE INDEX idx_risk_alert_id ON risk_alert(alert_id);
+CREATE INDEX idx_risk_alert_trade_id ON risk_alert(triggering_trade_id);
+
+-- Keyset pagination (V6); the single-column status, severity, account and created_at indexes are gone
+CREATE INDEX idx_risk_alert_status_created ON risk_alert(status, created_at DESC, alert_id DESC);
+CREATE INDEX idx_risk_alert_account_created ON risk_alert(account_code, created_at DESC, alert_id DESC);
+
+-- Open alerts only: these stay the size of the open set however much history accumulates. The
+-- optimizer only matches them to queries with a literal status = 'OPEN' predicate
+CREATE INDEX idx_risk_alert_open_key ON risk_alert(limit_id, account_code, symbol)
+    INCLUDE (alert_type, severity)
+    WHERE status = 'OPEN';
+CREATE INDEX idx_risk_alert_open_severity ON risk_alert(severity, created_at DESC)
+    INCLUDE (account_code, symbol, alert_type)
+    WHERE status = 'OPEN';
+CREATE INDEX idx_risk_alert_open_account ON risk_alert(account_code, symbol, alert_type)
+    INCLUDE (limit_id, severity)
+    WHERE status = 'OPEN';
+GO
+
+-- Cold storage for resolved alerts past retention, filled by RiskAlertRetentionJob
+CREATE TABLE risk_alert_archive (
+    alert_id BIGINT NOT NULL,
+    limit_id BIGINT NULL,
+    alert_type VARCHAR(50) NOT NULL,
+    severity VARCHAR(20) NOT NULL,
+    account_id BIGINT NULL,
+    account_code VARCHAR(50) NULL,
+    instrument_id BIGINT NULL,
+    symbol VARCHAR(20) NULL,
+    triggering_trade_id VARCHAR(50) NULL,
+    current_value DECIMAL(18, 4) NULL,
+    limit_value DECIMAL(18, 4) NULL,
+    utilization_pct DECIMAL(5, 2) NULL,
+    message VARCHAR(500) NULL,
+    status VARCHAR(20) NOT NULL,
+    acknowledged_by VARCHAR(100) NULL,
+    acknowledged_at DATETIME2 NULL,
+    resolved_at DATETIME2 NULL,
+    created_at DATETIME2 NOT NULL,
+    archived_at DATETIME2 NOT NULL,
+
+    CONSTRAINT pk_risk_alert_archive PRIMARY KEY CLUSTERED (created_at, alert_id)
+        WITH (DATA_COMPRESSION = PAGE)
+);
@@ -0,0 +1,9 @@
+-- Risk Service Database Schema
+-- V8: Event id on outbox rows so a retried write-behind flush cannot enqueue an alert event twice
+
+ALTER TABLE risk_alert_outbox ADD event_id VARCHAR(36) NULL;
+GO
+
+-- Rows enqueued before V8 have no event id
+CREATE UNIQUE INDEX idx_risk_alert_outbox_event_id ON risk_alert_outbox(event_id)
+    WHERE event_id IS NOT NULL;
@@ -0,0 +1,19 @@
+-- Risk Service Database Schema
+-- V9: Room for utilization above 999.99% and a dead-letter table for alert writes the database rejects
+
+-- Not part of any index, so the partitioned table can be altered in place
+ALTER TABLE risk_alert ALTER COLUMN utilization_pct DECIMAL(9, 2) NULL;
+ALTER TABLE risk_alert_archive ALTER COLUMN utilization_pct DECIMAL(9, 2) NULL;
+GO
+
+-- Rows that failed on their own when a write-behind batch was split; payload is the RiskAlert event
+CREATE TABLE risk_alert_dead_letter (
+    dead_letter_id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    alert_id BIGINT NOT NULL,
+    operation VARCHAR(20) NOT NULL,
+    payload VARCHAR(MAX) NULL,
+    error VARCHAR(1000) NULL,
+    created_at DATETIME2 NOT NULL DEFAULT GETDATE()
+);
+
+CREATE INDEX idx_risk_alert_dead_letter_alert ON risk_alert_dead_letter(alert_id, operation);
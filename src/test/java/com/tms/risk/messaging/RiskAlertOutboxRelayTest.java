@@ -0,0 +1,97 @@
+package com.tms.risk.messaging;
+
+import com.tms.risk.entity.RiskAlertOutbox;
+import com.tms.risk.repository.RiskAlertOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RiskAlertOutboxRelayTest {
+
+    private static final String PAYLOAD = "{\"eventId\":\"evt-1\",\"alertId\":\"1\"}";
+
+    private final RiskAlertOutboxRepository riskAlertOutboxRepository = mock(RiskAlertOutboxRepository.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, String> outboxKafkaTemplate = mock(KafkaTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaOperations<String, String> transaction = mock(KafkaOperations.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final List<RiskAlertOutbox> batch = List.of(row(1L, "evt-1"), row(2L, "evt-2"));
+    private RiskAlertOutboxRelay relay;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(riskAlertOutboxRepository.findNextBatch(any())).thenReturn(batch, List.of());
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            ((TransactionCallback<Integer>) invocation.getArgument(0)).doInTransaction(null));
+        when(outboxKafkaTemplate.isTransactional()).thenReturn(true);
+        when(outboxKafkaTemplate.executeInTransaction(any())).thenAnswer(invocation ->
+            ((KafkaOperations.OperationsCallback<String, String, Object>) invocation.getArgument(0))
+                .doInOperations(transaction));
+        relay = new RiskAlertOutboxRelay(riskAlertOutboxRepository, outboxKafkaTemplate, transactionTemplate,
+            new SimpleMeterRegistry(), 500, 1_000);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendsTheStoredPayloadAndDeletesInsideTheKafkaTransaction() {
+        when(transaction.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.relay();
+
+        ArgumentCaptor<ProducerRecord<String, String>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        InOrder order = inOrder(transaction, riskAlertOutboxRepository);
+        order.verify(transaction, times(2)).send(sent.capture());
+        order.verify(riskAlertOutboxRepository).deleteAllInBatch(batch);
+        verify(outboxKafkaTemplate, never()).send(any(ProducerRecord.class));
+
+        ProducerRecord<String, String> first = sent.getAllValues().get(0);
+        assertThat(first.value()).isSameAs(PAYLOAD);
+        assertThat(first.key()).isEqualTo("ACC1:HIGH");
+        assertThat(new String(first.headers().lastHeader(RiskAlertOutboxRelay.EVENT_ID_HEADER).value(),
+            StandardCharsets.UTF_8)).isEqualTo("evt-1");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedSendKeepsTheRows() {
+        when(transaction.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture(null), CompletableFuture.failedFuture(new RuntimeException()));
+
+        relay.relay();
+
+        verify(riskAlertOutboxRepository, never()).deleteAllInBatch(any());
+    }
+
+    private static RiskAlertOutbox row(Long alertId, String eventId) {
+        return RiskAlertOutbox.builder()
+            .outboxId(alertId)
+            .alertId(alertId)
+            .eventId(eventId)
+            .topic("risk.alerts")
+            .messageKey("ACC1:HIGH")
+            .payload(PAYLOAD)
+            .build();
+    }
+}
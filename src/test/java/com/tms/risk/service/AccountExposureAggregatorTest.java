@@ -0,0 +1,74 @@
+package com.tms.risk.service;
+
+import com.tms.risk.event.PositionUpdate;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccountExposureAggregatorTest {
+
+    private final AccountExposureAggregator aggregator = new AccountExposureAggregator();
+
+    @Test
+    void positionsInTheSameSymbolAreSummed() {
+        aggregator.apply(update("POS-1", "ACC1", 100, 1_000, 1L));
+        aggregator.apply(update("POS-2", "ACC1", -30, -450, 2L));
+
+        AccountExposureAggregator.PositionExposure position = aggregator.findPosition("ACC1", "AAPL");
+
+        assertThat(position.quantity()).isEqualTo(qty(70));
+        assertThat(position.costBasis()).isEqualTo(amount(550));
+        assertThat(position.eventTime()).isEqualTo(2L);
+        assertThat(aggregator.accountExposure("ACC1")).isEqualTo(amount(1_450));
+    }
+
+    @Test
+    void accountChangeMovesThePositionOutOfTheOldAccount() {
+        aggregator.apply(update("POS-1", "ACC1", 100, 1_000, 1L));
+        aggregator.apply(update("POS-1", "ACC2", 100, 1_000, 2L));
+
+        assertThat(aggregator.findPosition("ACC1", "AAPL")).isNull();
+        assertThat(aggregator.findPosition("ACC2", "AAPL").quantity()).isEqualTo(qty(100));
+        assertThat(aggregator.accountExposure("ACC1")).isZero();
+        assertThat(aggregator.accountExposure("ACC2")).isEqualTo(amount(1_000));
+    }
+
+    @Test
+    void flatPositionsAreEvictedOnceOlderThanTheCutoff() {
+        aggregator.apply(update("POS-1", "ACC1", 100, 1_000, 1L));
+        aggregator.apply(update("POS-1", "ACC1", 0, 0, 2L));
+        aggregator.apply(update("POS-2", "ACC1", 0, 0, 10L));
+        aggregator.apply(update("POS-3", "ACC1", 50, 500, 3L));
+
+        assertThat(aggregator.evictFlat(5L)).extracting(AccountExposureAggregator.PositionExposure::eventTime)
+            .containsExactly(2L);
+
+        assertThat(aggregator.positions()).containsOnlyKeys("POS-2", "POS-3");
+        assertThat(aggregator.findPosition("ACC1", "AAPL").quantity()).isEqualTo(qty(50));
+        assertThat(aggregator.accountExposure("ACC1")).isEqualTo(amount(500));
+    }
+
+    @Test
+    void olderEventIsStaleUntilTheFlatPositionIsEvicted() {
+        aggregator.apply(update("POS-1", "ACC1", 100, 1_000, 1L));
+        aggregator.apply(update("POS-1", "ACC1", 0, 0, 2L));
+
+        assertThat(aggregator.apply(update("POS-1", "ACC1", 100, 1_000, 1L))).isSameAs(AccountExposureAggregator.STALE);
+        assertThat(aggregator.positionCount()).isEqualTo(1);
+    }
+
+    private static PositionUpdate update(String positionId, String accountCode, long quantity, long costBasis,
+                                         long eventTime) {
+        return new PositionUpdate("EVT-" + positionId + "-" + eventTime, eventTime, null, positionId, accountCode,
+            "AAPL", "TRD-" + eventTime, qty(quantity), quantity != 0 ? amount(costBasis) / quantity : 0L,
+            amount(costBasis));
+    }
+
+    private static long qty(long quantity) {
+        return quantity * FixedPoint.ONE;
+    }
+
+    private static long amount(long amount) {
+        return amount * FixedPoint.ONE;
+    }
+}
@@ -0,0 +1,145 @@
+package com.tms.risk.service;
+
+import com.tms.risk.entity.RiskAlert;
+import com.tms.risk.entity.RiskLimit;
+import com.tms.risk.event.AlertStateChange;
+import com.tms.risk.repository.RiskAlertRepository;
+import com.tms.risk.repository.RiskLimitRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AlertSummaryCountersTest {
+
+    private final RiskAlertRepository riskAlertRepository = mock(RiskAlertRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AlertSummaryCounters counters;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RiskLimitIndex riskLimitIndex = new RiskLimitIndex(mock(RiskLimitRepository.class), mock(ObjectProvider.class));
+        riskLimitIndex.replaceAll(List.of(RiskLimit.builder()
+            .limitId(1L)
+            .limitType(RiskLimit.LimitType.MAX_POSITION_VALUE)
+            .limitValue(BigDecimal.ONE)
+            .isActive(true)
+            .build()));
+        counters = new AlertSummaryCounters(riskAlertRepository, riskLimitIndex, mock(RiskAlertWriteBehind.class),
+            meterRegistry);
+    }
+
+    @Test
+    void countsFollowTheAlertLifecycle() {
+        counters.apply(change(AlertStateChange.Type.CREATED, alert(1L, "ACC1", RiskAlert.Severity.HIGH, 1L)));
+        counters.apply(change(AlertStateChange.Type.CREATED, alert(2L, "ACC1", RiskAlert.Severity.LOW, 99L)));
+        counters.apply(change(AlertStateChange.Type.CREATED, alert(3L, "ACC2", RiskAlert.Severity.HIGH, 1L)));
+        counters.apply(change(AlertStateChange.Type.ACKNOWLEDGED, alert(2L, "ACC1", RiskAlert.Severity.LOW, 99L)));
+        counters.apply(change(AlertStateChange.Type.RESOLVED, alert(3L, "ACC2", RiskAlert.Severity.HIGH, 1L)));
+
+        AlertSummaryCounters.Summary summary = counters.summary();
+
+        assertThat(summary.open()).isEqualTo(1);
+        assertThat(summary.acknowledged()).isEqualTo(1);
+        assertThat(summary.openBySeverity()).isEqualTo(Map.of("HIGH", 1L));
+        assertThat(summary.openByAccount()).isEqualTo(Map.of("ACC1", 1L));
+        assertThat(summary.openByLimitType()).isEqualTo(Map.of("MAX_POSITION_VALUE", 1L));
+    }
+
+    @Test
+    void repeatedAndOutOfOrderChangesAreIgnored() {
+        RiskAlert alert = alert(1L, "ACC1", RiskAlert.Severity.HIGH, 1L);
+        counters.apply(change(AlertStateChange.Type.RESOLVED, alert));
+        counters.apply(change(AlertStateChange.Type.ACKNOWLEDGED, alert));
+        counters.apply(change(AlertStateChange.Type.CREATED, alert));
+        AlertSummaryCounters.Summary first = counters.summary();
+        counters.apply(change(AlertStateChange.Type.CREATED, alert));
+
+        assertThat(counters.summary()).isSameAs(first);
+        assertThat(first.open()).isEqualTo(1);
+        assertThat(first.acknowledged()).isZero();
+    }
+
+    @Test
+    void unknownLimitsAreCountedUnderUnknown() {
+        counters.apply(change(AlertStateChange.Type.CREATED, alert(1L, "ACC1", RiskAlert.Severity.HIGH, 99L)));
+        counters.apply(change(AlertStateChange.Type.CREATED, alert(2L, "ACC1", RiskAlert.Severity.HIGH, null)));
+
+        assertThat(counters.summary().openByLimitType()).isEqualTo(Map.of("UNKNOWN", 2L));
+    }
+
+    @Test
+    void reconcileRebuildsFromTheDatabaseAndCountsDrift() {
+        counters.apply(change(AlertStateChange.Type.CREATED, alert(1L, "ACC1", RiskAlert.Severity.HIGH, 1L)));
+        counters.apply(change(AlertStateChange.Type.CREATED, alert(2L, "ACC1", RiskAlert.Severity.HIGH, 1L)));
+        RiskAlert acknowledged = alert(3L, "ACC2", RiskAlert.Severity.LOW, 1L);
+        acknowledged.setStatus(RiskAlert.AlertStatus.ACKNOWLEDGED);
+        // Alert 2 was resolved and alert 3 acknowledged by a replica this instance did not hear from
+        when(riskAlertRepository.findUnresolvedAlerts())
+            .thenReturn(List.of(alert(1L, "ACC1", RiskAlert.Severity.HIGH, 1L), acknowledged));
+
+        counters.reconcile();
+
+        AlertSummaryCounters.Summary summary = counters.summary();
+        assertThat(summary.open()).isEqualTo(1);
+        assertThat(summary.acknowledged()).isEqualTo(1);
+        assertThat(summary.reconciledAt()).isNotNull();
+        assertThat(meterRegistry.get("risk.alerts.summary.drift").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void changesDuringReconcileAreReplayedOnTheDatabaseRead() {
+        RiskAlert raised = alert(2L, "ACC1", RiskAlert.Severity.HIGH, 1L);
+        when(riskAlertRepository.findUnresolvedAlerts()).thenAnswer(invocation -> {
+            // Committed after the read started, so missing from its result
+            counters.apply(change(AlertStateChange.Type.CREATED, raised));
+            counters.apply(change(AlertStateChange.Type.RESOLVED, alert(1L, "ACC1", RiskAlert.Severity.HIGH, 1L)));
+            return List.of(alert(1L, "ACC1", RiskAlert.Severity.HIGH, 1L));
+        });
+        counters.apply(change(AlertStateChange.Type.CREATED, alert(1L, "ACC1", RiskAlert.Severity.HIGH, 1L)));
+
+        counters.reconcile();
+
+        assertThat(counters.summary().open()).isEqualTo(1);
+        assertThat(meterRegistry.get("risk.alerts.summary.drift").counter().count()).isZero();
+        counters.apply(change(AlertStateChange.Type.RESOLVED, raised));
+        assertThat(counters.summary().open()).isZero();
+    }
+
+    @Test
+    void failedReconcileKeepsTheCurrentCounts() {
+        counters.apply(change(AlertStateChange.Type.CREATED, alert(1L, "ACC1", RiskAlert.Severity.HIGH, 1L)));
+        when(riskAlertRepository.findUnresolvedAlerts()).thenThrow(new IllegalStateException("database down"));
+
+        counters.reconcile();
+        counters.apply(change(AlertStateChange.Type.CREATED, alert(2L, "ACC1", RiskAlert.Severity.HIGH, 1L)));
+
+        assertThat(counters.summary().open()).isEqualTo(2);
+        assertThat(counters.summary().reconciledAt()).isNull();
+    }
+
+    private static AlertStateChange change(AlertStateChange.Type type, RiskAlert alert) {
+        return AlertStateChange.of(type, alert, LocalDateTime.now());
+    }
+
+    private static RiskAlert alert(Long alertId, String accountCode, RiskAlert.Severity severity, Long limitId) {
+        return RiskAlert.builder()
+            .alertId(alertId)
+            .limitId(limitId)
+            .alertType(RiskAlert.AlertType.LIMIT_BREACH)
+            .severity(severity)
+            .accountCode(accountCode)
+            .status(RiskAlert.AlertStatus.OPEN)
+            .build();
+    }
+}
@@ -0,0 +1,142 @@
+package com.tms.risk.service;
+
+import com.tms.risk.event.PositionUpdate;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DailyTradeCounterTest {
+
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+
+    @Test
+    void replayedTradesAreCountedOnce() {
+        DailyTradeCounter counter = new DailyTradeCounter("UTC", "00:00", true, 1_000);
+
+        counter.record(update("ACC1", "AAPL", "TRD-1"));
+        counter.record(update("ACC1", "MSFT", "TRD-2"));
+        counter.record(update("ACC1", "AAPL", "TRD-1"));
+        counter.record(update("ACC2", "AAPL", "TRD-3"));
+        counter.record(update("ACC1", "AAPL", null));
+
+        assertThat(counter.accountTrades("ACC1")).isEqualTo(2);
+        assertThat(counter.accountTrades("ACC2")).isEqualTo(1);
+        assertThat(counter.symbolTrades("ACC1", "AAPL")).isEqualTo(1);
+        assertThat(counter.symbolTrades("ACC1", "MSFT")).isEqualTo(1);
+        assertThat(counter.accountTrades("ACC3")).isZero();
+    }
+
+    @Test
+    void symbolTradesFallBackToTheAccountWhenPerSymbolCountingIsOff() {
+        DailyTradeCounter counter = new DailyTradeCounter("UTC", "00:00", false, 1_000);
+
+        counter.record(update("ACC1", "AAPL", "TRD-1"));
+        counter.record(update("ACC1", "MSFT", "TRD-2"));
+
+        assertThat(counter.symbolTrades("ACC1", "AAPL")).isEqualTo(2);
+    }
+
+    @Test
+    void lateTradesFromAnEarlierDayAreNotCountedAndFutureOnesCountToday() {
+        DailyTradeCounter counter = new DailyTradeCounter("UTC", "00:00", false, 1_000);
+        long now = System.currentTimeMillis();
+
+        counter.record(update("ACC1", "AAPL", "TRD-1", now));
+        counter.record(update("ACC1", "AAPL", "TRD-2", now - DAY_MILLIS));
+        // A skewed producer clock must not roll the day forward
+        counter.record(update("ACC1", "AAPL", "TRD-3", now + 2 * DAY_MILLIS));
+        counter.record(update("ACC1", "AAPL", "TRD-4", now));
+
+        assertThat(counter.accountTrades("ACC1")).isEqualTo(3);
+    }
+
+    @Test
+    void tradingDayStartsAtTheRolloverTimeInTheConfiguredZone() {
+        ZoneId zone = ZoneId.of("America/New_York");
+        LocalTime rollover = LocalTime.of(17, 0);
+        DailyTradeCounter counter = new DailyTradeCounter(zone.getId(), rollover.toString(), false, 1_000);
+
+        counter.record(update("ACC1", "AAPL", "TRD-1"));
+
+        ZonedDateTime local = ZonedDateTime.now(zone);
+        assertThat(counter.snapshot().tradingDate())
+            .isEqualTo(local.toLocalTime().isBefore(rollover) ? local.toLocalDate().minusDays(1) : local.toLocalDate());
+    }
+
+    @Test
+    void restoredCountersKeepDeduplicatingTrades() {
+        DailyTradeCounter counter = new DailyTradeCounter("UTC", "00:00", true, 1_000);
+        counter.record(update("ACC1", "AAPL", "TRD-1"));
+        counter.record(update("ACC1", "MSFT", "TRD-2"));
+
+        DailyTradeCounter restored = new DailyTradeCounter("UTC", "00:00", true, 1_000);
+        assertThat(restored.restore(counter.snapshot())).isTrue();
+        restored.record(update("ACC1", "AAPL", "TRD-1"));
+        restored.record(update("ACC1", "AAPL", "TRD-3"));
+
+        assertThat(restored.accountTrades("ACC1")).isEqualTo(3);
+        assertThat(restored.symbolTrades("ACC1", "AAPL")).isEqualTo(2);
+    }
+
+    @Test
+    void snapshotFromAnEarlierDayIsNotRestored() {
+        DailyTradeCounter counter = new DailyTradeCounter("UTC", "00:00", false, 1_000);
+        counter.record(update("ACC1", "AAPL", "TRD-1"));
+        DailyTradeCounter.Snapshot snapshot = counter.snapshot();
+        DailyTradeCounter.Snapshot yesterday = new DailyTradeCounter.Snapshot(snapshot.tradingDate().minusDays(1),
+            snapshot.byAccount(), snapshot.byAccountAndSymbol(), snapshot.tradeIds());
+
+        DailyTradeCounter restored = new DailyTradeCounter("UTC", "00:00", false, 1_000);
+
+        assertThat(restored.restore(yesterday)).isFalse();
+        assertThat(restored.accountTrades("ACC1")).isZero();
+    }
+
+    @Test
+    void fullTradeIdSetAdmitsEveryTrade() {
+        DailyTradeCounter counter = new DailyTradeCounter("UTC", "00:00", false, 2);
+
+        counter.record(update("ACC1", "AAPL", "TRD-1"));
+        counter.record(update("ACC1", "AAPL", "TRD-2"));
+        counter.record(update("ACC1", "AAPL", "TRD-3"));
+        counter.record(update("ACC1", "AAPL", "TRD-3"));
+        // Tracked before the set filled up, so still de-duplicated
+        counter.record(update("ACC1", "AAPL", "TRD-1"));
+
+        assertThat(counter.accountTrades("ACC1")).isEqualTo(4);
+    }
+
+    @Test
+    void concurrentReplaysCountEachTradeOnce() {
+        DailyTradeCounter counter = new DailyTradeCounter("UTC", "00:00", true, 100_000);
+        List<CompletableFuture<Void>> threads = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            threads.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    counter.record(update("ACC1", i % 2 == 0 ? "AAPL" : "MSFT", "TRD-" + i));
+                }
+            }));
+        }
+        threads.forEach(CompletableFuture::join);
+
+        assertThat(counter.accountTrades("ACC1")).isEqualTo(10_000);
+        assertThat(counter.symbolTrades("ACC1", "AAPL")).isEqualTo(5_000);
+        assertThat(counter.snapshot().tradeIds()).hasSize(10_000);
+    }
+
+    private static PositionUpdate update(String accountCode, String symbol, String tradeId) {
+        return update(accountCode, symbol, tradeId, System.currentTimeMillis());
+    }
+
+    private static PositionUpdate update(String accountCode, String symbol, String tradeId, long eventTime) {
+        return new PositionUpdate("EVT-" + tradeId, eventTime, null, accountCode + ":" + symbol, accountCode, symbol,
+            tradeId, FixedPoint.ONE, FixedPoint.ONE, FixedPoint.ONE);
+    }
+}
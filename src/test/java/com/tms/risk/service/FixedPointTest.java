@@ -0,0 +1,260 @@
+package com.tms.risk.service;
+
+import com.tms.risk.entity.RiskAlert;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks the fixed-point path against the BigDecimal HALF_UP code it replaced, over the whole
+ * DECIMAL(18,4) amount range and the DECIMAL(9,2) utilization range.
+ */
+class FixedPointTest {
+
+    private static final int SAMPLES = 200_000;
+    private static final BigInteger MAX_UNSCALED = BigInteger.valueOf(FixedPoint.MAX_VALUE);
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final SplittableRandom random = new SplittableRandom(20_240_601L);
+
+    @Test
+    void ofRoundsHalfUpToFourPlaces() {
+        assertThat(FixedPoint.of(new BigDecimal("0.00005"))).isEqualTo(1L);
+        assertThat(FixedPoint.of(new BigDecimal("0.00004999"))).isZero();
+        assertThat(FixedPoint.of(new BigDecimal("-0.00005"))).isEqualTo(-1L);
+        assertThat(FixedPoint.of(new BigDecimal("99999999999999.9999"))).isEqualTo(FixedPoint.MAX_VALUE);
+        assertThat(FixedPoint.of(new BigDecimal("-99999999999999.99994"))).isEqualTo(-FixedPoint.MAX_VALUE);
+
+        for (int i = 0; i < SAMPLES; i++) {
+            BigDecimal value = new BigDecimal(BigInteger.valueOf(amount()).multiply(BigInteger.valueOf(random.nextInt(1, 1_000))),
+                random.nextInt(0, 9));
+            assertSame(() -> value.setScale(FixedPoint.SCALE, RoundingMode.HALF_UP).unscaledValue(),
+                () -> FixedPoint.of(value));
+        }
+    }
+
+    @Test
+    void ofRejectsValuesOutsideDecimal18x4() {
+        assertThatThrownBy(() -> FixedPoint.of(new BigDecimal("99999999999999.99995")))
+            .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> FixedPoint.of(new BigDecimal("-100000000000000")))
+            .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> FixedPoint.of(new BigDecimal("1E+30")))
+            .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void parseMatchesBigDecimal() {
+        assertThat(FixedPoint.parse("12.34565")).isEqualTo(123_457L);
+        assertThat(FixedPoint.parse("-12.34564")).isEqualTo(-123_456L);
+        assertThat(FixedPoint.parse("1E+2")).isEqualTo(100 * FixedPoint.ONE);
+        assertThatThrownBy(() -> FixedPoint.parse("99999999999999.99995")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> FixedPoint.parse("1000000000000000")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> FixedPoint.parse("-")).isInstanceOf(NumberFormatException.class);
+
+        for (int i = 0; i < SAMPLES; i++) {
+            String text = BigDecimal.valueOf(amount(), random.nextInt(0, 9)).toPlainString();
+            BigDecimal expected = new BigDecimal(text).setScale(FixedPoint.SCALE, RoundingMode.HALF_UP);
+            if (expected.unscaledValue().abs().compareTo(MAX_UNSCALED) > 0) {
+                assertThatThrownBy(() -> FixedPoint.parse(text)).as(text).isInstanceOf(NumberFormatException.class);
+            } else {
+                assertThat(FixedPoint.parse(text)).as(text).isEqualTo(expected.unscaledValue().longValueExact());
+            }
+        }
+    }
+
+    @Test
+    void multiplyMatchesBigDecimal() {
+        assertThat(FixedPoint.multiply(FixedPoint.MAX_VALUE, FixedPoint.ONE)).isEqualTo(FixedPoint.MAX_VALUE);
+        assertThat(FixedPoint.multiply(-FixedPoint.MAX_VALUE, FixedPoint.ONE)).isEqualTo(-FixedPoint.MAX_VALUE);
+        assertThat(FixedPoint.multiply(5_000L, 1L)).isEqualTo(1L);
+        assertThat(FixedPoint.multiply(-5_000L, 1L)).isEqualTo(-1L);
+        assertThat(FixedPoint.multiply(4_999L, 1L)).isZero();
+        assertThatThrownBy(() -> FixedPoint.multiply(FixedPoint.MAX_VALUE, FixedPoint.ONE + 1))
+            .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> FixedPoint.multiply(FixedPoint.MAX_VALUE, -FixedPoint.MAX_VALUE))
+            .isInstanceOf(ArithmeticException.class);
+
+        for (int i = 0; i < SAMPLES; i++) {
+            long a = amount();
+            long b = amount();
+            assertSame(() -> decimal(a).multiply(decimal(b)).setScale(FixedPoint.SCALE, RoundingMode.HALF_UP).unscaledValue(),
+                () -> FixedPoint.multiply(a, b));
+        }
+    }
+
+    @Test
+    void utilizationMatchesBigDecimal() {
+        long limit = 100 * FixedPoint.ONE;
+        assertThat(FixedPoint.utilization(limit, limit)).isEqualTo(10_000L);
+        assertThat(FixedPoint.utilization(0L, limit)).isZero();
+        assertThat(FixedPoint.utilization(-limit, limit)).isEqualTo(-10_000L);
+        // 1/3 = 0.3333 and 2/3 = 0.6667 at four places
+        assertThat(FixedPoint.utilization(FixedPoint.ONE, 3 * FixedPoint.ONE)).isEqualTo(3_333L);
+        assertThat(FixedPoint.utilization(2 * FixedPoint.ONE, 3 * FixedPoint.ONE)).isEqualTo(6_667L);
+        assertThat(FixedPoint.utilization(-2 * FixedPoint.ONE, 3 * FixedPoint.ONE)).isEqualTo(-6_667L);
+        assertThat(FixedPoint.utilization(FixedPoint.MAX_VALUE, FixedPoint.MAX_VALUE)).isEqualTo(10_000L);
+
+        for (int i = 0; i < SAMPLES; i++) {
+            long current = amount();
+            long divisor = random.nextInt(10) == 0 ? -Math.abs(amount()) : Math.abs(amount());
+            assertUtilizationSame(current, divisor);
+        }
+    }
+
+    @Test
+    void utilizationAgainstZeroOrTinyLimitsFailsLikeBigDecimal() {
+        assertThatThrownBy(() -> FixedPoint.utilization(FixedPoint.ONE, 0L)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> FixedPoint.utilization(0L, 0L)).isInstanceOf(ArithmeticException.class);
+        // 10^14 / 0.0001 is far beyond a long of hundredths
+        assertThatThrownBy(() -> FixedPoint.utilization(FixedPoint.MAX_VALUE, 1L)).isInstanceOf(ArithmeticException.class);
+        assertUtilizationSame(FixedPoint.MAX_VALUE, 1L);
+        assertUtilizationSame(-FixedPoint.MAX_VALUE, 1L);
+        assertUtilizationSame(FixedPoint.MAX_VALUE, 1_000_000L);
+    }
+
+    @Test
+    void percentHundredthsGivesTheSameThresholdDecision() {
+        assertThat(FixedPoint.percentHundredths(new BigDecimal("80"))).isEqualTo(8_000L);
+        assertThat(FixedPoint.percentHundredths(new BigDecimal("80.00"))).isEqualTo(8_000L);
+        assertThat(FixedPoint.percentHundredths(new BigDecimal("80.001"))).isEqualTo(8_001L);
+        assertThat(FixedPoint.percentHundredths(new BigDecimal("-0.001"))).isZero();
+        assertThat(FixedPoint.percentHundredths(new BigDecimal("999.99"))).isEqualTo(99_999L);
+
+        for (int i = 0; i < SAMPLES; i++) {
+            // DECIMAL(5,2) as stored, plus finer scales a request may carry
+            BigDecimal threshold = BigDecimal.valueOf(random.nextLong(-99_999_999L, 100_000_000L), random.nextInt(2, 6));
+            long hundredths = FixedPoint.percentHundredths(threshold);
+            for (long utilization = hundredths - 2; utilization <= hundredths + 2; utilization++) {
+                boolean expected = FixedPoint.percentToBigDecimal(utilization).compareTo(threshold) >= 0;
+                assertThat(utilization >= hundredths).as("%s vs %s", utilization, threshold).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void percentOfMatchesBigDecimal() {
+        assertThat(FixedPoint.percentOf(FixedPoint.ONE, 0L)).isZero();
+        assertThat(FixedPoint.percentOf(FixedPoint.ONE, 3 * FixedPoint.ONE)).isEqualTo(333_333L);
+
+        for (int i = 0; i < SAMPLES; i++) {
+            long whole = Math.abs(amount());
+            long part = random.nextBoolean() ? Math.abs(amount()) : random.nextLong(0, whole + 1);
+            if (whole == 0) {
+                continue;
+            }
+            assertSame(() -> decimal(part).multiply(HUNDRED).divide(decimal(whole), FixedPoint.SCALE, RoundingMode.HALF_UP)
+                .unscaledValue(), () -> FixedPoint.percentOf(part, whole));
+        }
+    }
+
+    @Test
+    void severityThresholdsMatchBigDecimal() {
+        for (long utilization = -100; utilization <= 15_000; utilization++) {
+            assertSeveritySame(utilization, true);
+            assertSeveritySame(utilization, false);
+        }
+        for (int i = 0; i < SAMPLES; i++) {
+            long current = amount();
+            long limit = Math.abs(amount());
+            if (limit == 0) {
+                continue;
+            }
+            BigDecimal oldUtilization;
+            long utilization;
+            try {
+                oldUtilization = decimal(current).divide(decimal(limit), FixedPoint.SCALE, RoundingMode.HALF_UP)
+                    .multiply(HUNDRED);
+                utilization = FixedPoint.utilization(current, limit);
+            } catch (ArithmeticException e) {
+                continue;
+            }
+            boolean oldBreach = decimal(current).compareTo(decimal(limit)) >= 0;
+            assertThat(current >= limit).isEqualTo(oldBreach);
+            assertThat(RiskEvaluationService.determineSeverity(utilization, current >= limit))
+                .isEqualTo(oldSeverity(oldUtilization, oldBreach));
+        }
+    }
+
+    @Test
+    void recordableUtilizationFitsDecimal9x2() {
+        assertThat(FixedPoint.recordableUtilization(12_345L)).isEqualTo(12_345L);
+        assertThat(FixedPoint.recordableUtilization(Long.MAX_VALUE)).isEqualTo(FixedPoint.MAX_RECORDED_UTILIZATION);
+        assertThat(FixedPoint.recordableUtilization(-Long.MAX_VALUE)).isEqualTo(-FixedPoint.MAX_RECORDED_UTILIZATION);
+        assertThat(FixedPoint.percentToBigDecimal(FixedPoint.MAX_RECORDED_UTILIZATION).precision()).isEqualTo(9);
+    }
+
+    private void assertUtilizationSame(long current, long limit) {
+        assertSame(() -> decimal(current).divide(decimal(limit), FixedPoint.SCALE, RoundingMode.HALF_UP)
+                .multiply(HUNDRED).movePointRight(2).setScale(0).unscaledValue(),
+            () -> FixedPoint.utilization(current, limit));
+    }
+
+    private void assertSeveritySame(long utilization, boolean breach) {
+        assertThat(RiskEvaluationService.determineSeverity(utilization, breach))
+            .as("utilization=%s, breach=%s", utilization, breach)
+            .isEqualTo(oldSeverity(FixedPoint.percentToBigDecimal(utilization), breach));
+    }
+
+    // The BigDecimal code the fixed-point path replaced
+    private static RiskAlert.Severity oldSeverity(BigDecimal utilizationPct, boolean isBreach) {
+        if (isBreach) {
+            return utilizationPct.compareTo(BigDecimal.valueOf(120)) >= 0
+                ? RiskAlert.Severity.CRITICAL : RiskAlert.Severity.HIGH;
+        }
+        return utilizationPct.compareTo(BigDecimal.valueOf(90)) >= 0
+            ? RiskAlert.Severity.MEDIUM : RiskAlert.Severity.LOW;
+    }
+
+    /**
+     * The fixed-point result must equal the reference when the reference fits DECIMAL(18,4)
+     * (or a long, for percentages), and must throw ArithmeticException otherwise.
+     */
+    private static void assertSame(Supplier<BigInteger> reference, LongSupplier actual) {
+        BigInteger expected;
+        try {
+            expected = reference.get();
+        } catch (ArithmeticException e) {
+            assertThatThrownBy(actual::getAsLong).isInstanceOf(ArithmeticException.class);
+            return;
+        }
+        if (expected.bitLength() > 63) {
+            assertThatThrownBy(actual::getAsLong).as("expected overflow for %s", expected)
+                .isInstanceOf(ArithmeticException.class);
+            return;
+        }
+        long result;
+        try {
+            result = actual.getAsLong();
+        } catch (ArithmeticException e) {
+            // Amounts may only fail where the reference leaves DECIMAL(18,4)
+            assertThat(expected.abs()).as("unexpected overflow").isGreaterThan(MAX_UNSCALED);
+            return;
+        }
+        assertThat(result).isEqualTo(expected.longValueExact());
+    }
+
+    private static BigDecimal decimal(long scaled) {
+        return BigDecimal.valueOf(scaled, FixedPoint.SCALE);
+    }
+
+    // Spread over every magnitude in DECIMAL(18,4), not just the top of the range
+    private long amount() {
+        long magnitude = switch (random.nextInt(4)) {
+            case 0 -> random.nextLong(0, FixedPoint.MAX_VALUE + 1);
+            case 1 -> random.nextLong(0, 10 * FixedPoint.ONE);
+            case 2 -> (long) Math.pow(10, random.nextInt(0, 19)) - random.nextInt(0, 2);
+            default -> random.nextLong(0, (long) Math.pow(10, random.nextInt(1, 19)));
+        };
+        magnitude = Math.min(magnitude, FixedPoint.MAX_VALUE);
+        return random.nextBoolean() ? magnitude : -magnitude;
+    }
+}
@@ -0,0 +1,148 @@
+package com.tms.risk.service;
+
+import com.tms.risk.dto.PreTradeCheckRequest;
+import com.tms.risk.dto.PreTradeCheckResponse;
+import com.tms.risk.entity.RiskLimit;
+import com.tms.risk.event.PositionUpdate;
+import com.tms.risk.repository.RiskLimitRepository;
+import com.tms.risk.repository.SecuritySectorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class PreTradeCheckServiceTest {
+
+    private static final String ACCOUNT = "ACC1";
+    private static final String SYMBOL = "AAPL";
+
+    private final AccountExposureAggregator accountExposureAggregator = new AccountExposureAggregator();
+    private PreTradeCheckService preTradeCheckService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RiskLimitIndex riskLimitIndex = new RiskLimitIndex(mock(RiskLimitRepository.class), mock(ObjectProvider.class));
+        // A zero warning threshold reports every limit that is not breached, with its projected value
+        riskLimitIndex.replaceAll(List.of(
+            limit(1L, RiskLimit.LimitType.MAX_POSITION_VALUE, "1500"),
+            limit(2L, RiskLimit.LimitType.MAX_ACCOUNT_EXPOSURE, "1500"),
+            limit(3L, RiskLimit.LimitType.MAX_POSITION_QUANTITY, "1000")));
+        preTradeCheckService = new PreTradeCheckService(riskLimitIndex, accountExposureAggregator,
+            new ConcentrationEngine(mock(SecuritySectorRepository.class)),
+            new DailyTradeCounter("UTC", "00:00", false, 1_000));
+    }
+
+    @Test
+    void partialCloseRemovesCostBasisAtAverageCost() {
+        holdPosition(100, 1_000);
+
+        // Selling 60 of 100 above cost leaves 40% of the 1000 cost basis
+        PreTradeCheckResponse response = check(PreTradeCheckRequest.Side.SELL, 60, 50);
+
+        assertThat(response.isApproved()).isTrue();
+        assertThat(projected(response)).containsExactlyInAnyOrderEntriesOf(Map.of(
+            "MAX_POSITION_VALUE", decimal(400),
+            "MAX_ACCOUNT_EXPOSURE", decimal(400),
+            "MAX_POSITION_QUANTITY", decimal(40)));
+    }
+
+    @Test
+    void fullCloseAboveCostLeavesNoExposure() {
+        holdPosition(100, 1_000);
+
+        PreTradeCheckResponse response = check(PreTradeCheckRequest.Side.SELL, 100, 30);
+
+        assertThat(response.isApproved()).isTrue();
+        assertThat(projected(response)).containsExactlyInAnyOrderEntriesOf(Map.of(
+            "MAX_POSITION_VALUE", decimal(0),
+            "MAX_ACCOUNT_EXPOSURE", decimal(0),
+            "MAX_POSITION_QUANTITY", decimal(0)));
+    }
+
+    @Test
+    void flipValuesOnlyTheNewSideAtTheTradePrice() {
+        holdPosition(100, 1_000);
+
+        // 100 close at their 1000 cost; the 50 short opened at 20 are worth 1000. The short's
+        // cost basis is negative, as on position events, so it raises no position value warning
+        PreTradeCheckResponse response = check(PreTradeCheckRequest.Side.SELL, 150, 20);
+
+        assertThat(response.isApproved()).isTrue();
+        assertThat(projected(response)).containsExactlyInAnyOrderEntriesOf(Map.of(
+            "MAX_ACCOUNT_EXPOSURE", decimal(1_000),
+            "MAX_POSITION_QUANTITY", decimal(50)));
+    }
+
+    @Test
+    void flipFromShortValuesTheNewLongAtTheTradePrice() {
+        holdPosition(-100, -1_000);
+
+        PreTradeCheckResponse response = check(PreTradeCheckRequest.Side.BUY, 130, 40);
+
+        assertThat(response.isApproved()).isTrue();
+        assertThat(projected(response)).containsExactlyInAnyOrderEntriesOf(Map.of(
+            "MAX_POSITION_VALUE", decimal(1_200),
+            "MAX_ACCOUNT_EXPOSURE", decimal(1_200),
+            "MAX_POSITION_QUANTITY", decimal(30)));
+    }
+
+    @Test
+    void addingToAPositionIsValuedAtTheTradePrice() {
+        holdPosition(100, 1_000);
+
+        PreTradeCheckResponse response = check(PreTradeCheckRequest.Side.BUY, 20, 50);
+
+        assertThat(response.isApproved()).isFalse();
+        assertThat(response.getBreaches())
+            .extracting(PreTradeCheckResponse.LimitCheck::getLimitType)
+            .containsExactlyInAnyOrder("MAX_POSITION_VALUE", "MAX_ACCOUNT_EXPOSURE");
+        assertThat(response.getBreaches())
+            .extracting(PreTradeCheckResponse.LimitCheck::getProjectedValue)
+            .containsOnly(decimal(2_000));
+    }
+
+    private void holdPosition(long quantity, long costBasis) {
+        accountExposureAggregator.apply(new PositionUpdate("evt-1", 1L, null, "POS-1", ACCOUNT, SYMBOL, "TRD-1",
+            quantity * FixedPoint.ONE, costBasis * FixedPoint.ONE / quantity, costBasis * FixedPoint.ONE));
+    }
+
+    private PreTradeCheckResponse check(PreTradeCheckRequest.Side side, long quantity, long price) {
+        return preTradeCheckService.check(PreTradeCheckRequest.builder()
+            .accountCode(ACCOUNT)
+            .symbol(SYMBOL)
+            .side(side)
+            .quantity(BigDecimal.valueOf(quantity))
+            .price(BigDecimal.valueOf(price))
+            .build());
+    }
+
+    private static Map<String, BigDecimal> projected(PreTradeCheckResponse response) {
+        assertThat(response.getBreaches()).isEmpty();
+        return response.getWarnings().stream()
+            .collect(Collectors.toMap(PreTradeCheckResponse.LimitCheck::getLimitType,
+                PreTradeCheckResponse.LimitCheck::getProjectedValue));
+    }
+
+    private static BigDecimal decimal(long value) {
+        return FixedPoint.toBigDecimal(value * FixedPoint.ONE);
+    }
+
+    private static RiskLimit limit(Long limitId, RiskLimit.LimitType limitType, String limitValue) {
+        return RiskLimit.builder()
+            .limitId(limitId)
+            .accountCode(ACCOUNT)
+            .limitType(limitType)
+            .limitValue(new BigDecimal(limitValue))
+            .warningThreshold(BigDecimal.ZERO)
+            .isActive(true)
+            .build();
+    }
+}
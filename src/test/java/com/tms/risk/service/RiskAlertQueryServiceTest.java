@@ -0,0 +1,100 @@
+package com.tms.risk.service;
+
+import com.tms.risk.entity.RiskAlert;
+import com.tms.risk.repository.RiskAlertRepository;
+import com.tms.risk.repository.RiskAlertSearchRepository.Criteria;
+import com.tms.risk.repository.RiskAlertSearchRepository.Cursor;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RiskAlertQueryServiceTest {
+
+    private static final Criteria ALL = new Criteria(null, null, null, null, null);
+
+    private final RiskAlertRepository riskAlertRepository = mock(RiskAlertRepository.class);
+    private final RiskAlertQueryService riskAlertQueryService =
+        new RiskAlertQueryService(riskAlertRepository, mock(EntityManager.class));
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2026-10-17T09:30", "2026-10-17T09:30:05", "2026-10-17T09:30:05.123456789",
+        "2026-01-01T00:00:00.1"})
+    void cursorRoundTripsEveryTimestampPrecision(String createdAt) {
+        Cursor cursor = new Cursor(LocalDateTime.parse(createdAt), Long.MAX_VALUE);
+
+        String encoded = RiskAlertQueryService.encodeCursor(cursor);
+
+        assertThat(encoded).matches("[A-Za-z0-9_-]+");
+        assertThat(RiskAlertQueryService.decodeCursor(encoded)).isEqualTo(cursor);
+    }
+
+    @Test
+    void missingCursorStartsAtTheFirstPage() {
+        assertThat(RiskAlertQueryService.decodeCursor(null)).isNull();
+        assertThat(RiskAlertQueryService.decodeCursor(" ")).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not base64!", "2026-10-17T09:30|1"})
+    void cursorThatIsNotBase64UrlIsABadRequest(String cursor) {
+        assertBadRequest(cursor);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"no separator", "2026-13-40T09:30|1", "2026-10-17T09:30|abc", "2026-10-17T09:30|", "|1"})
+    void cursorWithAMalformedPositionIsABadRequest(String raw) {
+        assertBadRequest(Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void pagesContinueAfterTheLastAlertOfThePreviousPage() {
+        List<RiskAlert> firstPage = List.of(alert(30L, 3), alert(20L, 2), alert(10L, 1));
+        when(riskAlertRepository.search(eq(ALL), isNull(), eq(3))).thenReturn(firstPage);
+        Cursor afterSecond = new Cursor(firstPage.get(1).getCreatedAt(), 20L);
+        when(riskAlertRepository.search(ALL, afterSecond, 3)).thenReturn(List.of(alert(10L, 1)));
+
+        RiskAlertQueryService.Page first = riskAlertQueryService.search(ALL, null, 2);
+        RiskAlertQueryService.Page second = riskAlertQueryService.search(ALL, first.nextCursor(), 2);
+
+        assertThat(first.alerts()).extracting(RiskAlert::getAlertId).containsExactly(30L, 20L);
+        assertThat(RiskAlertQueryService.decodeCursor(first.nextCursor())).isEqualTo(afterSecond);
+        assertThat(second.alerts()).extracting(RiskAlert::getAlertId).containsExactly(10L);
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    void exactlyFullLastPageHasNoCursor() {
+        when(riskAlertRepository.search(any(), any(), eq(3))).thenReturn(List.of(alert(20L, 2), alert(10L, 1)));
+
+        assertThat(riskAlertQueryService.search(ALL, null, 2).nextCursor()).isNull();
+    }
+
+    private static void assertBadRequest(String cursor) {
+        assertThatThrownBy(() -> RiskAlertQueryService.decodeCursor(cursor))
+            .isInstanceOfSatisfying(ResponseStatusException.class,
+                e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    private static RiskAlert alert(Long alertId, int minute) {
+        return RiskAlert.builder()
+            .alertId(alertId)
+            .createdAt(LocalDateTime.of(2026, 10, 17, 9, minute, 0, 500_000))
+            .build();
+    }
+}
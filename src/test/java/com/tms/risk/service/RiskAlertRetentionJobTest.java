@@ -0,0 +1,60 @@
+package com.tms.risk.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RiskAlertRetentionJobTest {
+
+    private static final LocalDate THIS_MONTH = LocalDate.now().withDayOfMonth(1);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final RiskAlertRetentionJob retentionJob =
+        new RiskAlertRetentionJob(jdbcTemplate, new SimpleMeterRegistry(), true, 0, 2_000, 0, 500, 3);
+
+    @Test
+    void mergesBoundariesBetweenEmptyPartitionsBeforeTheCutoff() {
+        // Month -8 still holds an OPEN alert; with no retention period the cutoff is this month
+        List<LocalDateTime> boundaries = List.of(month(-10), month(-9), month(-8), month(-7), month(-6),
+            month(-5), month(-4), month(-3), month(-2), month(-1), month(0), month(1));
+        when(jdbcTemplate.queryForList(anyString(), eq(LocalDateTime.class))).thenReturn(boundaries);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT CASE"), eq(Integer.class), any(), any()))
+            .thenAnswer(invocation -> {
+                LocalDateTime from = ((Timestamp) invocation.getArgument(2)).toLocalDateTime();
+                LocalDateTime to = ((Timestamp) invocation.getArgument(3)).toLocalDateTime();
+                return !from.isAfter(month(-8)) && to.isAfter(month(-8)) ? 1 : 0;
+            });
+
+        int merged = retentionJob.mergeEmptyPartitions();
+
+        // -8 and -7 bound the occupied month; 0 would join this month, which is not past the cutoff
+        assertThat(merged).isEqualTo(8);
+        for (int offset : new int[] {-10, -9, -6, -5, -4, -3, -2, -1}) {
+            verify(jdbcTemplate).update(startsWith("ALTER PARTITION FUNCTION pf_risk_alert_created() MERGE"),
+                eq(Timestamp.valueOf(month(offset))));
+        }
+        for (int offset : new int[] {-8, -7, 0, 1}) {
+            verify(jdbcTemplate, never()).update(startsWith("ALTER PARTITION FUNCTION pf_risk_alert_created() MERGE"),
+                eq(Timestamp.valueOf(month(offset))));
+        }
+    }
+
+    private static LocalDateTime month(int offset) {
+        return THIS_MONTH.plusMonths(offset).atStartOfDay();
+    }
+}
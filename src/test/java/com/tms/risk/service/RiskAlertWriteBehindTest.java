@@ -0,0 +1,133 @@
+package com.tms.risk.service;
+
+import com.tms.risk.entity.RiskAlert;
+import com.tms.risk.entity.RiskAlertOutbox;
+import com.tms.risk.event.AlertStateChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RiskAlertWriteBehindTest {
+
+    private final List<String> callbackThreads = new CopyOnWriteArrayList<>();
+    private RiskAlertWriteBehind writeBehind;
+
+    @AfterEach
+    void tearDown() {
+        writeBehind.shutdown();
+    }
+
+    @Test
+    void callbacksRunOnTheirOwnThreadInOrder() throws Exception {
+        writeBehind = writeBehind(2);
+        CountDownLatch done = new CountDownLatch(2);
+
+        writeBehind.insert(alert(1L), null);
+        writeBehind.onDurable(() -> record("first", done));
+        writeBehind.flush();
+        writeBehind.onDurable(() -> record("second", done));
+        writeBehind.flush();
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(callbackThreads).containsExactly(
+            "first@risk-write-behind-callbacks", "second@risk-write-behind-callbacks");
+    }
+
+    @Test
+    void slowCallbackHoldsUpProducersButNotTheFlush() throws Exception {
+        writeBehind = writeBehind(2);
+        CountDownLatch release = new CountDownLatch(1);
+
+        writeBehind.insert(alert(1L), null);
+        writeBehind.onDurable(() -> await(release));
+        writeBehind.flush();
+
+        // Still pending: the first alert's callback has not run
+        writeBehind.insert(alert(2L), null);
+        CompletableFuture<Void> producer = CompletableFuture.runAsync(() -> writeBehind.onDurable(() -> { }));
+        Thread.sleep(200);
+        assertThat(producer).isNotDone();
+
+        // The scheduled flush is not blocked and commits the second alert
+        CompletableFuture<Void> flush = CompletableFuture.runAsync(writeBehind::flush);
+        flush.get(5, TimeUnit.SECONDS);
+        assertThat(producer).isNotDone();
+
+        release.countDown();
+        producer.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void awaitDurableReturnsOnceTheChangesArePublished() {
+        List<Long> published = new CopyOnWriteArrayList<>();
+        writeBehind = writeBehind(100, event -> {
+            sleep(100);
+            published.add(((AlertStateChange) event).alertId());
+        });
+
+        writeBehind.insert(alert(1L), null);
+        writeBehind.insert(alert(2L), null);
+        writeBehind.awaitDurable();
+
+        assertThat(published).containsExactly(1L, 2L);
+    }
+
+    private RiskAlertWriteBehind writeBehind(int maxPending) {
+        return writeBehind(maxPending, event -> { });
+    }
+
+    private RiskAlertWriteBehind writeBehind(int maxPending, ApplicationEventPublisher eventPublisher) {
+        RiskAlertOutboxWriter riskAlertOutboxWriter = mock(RiskAlertOutboxWriter.class);
+        when(riskAlertOutboxWriter.newEntry(any(), any())).thenReturn(new RiskAlertOutbox());
+        return new RiskAlertWriteBehind(mock(JdbcTemplate.class), riskAlertOutboxWriter,
+            mock(ConsumerOffsetStore.class), mock(OpenAlertRegistry.class), eventPublisher,
+            mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), 500, maxPending, 50L);
+    }
+
+    private void record(String name, CountDownLatch done) {
+        callbackThreads.add(name + "@" + Thread.currentThread().getName());
+        done.countDown();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static RiskAlert alert(Long alertId) {
+        return RiskAlert.builder()
+            .alertId(alertId)
+            .limitId(1L)
+            .alertType(RiskAlert.AlertType.LIMIT_BREACH)
+            .severity(RiskAlert.Severity.HIGH)
+            .accountCode("ACC1")
+            .createdAt(LocalDateTime.now())
+            .build();
+    }
+}
@@ -0,0 +1,179 @@
+package com.tms.risk.service;
+
+import com.tms.common.observability.metrics.TradeMetrics;
+import com.tms.risk.entity.RiskAlert;
+import com.tms.risk.entity.RiskLimit;
+import com.tms.risk.event.PositionUpdate;
+import com.tms.risk.repository.RiskAlertRepository;
+import com.tms.risk.repository.RiskLimitRepository;
+import com.tms.risk.repository.SecuritySectorRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RiskEvaluationServiceTest {
+
+    private static final String ACCOUNT = "ACC1";
+    private static final String SYMBOL = "AAPL";
+    private static final String POSITION = "ACC1:AAPL";
+
+    private final AccountExposureAggregator accountExposureAggregator = new AccountExposureAggregator();
+    private final RiskAlertWriteBehind riskAlertWriteBehind = mock(RiskAlertWriteBehind.class);
+    private RiskLimitIndex riskLimitIndex;
+    private RiskEvaluationService riskEvaluationService;
+    private int sequence;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        riskLimitIndex = new RiskLimitIndex(mock(RiskLimitRepository.class), mock(ObjectProvider.class));
+        riskLimitIndex.replaceAll(List.of(singleTradeLimit("1000")));
+
+        RiskAlertRepository riskAlertRepository = mock(RiskAlertRepository.class);
+        RiskAlertIdAllocator riskAlertIdAllocator = mock(RiskAlertIdAllocator.class);
+        AtomicLong alertIds = new AtomicLong();
+        when(riskAlertIdAllocator.next()).thenAnswer(invocation -> alertIds.incrementAndGet());
+
+        riskEvaluationService = new RiskEvaluationService(
+            riskLimitIndex,
+            riskAlertRepository,
+            new OpenAlertRegistry(riskAlertRepository, mock(ObjectProvider.class)),
+            accountExposureAggregator,
+            new ConcentrationEngine(mock(SecuritySectorRepository.class)),
+            new DailyTradeCounter("UTC", "00:00", false, 1_000),
+            riskAlertIdAllocator,
+            riskAlertWriteBehind,
+            mock(TradeMetrics.class),
+            new RiskEvaluationMetrics(new SimpleMeterRegistry()),
+            event -> { });
+    }
+
+    @Test
+    void singleTradeValueMeasuresTheTradeNotThePosition() {
+        assertThat(riskEvaluationService.evaluatePosition(update(90, 900))).isEmpty();
+        // The position is now worth 1400, but the trade itself only 500
+        assertThat(riskEvaluationService.evaluatePosition(update(140, 1_400))).isEmpty();
+
+        List<RiskAlert> alerts = riskEvaluationService.evaluatePosition(update(260, 2_600));
+
+        assertThat(alerts).singleElement().satisfies(alert -> {
+            assertThat(alert.getAlertType()).isEqualTo(RiskAlert.AlertType.LIMIT_BREACH);
+            assertThat(alert.getCurrentValue()).isEqualByComparingTo("1200");
+            assertThat(alert.getTriggeringTradeId()).isEqualTo("TRD-3");
+        });
+    }
+
+    @Test
+    void everyBreachingTradeRaisesItsOwnAlert() {
+        List<RiskAlert> first = riskEvaluationService.evaluatePosition(update(150, 1_500));
+        List<RiskAlert> second = riskEvaluationService.evaluatePosition(update(300, 3_000));
+
+        assertThat(first).extracting(RiskAlert::getTriggeringTradeId).containsExactly("TRD-1");
+        assertThat(second).extracting(RiskAlert::getTriggeringTradeId).containsExactly("TRD-2");
+    }
+
+    @Test
+    void reductionIsValuedAtAverageCost() {
+        riskEvaluationService.evaluatePosition(update(200, 800));
+
+        // Selling 150 of 200 takes 600 of cost basis out, whatever the fill price
+        assertThat(riskEvaluationService.evaluatePosition(update(50, 200))).isEmpty();
+        assertThat(RiskEvaluationService.tradeValue(
+            new AccountExposureAggregator.PositionExposure(ACCOUNT, SYMBOL, qty(200), amount(4_000), 1L),
+            update(50, 1_000))).isEqualTo(amount(3_000));
+    }
+
+    @Test
+    void flipIsValuedAtThePriceOfTheNewSide() {
+        AccountExposureAggregator.PositionExposure previous =
+            new AccountExposureAggregator.PositionExposure(ACCOUNT, SYMBOL, qty(100), amount(1_000), 1L);
+
+        // 150 sold, leaving 50 short at 20: the whole trade is 150 * 20
+        assertThat(RiskEvaluationService.tradeValue(previous, update(-50, -1_000))).isEqualTo(amount(3_000));
+    }
+
+    @Test
+    void eventWithoutATradeIsNotCheckedAgainstSingleTradeLimits() {
+        riskEvaluationService.evaluatePosition(update(100, 800));
+
+        // Same quantity, revalued cost basis: no trade happened
+        assertThat(riskEvaluationService.evaluatePosition(update(100, 5_000))).isEmpty();
+        assertThat(RiskEvaluationService.tradeValue(AccountExposureAggregator.STALE, update(100, 5_000)))
+            .isEqualTo(Long.MIN_VALUE);
+    }
+
+    @Test
+    void conflatedEventsStillRaiseABreachForEachTrade() {
+        riskLimitIndex.replaceAll(List.of(singleTradeLimit("1000"), positionValueLimit("100000")));
+        List<PositionUpdate> batch = List.of(
+            update(150, 1_500),   // trade 1500: breach
+            update(160, 1_600),   // trade 100
+            update(300, 3_000),   // trade 1400: breach
+            update(420, 4_200));  // trade 1200: breach, newest
+        boolean[] superseded = new PositionConflator(true, new SimpleMeterRegistry()).superseded(batch);
+        assertThat(superseded).containsExactly(true, true, true, false);
+
+        AccountLaneEvaluator accountLaneEvaluator = new AccountLaneEvaluator(riskEvaluationService, 4);
+        try {
+            assertThat(accountLaneEvaluator.evaluate(batch, superseded).isEmpty()).isTrue();
+        } finally {
+            accountLaneEvaluator.shutdown();
+        }
+
+        ArgumentCaptor<RiskAlert> raised = ArgumentCaptor.forClass(RiskAlert.class);
+        verify(riskAlertWriteBehind, times(3)).insert(raised.capture(), any());
+        assertThat(raised.getAllValues())
+            .extracting(RiskAlert::getTriggeringTradeId, alert -> alert.getCurrentValue().longValueExact())
+            .containsExactly(tuple("TRD-1", 1_500L), tuple("TRD-3", 1_400L), tuple("TRD-4", 1_200L));
+        // The superseded events' state was applied, so the position ends where the newest left it
+        assertThat(accountExposureAggregator.accountExposure(ACCOUNT)).isEqualTo(amount(4_200));
+    }
+
+    private PositionUpdate update(long quantity, long costBasis) {
+        sequence++;
+        return new PositionUpdate("EVT-" + sequence, sequence, null, POSITION, ACCOUNT, SYMBOL, "TRD-" + sequence,
+            qty(quantity), quantity != 0 ? amount(costBasis) / quantity : 0L, amount(costBasis));
+    }
+
+    private static long qty(long quantity) {
+        return quantity * FixedPoint.ONE;
+    }
+
+    private static long amount(long amount) {
+        return amount * FixedPoint.ONE;
+    }
+
+    private static RiskLimit positionValueLimit(String limitValue) {
+        return RiskLimit.builder()
+            .limitId(2L)
+            .accountCode(ACCOUNT)
+            .limitType(RiskLimit.LimitType.MAX_POSITION_VALUE)
+            .limitValue(new BigDecimal(limitValue))
+            .isActive(true)
+            .build();
+    }
+
+    private static RiskLimit singleTradeLimit(String limitValue) {
+        return RiskLimit.builder()
+            .limitId(1L)
+            .accountCode(ACCOUNT)
+            .limitType(RiskLimit.LimitType.MAX_SINGLE_TRADE_VALUE)
+            .limitValue(new BigDecimal(limitValue))
+            .isActive(true)
+            .build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.tms.risk.service;
+
+import com.tms.risk.entity.RiskLimit;
+import com.tms.risk.repository.RiskLimitRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class RiskLimitIndexTest {
+
+    private RiskLimitIndex riskLimitIndex;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        riskLimitIndex = new RiskLimitIndex(mock(RiskLimitRepository.class), mock(ObjectProvider.class));
+        riskLimitIndex.replaceAll(List.of(
+            limit(1L, "ACC1", "AAPL", "100"),
+            limit(2L, "ACC1", null, "200"),
+            limit(3L, "ACC2", null, "300"),
+            limit(4L, null, "AAPL", "400"),
+            limit(5L, null, null, "500")));
+    }
+
+    @Test
+    void accountLookupReturnsAccountWideAndSymbolLimits() {
+        assertThat(riskLimitIndex.findByAccount("ACC1")).extracting(RiskLimit::getLimitId)
+            .containsExactlyInAnyOrder(1L, 2L);
+        assertThat(riskLimitIndex.findByAccount("ACC3")).isEmpty();
+    }
+
+    @Test
+    void upsertReplacesTheLimitInPlaceAndLeavesOtherTiersShared() {
+        RiskLimitIndex.Snapshot before = riskLimitIndex.snapshot();
+
+        riskLimitIndex.upsert(limit(2L, "ACC1", null, "250"));
+
+        RiskLimitIndex.Snapshot after = riskLimitIndex.snapshot();
+        assertThat(after.accountWide("ACC1")).singleElement()
+            .satisfies(entry -> assertThat(entry.limitValue()).isEqualTo(250 * FixedPoint.ONE));
+        assertThat(after.byAccountAndSymbol()).isSameAs(before.byAccountAndSymbol());
+        assertThat(after.bySymbol()).isSameAs(before.bySymbol());
+        assertThat(after.global()).isSameAs(before.global());
+        assertThat(after.accountWide("ACC2")).isSameAs(before.accountWide("ACC2"));
+        assertThat(riskLimitIndex.findById(2L)).get()
+            .extracting(RiskLimit::getLimitValue).isEqualTo(new BigDecimal("250"));
+    }
+
+    @Test
+    void upsertMovesALimitWhoseScopeChanged() {
+        riskLimitIndex.upsert(limit(1L, "ACC2", "MSFT", "100"));
+
+        assertThat(riskLimitIndex.snapshot().exact("ACC1", "AAPL")).isEmpty();
+        assertThat(riskLimitIndex.snapshot().byAccountAndSymbol()).doesNotContainKey("ACC1");
+        assertThat(riskLimitIndex.findApplicableLimits("ACC2", "MSFT")).extracting(RiskLimit::getLimitId)
+            .containsExactly(1L, 3L, 5L);
+        assertThat(riskLimitIndex.findByAccount("ACC1")).extracting(RiskLimit::getLimitId).containsExactly(2L);
+    }
+
+    @Test
+    void deactivatingOrRemovingDropsTheLimitEverywhere() {
+        RiskLimit inactive = limit(4L, null, "AAPL", "400");
+        inactive.setIsActive(false);
+        riskLimitIndex.upsert(inactive);
+        riskLimitIndex.remove(5L);
+        riskLimitIndex.remove(99L);
+
+        assertThat(riskLimitIndex.findApplicableLimits("ACC1", "AAPL")).extracting(RiskLimit::getLimitId)
+            .containsExactly(1L, 2L);
+        assertThat(riskLimitIndex.snapshot().bySymbol()).isEmpty();
+        assertThat(riskLimitIndex.size()).isEqualTo(3);
+        assertThat(riskLimitIndex.getAll()).extracting(RiskLimit::getLimitId).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    void upsertOfANewLimitAppendsToItsBucket() {
+        riskLimitIndex.upsert(limit(6L, "ACC1", "AAPL", "600"));
+
+        assertThat(riskLimitIndex.snapshot().exact("ACC1", "AAPL")).extracting(entry -> entry.limit().getLimitId())
+            .containsExactly(1L, 6L);
+        assertThat(riskLimitIndex.size()).isEqualTo(6);
+    }
+
+    private static RiskLimit limit(Long limitId, String accountCode, String symbol, String limitValue) {
+        return RiskLimit.builder()
+            .limitId(limitId)
+            .accountCode(accountCode)
+            .symbol(symbol)
+            .limitType(RiskLimit.LimitType.MAX_POSITION_VALUE)
+            .limitValue(new BigDecimal(limitValue))
+            .isActive(true)
+            .build();
+    }
+}
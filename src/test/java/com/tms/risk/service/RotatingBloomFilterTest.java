@@ -0,0 +1,78 @@
+package com.tms.risk.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.data.Percentage.withPercentage;
+
+class RotatingBloomFilterTest {
+
+    // risk.idempotency defaults
+    private static final int EXPECTED_INSERTIONS = 1_000_000;
+    private static final double FALSE_POSITIVE_RATE = 0.000001;
+
+    @Test
+    void falsePositiveRateAtTheConfiguredSizeStaysWithinTarget() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(EXPECTED_INSERTIONS, FALSE_POSITIVE_RATE);
+        // Both generations full, the worst case just before the next rotation drops the older one
+        fill(filter, "evt-", 2 * EXPECTED_INSERTIONS - 1);
+
+        long queries = 20_000_000;
+        long falsePositives = falsePositives(filter, "miss-", queries);
+
+        assertThat(filter.size()).isEqualTo(2L * EXPECTED_INSERTIONS - 1);
+        // Rounding the hash count to an integer costs a little against the target
+        assertThat(filter.falsePositiveRate()).isCloseTo(FALSE_POSITIVE_RATE, withPercentage(5));
+        // About 20 expected; Poisson odds of 60 or more are negligible
+        assertThat(falsePositives).isLessThan(60);
+    }
+
+    @Test
+    void falsePositiveRateMatchesTheEstimateAtAHigherTarget() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(100_000, 0.001);
+        fill(filter, "evt-", 199_999);
+
+        long queries = 2_000_000;
+        double measured = (double) falsePositives(filter, "miss-", queries) / queries;
+
+        assertThat(measured).isBetween(0.0005, 0.0015);
+        assertThat(measured).isCloseTo(filter.falsePositiveRate(), withPercentage(20));
+    }
+
+    @Test
+    void keysAreRememberedForAtLeastOneGeneration() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(1_000, 0.0001);
+        fill(filter, "evt-", 1_000);
+        fill(filter, "next-", 999);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(filter.mightContain("evt-" + i)).isTrue();
+        }
+        // One more key rotates again and drops the first generation
+        filter.put("next-999");
+        assertThat(filter.size()).isEqualTo(1_000);
+    }
+
+    @Test
+    void rejectsInvalidSizing() {
+        assertThatThrownBy(() -> new RotatingBloomFilter(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RotatingBloomFilter(1_000, 1.0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void fill(RotatingBloomFilter filter, String prefix, int count) {
+        for (int i = 0; i < count; i++) {
+            filter.put(prefix + i);
+        }
+    }
+
+    private static long falsePositives(RotatingBloomFilter filter, String prefix, long queries) {
+        long falsePositives = 0;
+        for (long i = 0; i < queries; i++) {
+            if (filter.mightContain(prefix + i)) {
+                falsePositives++;
+            }
+        }
+        return falsePositives;
+    }
+}